@@ -0,0 +1,313 @@
+package com.example.kstreams;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KeyValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * JMH benchmarks for the per-record hot paths of the Database to Redis
+ * application.
+ *
+ * Every benchmark processes exactly one record per operation, so the
+ * throughput score is records per second and, when run with the GC profiler,
+ * gc.alloc.rate.norm is the number of bytes allocated per record:
+ *
+ * mvn -Pbenchmark package
+ * java -jar target/db-redis-streams-1.0-SNAPSHOT-benchmarks.jar -prof gc
+ *
+ * Inputs are generated up front for sensorCount sensors and cycled through.
+ * The bucketDistribution parameter controls which hours the records fall in:
+ * - current   every record updates the newest hour (steady-state CDC refresh)
+ * - uniform   hours spread uniformly over the last 24 hours
+ * - backfill  hours advancing in order through the window (catch-up after an
+ *             outage, each sensor's ring buffer rotates constantly)
+ *
+ * Avro serdes talk to an in-memory mock Schema Registry, so the numbers
+ * include framing and schema lookup but no network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DbRedisStreamsBenchmark {
+
+    /** Number of pre-generated input records cycled through by each benchmark */
+    private static final int INPUT_COUNT = 1 << 14;
+    private static final String REGISTRY_SCOPE = "db-redis-streams-benchmark";
+
+    @Param({ "100", "10000" })
+    public int sensorCount;
+
+    @Param({ "current", "uniform", "backfill" })
+    public String bucketDistribution;
+
+    private GenericRecord[] cdcRecords;
+    private HourlyDataRow[] cdcRows;
+    private HourEnergy[] hourEnergies;
+    private String[] sensors;
+    private byte[][] cdcBytes;
+    private byte[][] hourEnergyBytes;
+    private byte[][] aggDataBytes;
+    private byte[][] ringBufferBytes;
+    private int next;
+
+    private Serializer<GenericRecord> cdcSerializer;
+    private Deserializer<GenericRecord> cdcDeserializer;
+    private Deserializer<HourlyDataRow> cdcProjectionDeserializer;
+    private Serializer<HourEnergy> hourEnergySerializer;
+    private Deserializer<HourEnergy> hourEnergyDeserializer;
+    private Serializer<RedisAggData> aggDataSerializer;
+    private Deserializer<RedisAggData> aggDataDeserializer;
+    private HourlyRingBufferSerde ringBufferSerde;
+
+    /** Simulated aggregation store holding serialized ring buffers, as RocksDB would */
+    private Map<String, byte[]> store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, String> serdeConfig = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+
+        GenericAvroSerde cdcSerde = new GenericAvroSerde();
+        cdcSerde.configure(serdeConfig, false);
+        cdcSerializer = cdcSerde.serializer();
+        cdcDeserializer = cdcSerde.deserializer();
+
+        SpecificAvroSerde<HourEnergy> hourEnergySerde = new SpecificAvroSerde<>();
+        hourEnergySerde.configure(serdeConfig, false);
+        hourEnergySerializer = hourEnergySerde.serializer();
+        hourEnergyDeserializer = hourEnergySerde.deserializer();
+
+        SpecificAvroSerde<RedisAggData> aggDataSerde = new SpecificAvroSerde<>();
+        aggDataSerde.configure(serdeConfig, false);
+        aggDataSerializer = aggDataSerde.serializer();
+        aggDataDeserializer = aggDataSerde.deserializer();
+
+        ringBufferSerde = new HourlyRingBufferSerde();
+
+        Schema cdcSchema = cdcSchema();
+        Schema afterSchema = cdcSchema.getField("after").schema().getTypes().get(1);
+        long currentHour = System.currentTimeMillis() / HourlyRingBuffer.MILLIS_PER_HOUR;
+        SplittableRandom random = new SplittableRandom(42);
+
+        cdcRecords = new GenericRecord[INPUT_COUNT];
+        cdcRows = new HourlyDataRow[INPUT_COUNT];
+        hourEnergies = new HourEnergy[INPUT_COUNT];
+        sensors = new String[INPUT_COUNT];
+        cdcBytes = new byte[INPUT_COUNT][];
+        hourEnergyBytes = new byte[INPUT_COUNT][];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            String sensor = "sensor_" + random.nextInt(sensorCount);
+            long epochHour = currentHour - hourOffset(i, random);
+            double energyTotal = random.nextDouble(0.0, 50.0);
+
+            GenericRecord after = new GenericData.Record(afterSchema);
+            after.put("sensor", sensor);
+            after.put("hour_bucket", epochHour * HourlyRingBuffer.MILLIS_PER_HOUR * 1000);
+            after.put("energy_total", energyTotal);
+            GenericRecord cdcRecord = new GenericData.Record(cdcSchema);
+            cdcRecord.put("after", after);
+
+            sensors[i] = sensor;
+            cdcRecords[i] = cdcRecord;
+            hourEnergies[i] = new HourEnergy(energyTotal, "", epochHour);
+            cdcBytes[i] = cdcSerializer.serialize(App.SENSOR_INPUT_TOPIC, cdcRecord);
+            cdcRows[i] = new HourlyDataRow(sensor, epochHour * HourlyRingBuffer.MILLIS_PER_HOUR * 1000, energyTotal);
+            hourEnergyBytes[i] = hourEnergySerializer.serialize(App.SENSOR_OUTPUT_TOPIC, hourEnergies[i]);
+        }
+
+        // Configured once the CDC schema is registered, so the writer schema is loaded up front as in production
+        cdcProjectionDeserializer = new HourlyDataDeserializer();
+        cdcProjectionDeserializer.configure(serdeConfig, false);
+
+        // Fill the store with a full window per sensor for the store and output benchmarks
+        store = new HashMap<>();
+        aggDataBytes = new byte[INPUT_COUNT][];
+        ringBufferBytes = new byte[INPUT_COUNT][];
+        for (int i = 0; i < sensorCount; i++) {
+            HourlyRingBuffer buffer = new HourlyRingBuffer();
+            for (int hour = HourlyRingBuffer.SLOTS - 1; hour >= 0; hour--) {
+                buffer.put(currentHour - hour, random.nextDouble(0.0, 50.0));
+            }
+            store.put("sensor_" + i, ringBufferSerde.serializer().serialize(App.AGGREGATION_STORE, buffer));
+        }
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            ringBufferBytes[i] = store.get(sensors[i]);
+            HourlyRingBuffer buffer = ringBufferSerde.deserializer().deserialize(App.AGGREGATION_STORE,
+                    ringBufferBytes[i]);
+            aggDataBytes[i] = aggDataSerializer.serialize(App.SENSOR_OUTPUT_TOPIC,
+                    buffer.toRedisAggData(HourBucketFormat.STRING));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+    }
+
+    /**
+     * @return How many hours before the current hour input record i falls
+     */
+    private int hourOffset(int i, SplittableRandom random) {
+        switch (bucketDistribution) {
+            case "current":
+                return 0;
+            case "uniform":
+                return random.nextInt(HourlyRingBuffer.SLOTS);
+            case "backfill":
+                return HourlyRingBuffer.SLOTS - 1 - (i * HourlyRingBuffer.SLOTS / INPUT_COUNT);
+            default:
+                throw new IllegalArgumentException("Unknown bucket distribution: " + bucketDistribution);
+        }
+    }
+
+    /**
+     * @return Schema of the Debezium CDC value, reduced to the 'after' field the
+     *         application reads
+     */
+    static Schema cdcSchema() {
+        Schema hourBucket = LogicalTypes.timestampMicros().addToSchema(Schema.create(Schema.Type.LONG));
+        Schema after = SchemaBuilder.record("Value").namespace("db.public.hourlydata").fields()
+                .optionalString("sensor")
+                .name("hour_bucket").type(hourBucket).noDefault()
+                .optionalDouble("energy_total")
+                .endRecord();
+        return SchemaBuilder.record("Envelope").namespace("db.public.hourlydata").fields()
+                .name("after").type().optional().type(after)
+                .endRecord();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public KeyValue<String, HourEnergy> energyDataMapper() {
+        return App.energyDataMapper.apply(null, cdcRows[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean isWithinLast24HoursFilter() {
+        return App.isWithinLast24HoursFilter.test(null, hourEnergies[nextIndex()]);
+    }
+
+    /**
+     * One aggregation step as HourlyAggregationProcessor performs it in eager
+     * mode: read and decode the sensor's ring buffer, apply the hour, encode
+     * and write it back, and build the output document.
+     */
+    @Benchmark
+    public RedisAggData hourlyAggregation() {
+        int index = nextIndex();
+        String sensor = sensors[index];
+        HourEnergy hourEnergy = hourEnergies[index];
+
+        HourlyRingBuffer buffer = ringBufferSerde.deserializer().deserialize(App.AGGREGATION_STORE,
+                store.get(sensor));
+        buffer.put(hourEnergy.getHourEpoch(), hourEnergy.getEnergyTotal());
+        store.put(sensor, ringBufferSerde.serializer().serialize(App.AGGREGATION_STORE, buffer));
+        return buffer.toRedisAggData(HourBucketFormat.STRING);
+    }
+
+    /**
+     * The full per-record path from CDC bytes to output bytes, without the
+     * repartition round trip.
+     */
+    @Benchmark
+    public byte[] endToEnd() {
+        int index = nextIndex();
+        HourlyDataRow cdcRow = cdcProjectionDeserializer.deserialize(App.SENSOR_INPUT_TOPIC, cdcBytes[index]);
+        KeyValue<String, HourEnergy> mapped = App.energyDataMapper.apply(null, cdcRow);
+        if (mapped.key == null || !App.isWithinLast24HoursFilter.test(mapped.key, mapped.value)) {
+            return null;
+        }
+        HourlyRingBuffer buffer = ringBufferSerde.deserializer().deserialize(App.AGGREGATION_STORE,
+                store.get(mapped.key));
+        buffer.put(mapped.value.getHourEpoch(), mapped.value.getEnergyTotal());
+        store.put(mapped.key, ringBufferSerde.serializer().serialize(App.AGGREGATION_STORE, buffer));
+        return aggDataSerializer.serialize(App.SENSOR_OUTPUT_TOPIC, buffer.toRedisAggData(HourBucketFormat.STRING));
+    }
+
+    @Benchmark
+    public GenericRecord cdcGenericDeserialize() {
+        return cdcDeserializer.deserialize(App.SENSOR_INPUT_TOPIC, cdcBytes[nextIndex()]);
+    }
+
+    /**
+     * Decoding as the application does: only the three columns of the 'after'
+     * row, for comparison with cdcGenericDeserialize.
+     */
+    @Benchmark
+    public HourlyDataRow cdcProjectionDeserialize() {
+        return cdcProjectionDeserializer.deserialize(App.SENSOR_INPUT_TOPIC, cdcBytes[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] cdcGenericSerialize() {
+        return cdcSerializer.serialize(App.SENSOR_INPUT_TOPIC, cdcRecords[nextIndex()]);
+    }
+
+    @Benchmark
+    public HourEnergy hourEnergySpecificRoundTrip() {
+        int index = nextIndex();
+        byte[] bytes = hourEnergySerializer.serialize(App.SENSOR_OUTPUT_TOPIC, hourEnergies[index]);
+        return hourEnergyDeserializer.deserialize(App.SENSOR_OUTPUT_TOPIC, bytes);
+    }
+
+    @Benchmark
+    public HourEnergy hourEnergySpecificDeserialize() {
+        return hourEnergyDeserializer.deserialize(App.SENSOR_OUTPUT_TOPIC, hourEnergyBytes[nextIndex()]);
+    }
+
+    @Benchmark
+    public RedisAggData aggDataSpecificDeserialize() {
+        return aggDataDeserializer.deserialize(App.SENSOR_OUTPUT_TOPIC, aggDataBytes[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] aggDataSpecificSerialize() {
+        RedisAggData aggData = ringBufferSerde.deserializer().deserialize(App.AGGREGATION_STORE,
+                ringBufferBytes[nextIndex()]).toRedisAggData(HourBucketFormat.STRING);
+        return aggDataSerializer.serialize(App.SENSOR_OUTPUT_TOPIC, aggData);
+    }
+
+    @Benchmark
+    public byte[] ringBufferSerdeRoundTrip() {
+        HourlyRingBuffer buffer = ringBufferSerde.deserializer().deserialize(App.AGGREGATION_STORE,
+                ringBufferBytes[nextIndex()]);
+        return ringBufferSerde.serializer().serialize(App.AGGREGATION_STORE, buffer);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
+
+/**
+ * Load harness that replays synthetic Debezium hourlydata CDC records through
+ * the full Database to Redis topology with TopologyTestDriver, without
+ * brokers, and reports throughput and heap usage for instance sizing.
+ *
+ * Usage:
+ * java -cp target/db-redis-streams-1.0-SNAPSHOT-benchmarks.jar \
+ *     com.example.kstreams.DbRedisTopologyLoadHarness [sensors] [hours] [refreshesPerHour]
+ *
+ * Defaults to 1000 sensors over a year (8760 hours) with one CDC update per
+ * sensor and hour, i.e. 8.76 million records. refreshesPerHour > 1 simulates
+ * the continuous aggregate re-emitting the open hour bucket several times.
+ * Topology settings are read from the same environment variables as the
+ * application; since a year of history only passes the 24-hour filter in an
+ * event-time mode, FRESHNESS_MODE=live is replaced by auto. The simulated wall
+ * clock advances one hour per replayed hour, so wall-clock punctuators fire.
+ *
+ * Records go through the real Avro serdes (mock Schema Registry), the
+ * repartition round trip and the state stores of STATE_STORE_PROFILE; only
+ * the network and the broker are missing.
+ */
+public class DbRedisTopologyLoadHarness {
+
+    private static final String REGISTRY_SCOPE = "db-redis-streams-harness";
+    /** Progress is printed every this many input records */
+    private static final long REPORT_EVERY = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        int sensors = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int hours = args.length > 1 ? Integer.parseInt(args[1]) : 24 * 365;
+        int refreshesPerHour = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        TopologySettings settings = TopologySettings.fromEnvironment();
+        if (settings.freshnessMode() == FreshnessMode.LIVE) {
+            settings = new TopologySettings(settings.hourBucketFormat(), settings.evictionInterval(),
+                    settings.evictionPunctuationType(), settings.emitMode(), settings.emitInterval(),
+                    FreshnessMode.AUTO, settings.replayCatchUp(), settings.rollupResolutions(),
+                    settings.rollupEmitInterval(), settings.stateStoreProfile(), settings.redisOutputMode());
+        }
+        System.out.printf("Replaying %d sensors x %d hours x %d refreshes with %s%n",
+                sensors, hours, refreshesPerHour, settings);
+
+        Map<String, String> serdeConfig = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+        Path stateDir = Files.createTempDirectory("db-redis-streams-harness");
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "db-redis-streams-harness");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "harness:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        settings.stateStoreProfile().configure(props);
+
+        GenericAvroSerde cdcSerde = new GenericAvroSerde();
+        cdcSerde.configure(serdeConfig, false);
+        Schema cdcSchema = DbRedisStreamsBenchmark.cdcSchema();
+        Schema afterSchema = cdcSchema.getField("after").schema().getTypes().get(1);
+        GenericRecord after = new GenericData.Record(afterSchema);
+        GenericRecord cdcRecord = new GenericData.Record(cdcSchema);
+        cdcRecord.put("after", after);
+
+        long firstHour = System.currentTimeMillis() / HourlyRingBuffer.MILLIS_PER_HOUR - hours + 1;
+        Instant wallClockStart = Instant.ofEpochMilli(firstHour * HourlyRingBuffer.MILLIS_PER_HOUR);
+        SplittableRandom random = new SplittableRandom(42);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long records = 0;
+        long outputs = 0;
+        long peakHeap = 0;
+        long startNanos = System.nanoTime();
+        long intervalNanos = startNanos;
+        long intervalRecords = 0;
+
+        try (TopologyTestDriver driver = new TopologyTestDriver(App.buildTopology(serdeConfig, settings), props,
+                wallClockStart)) {
+            TestInputTopic<String, GenericRecord> input = driver.createInputTopic(App.SENSOR_INPUT_TOPIC,
+                    new StringSerializer(), cdcSerde.serializer());
+            TestOutputTopic<byte[], byte[]> output = driver.createOutputTopic(
+                    settings.redisOutputMode() == RedisOutputMode.DELTA ? App.DELTA_OUTPUT_TOPIC
+                            : App.SENSOR_OUTPUT_TOPIC,
+                    new ByteArrayDeserializer(), new ByteArrayDeserializer());
+            List<TestOutputTopic<byte[], byte[]>> rollupOutputs = settings.rollupResolutions().stream()
+                    .map(resolution -> driver.createOutputTopic(resolution.topic(), new ByteArrayDeserializer(),
+                            new ByteArrayDeserializer()))
+                    .toList();
+
+            for (long hour = firstHour; hour < firstHour + hours; hour++) {
+                long hourMillis = hour * HourlyRingBuffer.MILLIS_PER_HOUR;
+                for (int refresh = 1; refresh <= refreshesPerHour; refresh++) {
+                    // The continuous aggregate refresh commits during the hour it covers
+                    long commitMillis = hourMillis + refresh * HourlyRingBuffer.MILLIS_PER_HOUR / (refreshesPerHour + 1);
+                    for (int sensor = 0; sensor < sensors; sensor++) {
+                        after.put("sensor", "sensor_" + sensor);
+                        after.put("hour_bucket", hourMillis * 1000);
+                        after.put("energy_total", refresh * random.nextDouble(5.0, 15.0));
+                        input.pipeInput(null, cdcRecord, commitMillis);
+                        records++;
+
+                        if (records % REPORT_EVERY == 0) {
+                            long now = System.nanoTime();
+                            long heap = memory.getHeapMemoryUsage().getUsed();
+                            peakHeap = Math.max(peakHeap, heap);
+                            System.out.printf("%,d records, %,.0f records/sec, heap used %,d MB%n", records,
+                                    (records - intervalRecords) / ((now - intervalNanos) / 1e9), heap >> 20);
+                            intervalNanos = now;
+                            intervalRecords = records;
+                        }
+                    }
+                }
+                driver.advanceWallClockTime(Duration.ofHours(1));
+                outputs += output.readValuesToList().size();
+                for (TestOutputTopic<byte[], byte[]> rollupOutput : rollupOutputs) {
+                    outputs += rollupOutput.readValuesToList().size();
+                }
+                peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            }
+            outputs += output.readValuesToList().size();
+
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            System.gc();
+            long retainedHeap = memory.getHeapMemoryUsage().getUsed();
+            System.out.printf("Processed %,d records in %.1f s: %,.0f records/sec, %,d output records%n",
+                    records, seconds, records / seconds, outputs);
+            System.out.printf("Heap: peak sampled %,d MB, retained after GC %,d MB; state directory %,d MB%n",
+                    peakHeap >> 20, retainedHeap >> 20, directorySize(stateDir) >> 20);
+            System.out.printf("Dropped records: %s%n", App.metrics.getDroppedRecords());
+        } finally {
+            MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+        }
+    }
+
+    /**
+     * @return Total size in bytes of the regular files below the directory
+     */
+    static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -1,17 +1,12 @@
 package com.example.kstreams;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.BooleanSupplier;
 
-import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
@@ -19,23 +14,26 @@ import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
-import org.apache.kafka.streams.kstream.Aggregator;
 import org.apache.kafka.streams.kstream.Consumed;
-import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.KStream;
-import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.KeyValueMapper;
-import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Predicate;
 import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.Stores;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.example.avro.HourEnergy;
 import com.example.avro.RedisAggData;
+import com.example.avro.RedisAggDelta;
+import com.example.avro.RollupData;
 
-import io.confluent.kafka.streams.serdes.avro.GenericAvroSerde;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
 
 /**
@@ -50,16 +48,54 @@ import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
  * Data Flow:
  * 1. Consumes hourly aggregated data from db.public.hourlydata topic (Debezium
  * CDC format)
- * 2. Extracts sensor data from CDC "after" field and converts timestamps
+ * 2. Extracts sensor data from CDC "after" field and converts timestamps to
+ * epoch-hours
  * 3. Filters data to only include records from the last 24 hours
  * 4. Aggregates hourly data per sensor with automatic size limiting
- * 5. Produces Redis-ready data to redis.aggdata topic for caching
+ * 5. Produces Redis-ready data to redis.aggdata topic for caching, or only the
+ * changed and evicted hours to redis.aggdelta, which RedisDeltaWriter applies
+ * to per-sensor Redis hashes (REDIS_OUTPUT_MODE=document|delta)
+ * 6. Periodically evicts expired hours, emitting trimmed documents and
+ * tombstones for sensors with no data left
+ * 7. Rolls the hourly totals up into daily (90 days), weekly (52 weeks) and
+ * monthly (24 months) totals per sensor, produced to redis.aggdata.daily,
+ * redis.aggdata.weekly and redis.aggdata.monthly
  * 
  * Key features:
- * - Time-windowed data filtering (last 24 hours only)
- * - Per-sensor aggregation with automatic data retention
- * - CDC record processing from Debezium connector
- * - Timestamp conversion from database microseconds to UTC strings
+ * - Time-windowed data filtering (last 24 hours only), judged by wall-clock
+ * time or, for replays and backfills, by the newest hour bucket each task has
+ * seen until it catches up (FRESHNESS_MODE=live|replay|auto,
+ * REPLAY_CATCH_UP_SECONDS)
+ * - Per-sensor aggregation in a fixed 24-slot ring buffer
+ * - State stores in RocksDB, in RocksDB with a shared memory budget, or in
+ * memory (STATE_STORE_PROFILE=rocksdb|bounded|in_memory,
+ * ROCKSDB_BLOCK_CACHE_MB, ROCKSDB_WRITE_BUFFER_MB)
+ * - Long-range rollups in bounded per-sensor state, published at most once
+ * per interval (ROLLUP_RESOLUTIONS=daily,weekly,monthly,
+ * ROLLUP_EMIT_INTERVAL_SECONDS)
+ * - Punctuator-driven eviction (EVICTION_INTERVAL_SECONDS,
+ * EVICTION_PUNCTUATION_TYPE=stream_time|wall_clock_time)
+ * - Interactive queries over HTTP straight from the state store
+ * (QUERY_SERVER_HOST, QUERY_SERVER_PORT)
+ * - Drop-reason counters, event-time lag histograms and per-partition record
+ * counts and lag over JMX and in Prometheus format at /metrics on the query
+ * server, together with the Kafka Streams client metrics and changelog
+ * restore progress
+ * - One stream thread per available core (NUM_STREAM_THREADS=auto, or a
+ * fixed count)
+ * - Liveness and readiness probes at /health and /ready, ready only once
+ * state restoration has finished
+ * - Optional warm standby and warmup replicas (NUM_STANDBY_REPLICAS,
+ * MAX_WARMUP_REPLICAS, ACCEPTABLE_RECOVERY_LAG)
+ * - Optional per-sensor emit rate limiting (REDIS_EMIT_MODE=eager|interval|quiet,
+ * REDIS_EMIT_INTERVAL_MS)
+ * - Optional delta output with pipelined, batched HSET/HDEL writes, so each
+ * update costs the same whatever the window size (REDIS_HOST, REDIS_PORT,
+ * REDIS_DELTA_KEY_PREFIX, REDIS_DELTA_BATCH_SIZE)
+ * - CDC record processing from Debezium connector, decoding only the three
+ * columns used through a reader-schema projection
+ * - Epoch-hour bucket handling, with UTC strings rendered only on output
+ * (REDIS_HOUR_BUCKET_FORMAT=string|epoch)
  */
 public class App {
     private static final Logger logger = LoggerFactory.getLogger(App.class);
@@ -68,11 +104,15 @@ public class App {
     static final String SENSOR_INPUT_TOPIC = "db.public.hourlydata";
     /** Output: Aggregated data for Redis caching */
     static final String SENSOR_OUTPUT_TOPIC = "redis.aggdata";
+    /** Output: Per-hour changes for Redis (REDIS_OUTPUT_MODE=delta) */
+    static final String DELTA_OUTPUT_TOPIC = "redis.aggdelta";
     /** Maximum number of hourly records to keep per sensor (24 hours) */
-    static final int MAX_HOURS_PER_SENSOR = 24;
-    /** UTC timestamp formatter for database compatibility */
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-            .withZone(ZoneOffset.UTC);
+    static final int MAX_HOURS_PER_SENSOR = HourlyRingBuffer.SLOTS;
+    /** State store holding the HourlyRingBuffer of each sensor */
+    static final String AGGREGATION_STORE = "hourly-aggregates-store";
+
+    /** Drop counters and event-time lag histograms, exported over JMX and /metrics */
+    static final PipelineMetrics metrics = new PipelineMetrics();
 
     public static void main(String[] args) {
         logger.info("Starting Database to Redis Kafka Streams application...");
@@ -80,46 +120,34 @@ public class App {
         // Load configuration from environment variables with fallback defaults
         String kafkaBootstrapServers = System.getenv().getOrDefault("KAKFA_BOOTSTRAP", "broker:29092");
         String schemaRegistryUrl = System.getenv().getOrDefault("KAFKA_SCHEMA_REGISTRY", "http://schema-registry:8081");
+        TopologySettings settings = TopologySettings.fromEnvironment();
+        HostInfo queryServer = new HostInfo(
+                System.getenv().getOrDefault("QUERY_SERVER_HOST", System.getenv().getOrDefault("HOSTNAME", "localhost")),
+                Integer.parseInt(System.getenv().getOrDefault("QUERY_SERVER_PORT", "7070")));
+
+        if (settings.freshnessMode() != FreshnessMode.LIVE
+                && settings.evictionPunctuationType() == PunctuationType.WALL_CLOCK_TIME) {
+            logger.warn("FRESHNESS_MODE={} with wall-clock eviction evicts replayed hours as soon as they are "
+                    + "stored; use EVICTION_PUNCTUATION_TYPE=stream_time for replays", settings.freshnessMode());
+        }
+        if (settings.redisOutputMode() == RedisOutputMode.DELTA && settings.emitMode() != EmitMode.EAGER) {
+            logger.info("REDIS_EMIT_MODE={} does not apply to delta output; deltas are batched by the writer",
+                    settings.emitMode());
+        }
 
-        // Initialize Kafka Streams configuration and topology builder
-        Properties props = createStreamsProperties(kafkaBootstrapServers, schemaRegistryUrl);
-        StreamsBuilder builder = new StreamsBuilder();
+        // Initialize Kafka Streams configuration
+        Properties props = createStreamsProperties(kafkaBootstrapServers, schemaRegistryUrl, queryServer,
+                settings.freshnessMode(), settings.stateStoreProfile());
 
         // Configure Avro serialization/deserialization for Schema Registry integration
         Map<String, String> serdeConfig = Map.of("schema.registry.url", schemaRegistryUrl);
 
-        // Serde for input messages (Generic Avro for Debezium CDC records)
-        final GenericAvroSerde valueSerde = new GenericAvroSerde();
-        valueSerde.configure(serdeConfig, false); // false = value serde
-
-        // Serde for intermediate transformed data (HourEnergy schema)
-        final SpecificAvroSerde<HourEnergy> transformedDataSerde = new SpecificAvroSerde<>();
-        transformedDataSerde.configure(serdeConfig, false); // false = value serde
-
-        // Serde for output messages (Redis aggregated data with RedisAggData schema)
-        final SpecificAvroSerde<RedisAggData> redisValueSerde = new SpecificAvroSerde<>();
-        redisValueSerde.configure(serdeConfig, false); // false = value serde
-
-        final Serde<String> keySerde = Serdes.String();
-
         try {
-            KStream<String, HourEnergy> transformedDataStream = builder.stream(SENSOR_INPUT_TOPIC,
-                    Consumed.with(keySerde, valueSerde))
-                    .map(energyDataMapper) // Transform CDC to HourEnergy format
-                    .filter((key, value) -> key != null || value != null) // Remove invalid records
-                    .filter(isWithinLast24HoursFilter); // Keep only last 24 hours
-
-            // Aggregate hourly data per sensor with automatic size management
-            KTable<String, RedisAggData> aggregated = transformedDataStream
-                    .groupByKey(Grouped.with(keySerde, transformedDataSerde))
-                    .aggregate(
-                            () -> new RedisAggData(new ArrayList<HourEnergy>()), // Initialize empty aggregation
-                            redisDataAggregator, // Aggregate function with size limiting
-                            Materialized.with(Serdes.String(), redisValueSerde)); // Materialized state store
-
-            aggregated.toStream().to(SENSOR_OUTPUT_TOPIC, Produced.with(keySerde, redisValueSerde));
+            KafkaStreams streams = new KafkaStreams(buildTopology(serdeConfig, settings), props);
 
-            KafkaStreams streams = new KafkaStreams(builder.build(), props);
+            // Log and export changelog restore progress; the readiness probe waits for it
+            RestoreProgressListener restoreListener = new RestoreProgressListener();
+            streams.setGlobalStateRestoreListener(restoreListener);
 
             // Configure global exception handling - shutdown client on uncaught exceptions
             streams.setUncaughtExceptionHandler(exception -> {
@@ -133,10 +161,47 @@ public class App {
 
             logger.info("Database to Redis streams started successfully. Application is running...");
 
+            // Apply the per-hour deltas to Redis when they replace the document sink
+            RedisDeltaWriter deltaWriter = null;
+            Thread deltaWriterThread = null;
+            if (settings.redisOutputMode() == RedisOutputMode.DELTA) {
+                deltaWriter = new RedisDeltaWriter(kafkaBootstrapServers, serdeConfig,
+                        System.getenv().getOrDefault("REDIS_HOST", "redis"),
+                        Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")),
+                        System.getenv().getOrDefault("REDIS_DELTA_KEY_PREFIX", "redis.aggdata.hourly:"),
+                        Integer.parseInt(System.getenv().getOrDefault("REDIS_DELTA_BATCH_SIZE", "2000")));
+                deltaWriterThread = new Thread(deltaWriter, "redis-delta-writer");
+                deltaWriterThread.start();
+            }
+            final RedisDeltaWriter writer = deltaWriter;
+            final Thread writerThread = deltaWriterThread;
+
+            // Serve the aggregates straight from the state store (interactive queries)
+            QueryHttpServer queryHttpServer = new QueryHttpServer(streams, queryServer, settings.hourBucketFormat());
+            queryHttpServer.httpServer().createContext("/metrics",
+                    new MetricsHandler(metrics, restoreListener, streams, "db_redis_streams"));
+            // A stopped delta writer fails the probes, so the instance gets restarted
+            BooleanSupplier writerHealthy = writer == null ? () -> true : writer::isHealthy;
+            queryHttpServer.httpServer().createContext("/health",
+                    new HealthHandler(streams, restoreListener, false, writerHealthy));
+            queryHttpServer.httpServer().createContext("/ready",
+                    new HealthHandler(streams, restoreListener, true, writerHealthy));
+            queryHttpServer.start();
+            metrics.registerMBean("db-redis-streams");
+
             // Register shutdown hook for graceful application termination
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("Shutting down Database to Redis streams...");
+                queryHttpServer.stop();
                 streams.close();
+                if (writer != null) {
+                    writer.close();
+                    try {
+                        writerThread.join(Duration.ofSeconds(10).toMillis());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
                 logger.info("Database to Redis streams shutdown complete.");
             }));
 
@@ -146,14 +211,107 @@ public class App {
         }
     }
 
+    /**
+     * Builds the Database to Redis topology.
+     * 
+     * @param serdeConfig Schema Registry configuration for Avro serdes
+     * @param settings    Topology settings
+     * @return Topology ready to be run by KafkaStreams or TopologyTestDriver
+     */
+    static Topology buildTopology(Map<String, String> serdeConfig, TopologySettings settings) {
+        StreamsBuilder builder = new StreamsBuilder();
+
+        // Deserializer for input messages (projection of the Debezium CDC envelope onto the hourlydata row)
+        final HourlyDataDeserializer cdcDeserializer = new HourlyDataDeserializer();
+        cdcDeserializer.configure(serdeConfig, false); // false = value deserializer
+
+        // Serde for intermediate transformed data (HourEnergy schema)
+        final SpecificAvroSerde<HourEnergy> transformedDataSerde = new SpecificAvroSerde<>();
+        transformedDataSerde.configure(serdeConfig, false); // false = value serde
+
+        // Serde for output messages (Redis aggregated data with RedisAggData schema)
+        final SpecificAvroSerde<RedisAggData> redisValueSerde = new SpecificAvroSerde<>();
+        redisValueSerde.configure(serdeConfig, false); // false = value serde
+
+        // Serde for the aggregation state store and changelog (fixed-width binary, not Avro)
+        final HourlyRingBufferSerde ringBufferSerde = new HourlyRingBufferSerde();
+
+        final Serde<String> keySerde = Serdes.String();
+
+        // CDC events are consumed as bytes and decoded by the read-only deserializer
+        KStream<String, HourEnergy> transformedDataStream = builder.stream(SENSOR_INPUT_TOPIC,
+                Consumed.with(keySerde, Serdes.ByteArray()))
+                .mapValues(bytes -> cdcDeserializer.deserialize(SENSOR_INPUT_TOPIC, bytes),
+                        Named.as("decode-cdc"))
+                .map(energyDataMapper) // Transform CDC to HourEnergy format
+                .filter((key, value) -> key != null || value != null) // Remove invalid records
+                .processValues(() -> new FreshnessFilter(settings.freshnessMode(), settings.replayCatchUp()),
+                        Named.as("freshness-filter")) // Keep last 24 hours, reference time tracked per task
+                .processValues(() -> metrics.<HourEnergy>lagRecorder("input")) // CDC event to mapped
+                .processValues(() -> metrics.<HourEnergy>partitionRecorder()); // Records per CDC partition
+
+        // Per-sensor ring buffer store, backed by a changelog topic
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                settings.stateStoreProfile().keyValueStore(AGGREGATION_STORE),
+                keySerde,
+                ringBufferSerde)); // Compact internal state
+
+        // Aggregate hourly data per sensor and evict expired hours on a schedule
+        KStream<String, HourEnergy> hourlyBySensor = transformedDataStream
+                .repartition(Repartitioned.with(keySerde, transformedDataSerde).withName("hourly-by-sensor"))
+                .processValues(() -> metrics.<HourEnergy>partitionRecorder()); // Records per sensor partition
+        if (settings.redisOutputMode() == RedisOutputMode.DELTA) {
+            final SpecificAvroSerde<RedisAggDelta> deltaValueSerde = new SpecificAvroSerde<>();
+            deltaValueSerde.configure(serdeConfig, false); // false = value serde
+
+            hourlyBySensor
+                    .process(() -> new HourlyDeltaProcessor(AGGREGATION_STORE, settings.evictionInterval(),
+                            settings.evictionPunctuationType()), AGGREGATION_STORE)
+                    .processValues(() -> metrics.<RedisAggDelta>lagRecorder("redis_output")) // CDC event to delta
+                    .to(DELTA_OUTPUT_TOPIC, Produced.with(keySerde, deltaValueSerde));
+        } else {
+            hourlyBySensor
+                    .process(() -> new HourlyAggregationProcessor(AGGREGATION_STORE, settings.hourBucketFormat(),
+                            settings.evictionInterval(), settings.evictionPunctuationType(), settings.emitMode(),
+                            settings.emitInterval(), metrics), AGGREGATION_STORE)
+                    .processValues(() -> metrics.<RedisAggData>lagRecorder("redis_output")) // CDC event to Redis-ready
+                    .to(SENSOR_OUTPUT_TOPIC, Produced.with(keySerde, redisValueSerde));
+        }
+
+        // Long-range rollups, each with its own bounded store and output topic
+        if (!settings.rollupResolutions().isEmpty()) {
+            final SpecificAvroSerde<RollupData> rollupValueSerde = new SpecificAvroSerde<>();
+            rollupValueSerde.configure(serdeConfig, false); // false = value serde
+
+            for (RollupResolution resolution : settings.rollupResolutions()) {
+                builder.addStateStore(Stores.keyValueStoreBuilder(
+                        settings.stateStoreProfile().keyValueStore(resolution.storeName()),
+                        keySerde,
+                        new RollupBufferSerde(resolution)));
+
+                hourlyBySensor
+                        .process(() -> new RollupProcessor(resolution, settings.evictionInterval(),
+                                settings.evictionPunctuationType(), settings.rollupEmitInterval()),
+                                Named.as("rollup-" + resolution.label()), resolution.storeName())
+                        .to(resolution.topic(), Produced.with(keySerde, rollupValueSerde));
+            }
+        }
+
+        return builder.build();
+    }
+
     /**
      * Creates and configures the Kafka Streams properties for the application.
      * 
      * @param kafkaBootstrapServers Comma-separated list of Kafka broker addresses
      * @param schemaRegistryUrl     URL of the Confluent Schema Registry service
+     * @param queryServer           Host and port advertised for interactive queries
+     * @param freshnessMode         REPLAY adds bulk-oriented client settings
+     * @param stateStoreProfile     BOUNDED adds the shared-memory RocksDB config setter
      * @return Configured Properties object for Kafka Streams
      */
-    private static Properties createStreamsProperties(String kafkaBootstrapServers, String schemaRegistryUrl) {
+    private static Properties createStreamsProperties(String kafkaBootstrapServers, String schemaRegistryUrl,
+            HostInfo queryServer, FreshnessMode freshnessMode, StateStoreProfile stateStoreProfile) {
         Properties props = new Properties();
         props.put(StreamsConfig.APPLICATION_ID_CONFIG, "db-redis-streams");
         props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
@@ -161,229 +319,97 @@ public class App {
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
         props.put(StreamsConfig.topicPrefix(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG), 1);
-        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, 0);
+        // Tasks (one per input partition) are spread over the threads; threads beyond the task count stay idle
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG,
+                streamThreads(System.getenv().getOrDefault("NUM_STREAM_THREADS", "auto")));
+        // Warm standbys and warmup replicas shorten the restore after a pod is rescheduled
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG,
+                Integer.parseInt(System.getenv().getOrDefault("NUM_STANDBY_REPLICAS", "0")));
+        props.put(StreamsConfig.MAX_WARMUP_REPLICAS_CONFIG,
+                Integer.parseInt(System.getenv().getOrDefault("MAX_WARMUP_REPLICAS", "2")));
+        props.put(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG,
+                Long.parseLong(System.getenv().getOrDefault("ACCEPTABLE_RECOVERY_LAG", "10000")));
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, queryServer.host() + ":" + queryServer.port());
         props.put("schema.registry.url", schemaRegistryUrl);
+        stateStoreProfile.configure(props);
+
+        if (freshnessMode == FreshnessMode.REPLAY) {
+            // Favour throughput over latency while working through a backlog: fewer, larger
+            // transactions and produce requests. These stay in effect until the next restart.
+            props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 1000);
+            props.put(StreamsConfig.producerPrefix(ProducerConfig.LINGER_MS_CONFIG), 100);
+            props.put(StreamsConfig.producerPrefix(ProducerConfig.BATCH_SIZE_CONFIG), 256 * 1024);
+            props.put(StreamsConfig.producerPrefix(ProducerConfig.COMPRESSION_TYPE_CONFIG), "lz4");
+            props.put(StreamsConfig.consumerPrefix(ConsumerConfig.MAX_POLL_RECORDS_CONFIG), 5000);
+            props.put(StreamsConfig.consumerPrefix(ConsumerConfig.FETCH_MIN_BYTES_CONFIG), 64 * 1024);
+        }
         return props;
     }
 
     /**
-     * Aggregator function that combines hourly energy data per sensor.
-     * 
-     * This aggregator maintains a rolling window of the last 24 hours of data per
-     * sensor:
-     * - Adds new hourly energy records to the sensor's data list
-     * - Updates existing records if they have the same hour bucket
-     * - Automatically removes oldest records when exceeding the 24-hour limit
-     * - Ensures data freshness and prevents unbounded memory growth
+     * Resolves the number of stream threads.
      * 
-     * Input: sensor (key), new HourEnergy record (value), current RedisAggData
-     * (aggregate)
-     * Output: Updated RedisAggData with the new record incorporated
+     * @param value "auto" for one thread per available core, or a thread count
+     * @return Number of stream threads, at least one
      */
-    private static Aggregator<String, HourEnergy, RedisAggData> redisDataAggregator = (key, newValue, aggregate) -> {
-        // Get the current list of hourly energy records for this sensor
-        List<HourEnergy> hourEnergies = aggregate.getData();
-        String hourBucket = newValue.getHourBucket().toString();
-        Double energyTotal = newValue.getEnergyTotal();
-
-        // Check if we already have a record for this hour bucket
-        HourEnergy existingHourEnergy = hourEnergies.stream()
-                .filter(hourEnergy -> hourEnergy.getHourBucket().toString().equals(hourBucket))
-                .findFirst()
-                .orElse(null);
-
-        if (existingHourEnergy == null) {
-            // Add new hourly record
-            HourEnergy newHourEnergy = new HourEnergy();
-            newHourEnergy.setEnergyTotal(energyTotal);
-            newHourEnergy.setHourBucket(hourBucket);
-            hourEnergies.add(newHourEnergy);
-
-            // Enforce size limit by removing oldest records
-            if (hourEnergies.size() > MAX_HOURS_PER_SENSOR) {
-                HourEnergy oldest = hourEnergies.stream()
-                        .min(Comparator.comparing(e -> Instant.parse(e.getHourBucket().toString())))
-                        .orElse(null);
-                if (oldest != null) {
-                    hourEnergies.remove(oldest);
-                }
-            }
-        } else {
-            // Update existing record with new energy total
-            existingHourEnergy.setEnergyTotal(energyTotal);
-        }
-
-        return aggregate;
-    };
-
-    /**
-     * Converts a timestamp from database format to UTC string format.
-     * 
-     * TimescaleDB stores timestamps as microseconds since Unix epoch.
-     * This method converts them to human-readable UTC strings for Redis storage.
-     *
-     * @param hourTimestamp The timestamp in microseconds since epoch
-     * @return The UTC timestamp string (e.g., '2024-06-01 14:00:00'), or null if
-     *         conversion fails
-     */
-    private static String convertTimestampToUtcString(Long hourTimestamp) {
-        try {
-            // Convert microseconds to seconds and nanoseconds
-            Long secondsSinceEpoch = hourTimestamp / 1_000_000;
-            Long nanosAdjustment = (hourTimestamp % 1_000_000) * 1000;
-
-            // Create Instant and format as UTC string
-            Instant instant = Instant.ofEpochSecond(secondsSinceEpoch, nanosAdjustment);
-            return FORMATTER.format(instant);
-        } catch (Exception e) {
-            logger.error("Failed to parse timestamp: {}", hourTimestamp, e);
-            return null;
+    static int streamThreads(String value) {
+        int threads = "auto".equalsIgnoreCase(value.trim()) ? Runtime.getRuntime().availableProcessors()
+                : Integer.parseInt(value.trim());
+        if (threads < 1) {
+            throw new IllegalArgumentException("NUM_STREAM_THREADS must be 'auto' or at least 1: " + value);
         }
+        logger.info("Using {} stream threads ({} cores available)", threads,
+                Runtime.getRuntime().availableProcessors());
+        return threads;
     }
 
     /**
-     * KeyValue mapper that transforms Debezium CDC records to HourEnergy format.
+     * KeyValue mapper that turns decoded hourlydata rows into HourEnergy records.
      * 
      * This mapper processes Change Data Capture events from TimescaleDB:
-     * - Input: (null, Debezium CDC GenericRecord)
+     * - Input: (null, HourlyDataRow decoded by HourlyDataDeserializer)
      * - Output: (sensor, HourEnergy)
      * 
      * The transformation includes:
-     * - Extracting the "after" field from CDC record (contains new row data)
-     * - Converting database timestamp format to UTC string
+     * - Validating the sensor, hour bucket and energy total of the row
+     * - Converting the database timestamp to an epoch-hour (no string rendering)
      * - Creating HourEnergy record with sensor data
      * - Using sensor field as the new message key for partitioning
      */
-    private static KeyValueMapper<String, GenericRecord, KeyValue<String, HourEnergy>> energyDataMapper = (key,
-            value) -> {
-        try {
-            // Extract the "after" field containing the new row state from CDC record
-            GenericRecord after = getNestedRecord(value, "after");
-            if (after == null) {
-                return new KeyValue<>(null, null); // Invalid CDC record, will be filtered out
-            }
-
-            // Extract fields from the hourly data record
-            String sensor = getStringField(after, "sensor");
-            Long hourBucket = getLongField(after, "hour_bucket"); // Timestamp in microseconds
-            Double energyTotal = getDoubleField(after, "energy_total");
-
-            // Validate that all required fields are present
-            if (sensor == null || hourBucket == null || energyTotal == null) {
-                logger.warn("Missing required fields in CDC record for key: {}", key);
-                return new KeyValue<>(null, null); // Will be filtered out
-            }
-
-            // Convert database timestamp to human-readable UTC string
-            String hourBucketTimestamp = convertTimestampToUtcString(hourBucket);
-            if (hourBucketTimestamp == null) {
-                return new KeyValue<>(null, null); // Timestamp conversion failed
-            }
-
-            HourEnergy energyData = new HourEnergy();
-            energyData.setEnergyTotal(energyTotal);
-            energyData.setHourBucket(hourBucketTimestamp);
-
-            return KeyValue.pair(sensor, energyData);
-
-        } catch (Exception e) {
-            logger.error("Error processing CDC record for key: {}", key, e);
-            return new KeyValue<>(null, null); // Return null to filter out invalid records
+    static final KeyValueMapper<String, HourlyDataRow, KeyValue<String, HourEnergy>> energyDataMapper = (key,
+            row) -> {
+        // Deletes and tombstones carry no row after the change
+        if (row == null) {
+            metrics.recordDrop(PipelineMetrics.DropReason.MISSING_FIELDS);
+            return new KeyValue<>(null, null); // Invalid CDC record, will be filtered out
         }
-    };
 
-    /**
-     * Safely extracts a nested GenericRecord from an Avro record.
-     * 
-     * @param record    The parent GenericRecord to extract from
-     * @param fieldName The name of the nested field
-     * @return The nested GenericRecord, or null if not found or wrong type
-     */
-    private static GenericRecord getNestedRecord(GenericRecord record, String fieldName) {
-        Object nested = record.get(fieldName);
-        if (!(nested instanceof GenericRecord)) {
-            logger.warn("No '{}' field found or not a GenericRecord", fieldName);
-            return null;
+        // Validate that all required fields are present
+        if (row.sensor() == null || row.sensor().isEmpty()) {
+            logger.warn("Missing sensor in CDC record for key: {}", key);
+            metrics.recordDrop(PipelineMetrics.DropReason.EMPTY_SENSOR_KEY);
+            return new KeyValue<>(null, null); // Will be filtered out
         }
-        return (GenericRecord) nested;
-    }
-
-    /**
-     * Safely extracts a string field from an Avro record.
-     * 
-     * @param record    The GenericRecord to extract from
-     * @param fieldName The name of the string field
-     * @return The string value, or null if field is missing
-     */
-    private static String getStringField(GenericRecord record, String fieldName) {
-        Object value = record.get(fieldName);
-        if (value == null) {
-            logger.warn("No '{}' field found in record", fieldName);
-            return null;
+        if (Double.isNaN(row.energyTotal())) {
+            logger.warn("Missing required fields in CDC record for key: {}", key);
+            metrics.recordDrop(PipelineMetrics.DropReason.MISSING_FIELDS);
+            return new KeyValue<>(null, null); // Will be filtered out
         }
-        return value.toString();
-    }
 
-    /**
-     * Safely extracts a long field from an Avro record.
-     * 
-     * @param record    The GenericRecord to extract from
-     * @param fieldName The name of the numeric field
-     * @return The long value, or null if field is missing or not a number
-     */
-    private static Long getLongField(GenericRecord record, String fieldName) {
-        Object value = record.get(fieldName);
-        if (!(value instanceof Number)) {
-            logger.warn("No '{}' field found or not a number", fieldName);
-            return null;
-        }
-        return ((Number) value).longValue();
-    }
+        // Convert database timestamp to hours since epoch; strings are rendered at the edge
+        HourEnergy energyData = new HourEnergy();
+        energyData.setEnergyTotal(row.energyTotal());
+        energyData.setHourBucket("");
+        energyData.setHourEpoch(HourlyRingBuffer.epochHourOfMicros(row.hourBucketMicros()));
 
-    /**
-     * Safely extracts a double field from an Avro record.
-     * 
-     * @param record    The GenericRecord to extract from
-     * @param fieldName The name of the numeric field
-     * @return The double value, or null if field is missing or not a number
-     */
-    private static Double getDoubleField(GenericRecord record, String fieldName) {
-        Object value = record.get(fieldName);
-        if (!(value instanceof Number)) {
-            logger.warn("No '{}' field found or not a number", fieldName);
-            return null;
-        }
-        return ((Number) value).doubleValue();
-    }
+        return KeyValue.pair(row.sensor(), energyData);
+    };
 
     /**
-     * Predicate filter that keeps only data from the last 24 hours.
-     * 
-     * It validates the timestamp format and checks that the hour bucket
-     * falls within the last 24 hours from the current time.
-     * 
-     * @param key   The sensor (not used in filtering logic)
-     * @param value The HourEnergy record with timestamp to validate
-     * @return true if the record is within the last 24 hours, false otherwise
+     * Predicate filter that keeps only data from the last 24 hours, judged by
+     * wall-clock time (FreshnessMode.LIVE).
      */
-    private static final Predicate<String, HourEnergy> isWithinLast24HoursFilter = (key, value) -> {
-        String hourBucket = value.getHourBucket().toString();
-        try {
-            Instant bucketTime = Instant.from(FORMATTER.parse(hourBucket));
-            Instant now = Instant.now();
-
-            // Check if timestamp is within the last 24 hours and not in the future
-            boolean isValid = !bucketTime.isBefore(now.minus(Duration.ofHours(24))) && !bucketTime.isAfter(now);
-
-            if (!isValid) {
-                logger.debug("Filtering out hour_bucket {}: not within last 24 hours", hourBucket);
-            }
-
-            return isValid;
-        } catch (DateTimeParseException e) {
-            logger.warn("Invalid hour_bucket format: {}", hourBucket, e);
-            return false; // Filter out records with invalid timestamps
-        }
-    };
+    static final Predicate<String, HourEnergy> isWithinLast24HoursFilter = (key,
+            value) -> FreshnessFilter.isWithinLast24Hours(value, System.currentTimeMillis());
 
-}
\ No newline at end of file
+}
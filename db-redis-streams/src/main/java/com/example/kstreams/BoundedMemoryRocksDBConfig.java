@@ -0,0 +1,78 @@
+package com.example.kstreams;
+
+import java.util.Map;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.DataBlockIndexType;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+/**
+ * RocksDB config setter that bounds the off-heap memory of all RocksDB stores
+ * in the process (STATE_STORE_PROFILE=bounded).
+ *
+ * By default every store instance, i.e. every store of every assigned
+ * partition, gets its own block cache and memtables, so memory grows with
+ * the partition assignment. Here all instances share one LRU block cache of
+ * ROCKSDB_BLOCK_CACHE_MB, and memtables are charged against that cache
+ * through a WriteBufferManager capped at ROCKSDB_WRITE_BUFFER_MB. Index and
+ * filter blocks are kept in the cache too, with high priority, so they count
+ * against the same limit.
+ *
+ * Stores are only read by point lookups on the sensor key (get, put and the
+ * periodic full scan), so every table gets a whole-key bloom filter and a
+ * hash index within data blocks; no prefix extractor is needed.
+ *
+ * Kafka Streams instantiates this class by name for each store, so the
+ * shared cache and write buffer manager are static and never closed.
+ */
+public class BoundedMemoryRocksDBConfig implements RocksDBConfigSetter {
+    /** Total size of the shared block cache, including memtables */
+    private static final long BLOCK_CACHE_BYTES = Long.parseLong(
+            System.getenv().getOrDefault("ROCKSDB_BLOCK_CACHE_MB", "64")) * 1024 * 1024;
+    /** Share of the block cache that memtables may use */
+    private static final long WRITE_BUFFER_BYTES = Long.parseLong(
+            System.getenv().getOrDefault("ROCKSDB_WRITE_BUFFER_MB", "16")) * 1024 * 1024;
+    /** Share of the block cache reserved for index and filter blocks */
+    private static final double INDEX_FILTER_BLOCK_RATIO = 0.1;
+    /** Size of a single memtable; the state of a partition is a few hundred KB */
+    private static final long MEMTABLE_BYTES = 4 * 1024 * 1024;
+    /** Bloom filter bits per key (about 1% false positives) */
+    private static final double BLOOM_FILTER_BITS_PER_KEY = 10;
+
+    private static final Cache CACHE = new LRUCache(BLOCK_CACHE_BYTES, -1, false, INDEX_FILTER_BLOCK_RATIO);
+    private static final WriteBufferManager WRITE_BUFFER_MANAGER = new WriteBufferManager(WRITE_BUFFER_BYTES, CACHE);
+
+    private BloomFilter filter;
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(CACHE);
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+
+        filter = new BloomFilter(BLOOM_FILTER_BITS_PER_KEY);
+        tableConfig.setFilterPolicy(filter);
+        tableConfig.setWholeKeyFiltering(true);
+        tableConfig.setDataBlockIndexType(DataBlockIndexType.kDataBlockBinaryAndHash);
+
+        options.setWriteBufferManager(WRITE_BUFFER_MANAGER);
+        options.setWriteBufferSize(MEMTABLE_BYTES);
+        options.setMaxWriteBufferNumber(2);
+        options.setTableFormatConfig(tableConfig);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // The cache and write buffer manager are shared by every store and must stay open
+        if (filter != null) {
+            filter.close();
+        }
+    }
+}
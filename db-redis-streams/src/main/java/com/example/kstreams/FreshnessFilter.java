@@ -0,0 +1,130 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.HourEnergy;
+
+/**
+ * Processor that keeps only data from the last 24 hours.
+ *
+ * An hour bucket is kept if it starts no more than 24 hours before the
+ * reference time and not after the wall clock. In FreshnessMode.LIVE the
+ * reference time is the wall clock. In the event-time modes it is the newest
+ * hour_bucket seen by this task, so a replayed backlog keeps the 24 hours
+ * preceding each point of the replay of its own partition; once that newest
+ * hour is within the catch-up threshold of the wall clock, the task switches
+ * to wall-clock time for good.
+ *
+ * Each task gets its own instance, so a partition that replays ahead of the
+ * others neither moves their reference time nor switches them to live.
+ */
+public class FreshnessFilter implements FixedKeyProcessor<String, HourEnergy, HourEnergy> {
+    private static final Logger logger = LoggerFactory.getLogger(FreshnessFilter.class);
+
+    /** Length of the window kept per sensor */
+    private static final long WINDOW_MILLIS = Duration.ofHours(App.MAX_HOURS_PER_SENSOR).toMillis();
+
+    private final long catchUpMillis;
+    /** Start of the newest hour bucket seen by this task, in epoch milliseconds */
+    private long newestBucketMillis = Long.MIN_VALUE;
+    private boolean live;
+
+    private FixedKeyProcessorContext<String, HourEnergy> context;
+
+    /**
+     * @param mode            Reference clock to start with
+     * @param catchUpInterval How far the newest hour bucket may trail the wall
+     *                        clock for the task to count as caught up
+     */
+    public FreshnessFilter(FreshnessMode mode, Duration catchUpInterval) {
+        this.live = mode == FreshnessMode.LIVE;
+        this.catchUpMillis = catchUpInterval.toMillis();
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, HourEnergy> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, HourEnergy> record) {
+        if (test(record.value(), context.currentSystemTimeMs())) {
+            context.forward(record);
+        }
+    }
+
+    /**
+     * @return Whether this task judges freshness by wall-clock time
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    /**
+     * @param value     The HourEnergy record with epoch-hour to validate
+     * @param nowMillis Current wall-clock time
+     * @return true if the record is within the last 24 hours of this task's
+     *         reference time, false otherwise
+     */
+    boolean test(HourEnergy value, long nowMillis) {
+        long bucketMillis = value.getHourEpoch() * HourlyRingBuffer.MILLIS_PER_HOUR;
+        long referenceMillis = live ? nowMillis : eventTimeReference(bucketMillis, nowMillis);
+        return isWithinWindow(value, referenceMillis, nowMillis);
+    }
+
+    /**
+     * Checks an hour bucket against the 24 hours preceding the wall clock
+     * (FreshnessMode.LIVE), without any per-task state.
+     *
+     * @param value     The HourEnergy record with epoch-hour to validate
+     * @param nowMillis Current wall-clock time
+     * @return true if the record is within the last 24 hours, false otherwise
+     */
+    static boolean isWithinLast24Hours(HourEnergy value, long nowMillis) {
+        return isWithinWindow(value, nowMillis, nowMillis);
+    }
+
+    private static boolean isWithinWindow(HourEnergy value, long referenceMillis, long nowMillis) {
+        long bucketMillis = value.getHourEpoch() * HourlyRingBuffer.MILLIS_PER_HOUR;
+
+        // Check if timestamp is within the last 24 hours and not in the future
+        if (bucketMillis > nowMillis) {
+            logger.debug("Filtering out hour_epoch {}: in the future", value.getHourEpoch());
+            App.metrics.recordDrop(PipelineMetrics.DropReason.BAD_TIMESTAMP);
+            return false;
+        }
+        if (bucketMillis < referenceMillis - WINDOW_MILLIS) {
+            logger.debug("Filtering out hour_epoch {}: not within last 24 hours", value.getHourEpoch());
+            App.metrics.recordDrop(PipelineMetrics.DropReason.OUTSIDE_24H);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Advances the newest observed hour bucket and switches to live mode once
+     * it is close enough to the wall clock.
+     *
+     * @return The reference time for a record in event-time mode
+     */
+    private long eventTimeReference(long bucketMillis, long nowMillis) {
+        if (bucketMillis <= nowMillis) {
+            newestBucketMillis = Math.max(newestBucketMillis, bucketMillis);
+        }
+        if (newestBucketMillis >= nowMillis - catchUpMillis) {
+            live = true;
+            logger.info("Task {} caught up with hour bucket {}, judging freshness by wall-clock time from now on",
+                    context.taskId(),
+                    HourlyRingBuffer.formatHourBucket(newestBucketMillis / HourlyRingBuffer.MILLIS_PER_HOUR));
+            return nowMillis;
+        }
+        return newestBucketMillis;
+    }
+}
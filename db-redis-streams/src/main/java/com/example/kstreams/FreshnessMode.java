@@ -0,0 +1,39 @@
+package com.example.kstreams;
+
+/**
+ * Reference clock used to decide whether an hour bucket is within the last
+ * 24 hours.
+ *
+ * Judging freshness by wall-clock time drops every historical record when
+ * db.public.hourlydata is replayed (offset reset, recovery after an outage),
+ * leaving the Redis cache empty until new data arrives. The event-time modes
+ * judge freshness by the newest hour_bucket seen so far instead, until the
+ * stream has caught up with the present.
+ */
+public enum FreshnessMode {
+    /** Wall-clock time (original behaviour). */
+    LIVE,
+    /**
+     * Event time until caught up, then wall-clock time. The application also
+     * uses bulk-oriented producer and consumer settings to work through the
+     * backlog at full throughput.
+     */
+    REPLAY,
+    /**
+     * Event time until caught up, then wall-clock time, with the regular
+     * client settings. Safe to leave enabled: in steady state the first
+     * record is already current and the filter switches to live immediately.
+     */
+    AUTO;
+
+    /**
+     * Parses a mode name case-insensitively.
+     *
+     * @param value Mode name (e.g., "live", "replay" or "auto")
+     * @return The matching mode
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static FreshnessMode fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.avro.util.Utf8;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientFactory;
+
+/**
+ * Deserializer that decodes Debezium hourlydata CDC events straight into
+ * HourlyDataRow, instead of materializing the whole envelope as a
+ * GenericRecord tree and looking fields up by name. Rows are never written
+ * back, so there is no serializer for them.
+ *
+ * Events are Schema Registry framed (magic byte 0, 4-byte schema ID, Avro
+ * binary). The reader schema is the DbHourlyData projection from
+ * setup-schemas, which keeps only after.sensor, after.hour_bucket and
+ * after.energy_total; a ResolvingDecoder per writer schema skips everything
+ * else in the envelope (before, source, op, ...) without building objects for
+ * it. Decoding a record therefore allocates only the sensor string and the
+ * resulting row.
+ *
+ * Writer schemas are parsed once and shared. All versions registered under
+ * the topic's subject are fetched in configure, so the stream threads do not
+ * each call Schema Registry when the first events arrive; IDs registered
+ * later are fetched on first use. ResolvingDecoders and the underlying
+ * BinaryDecoder are stateful, so each thread keeps its own in a ThreadLocal,
+ * built once per writer schema.
+ */
+public class HourlyDataDeserializer implements Deserializer<HourlyDataRow> {
+    private static final Logger logger = LoggerFactory.getLogger(HourlyDataDeserializer.class);
+
+    /** Leading byte of Schema Registry framed Avro records */
+    private static final byte AVRO_MAGIC_BYTE = 0;
+    /** Length of the magic byte and schema ID preceding the Avro payload */
+    private static final int HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+    /** Number of schemas the Schema Registry client caches */
+    private static final int SCHEMA_CACHE_CAPACITY = 100;
+    /** Reader schema: the three columns of the 'after' row */
+    static final Schema READER_SCHEMA = loadReaderSchema();
+
+    /** Parsed writer schemas by Schema Registry ID, shared by all threads */
+    private final Map<Integer, Schema> writerSchemas = new ConcurrentHashMap<>();
+    /** Per-thread decoders, since ResolvingDecoder and BinaryDecoder are stateful */
+    private final ThreadLocal<DecoderState> decoderState = ThreadLocal.withInitial(DecoderState::new);
+
+    private SchemaRegistryClient schemaRegistry;
+
+    /**
+     * Decoders owned by one stream thread.
+     */
+    private static final class DecoderState {
+        final Map<Integer, ResolvingDecoder> decoders = new HashMap<>();
+        BinaryDecoder binaryDecoder;
+        Utf8 sensor;
+    }
+
+    /**
+     * Connects to Schema Registry and loads the writer schemas of the input
+     * topic's subject.
+     *
+     * @param configs Deserializer configuration with "schema.registry.url"
+     * @param isKey   Must be false; CDC keys are not decoded with this class
+     */
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        String url = String.valueOf(configs.get("schema.registry.url"));
+        schemaRegistry = SchemaRegistryClientFactory.newClient(List.of(url.split(",")), SCHEMA_CACHE_CAPACITY,
+                List.of(new AvroSchemaProvider()), configs, null);
+        prewarm(App.SENSOR_INPUT_TOPIC + "-value");
+    }
+
+    /**
+     * Fetches and parses every version registered under the subject. A
+     * missing subject is not an error: Debezium registers it with its first
+     * event, and the schema is then fetched on first use.
+     */
+    private void prewarm(String subject) {
+        try {
+            for (Integer version : schemaRegistry.getAllVersions(subject)) {
+                SchemaMetadata metadata = schemaRegistry.getSchemaMetadata(subject, version);
+                writerSchemas.computeIfAbsent(metadata.getId(), id -> new Schema.Parser().parse(metadata.getSchema()));
+            }
+            logger.info("Loaded {} writer schemas of {}", writerSchemas.size(), subject);
+        } catch (Exception e) {
+            logger.info("No writer schemas of {} loaded up front ({}); fetching them on first use", subject,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes one CDC event.
+     *
+     * @param topic Topic the event was read from
+     * @param bytes Schema Registry framed Avro event
+     * @return The row after the change, or null for tombstones and events
+     *         without an 'after' row (deletes)
+     * @throws SerializationException if the event cannot be decoded
+     */
+    @Override
+    public HourlyDataRow deserialize(String topic, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < HEADER_SIZE || bytes[0] != AVRO_MAGIC_BYTE) {
+            throw new SerializationException("Unknown magic byte in CDC event (" + bytes.length + " bytes) in topic "
+                    + topic);
+        }
+
+        int schemaId = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+        DecoderState state = decoderState.get();
+        try {
+            ResolvingDecoder in = state.decoders.get(schemaId);
+            if (in == null) {
+                in = DecoderFactory.get().resolvingDecoder(writerSchema(schemaId), READER_SCHEMA, null);
+                state.decoders.put(schemaId, in);
+            }
+            state.binaryDecoder = DecoderFactory.get().binaryDecoder(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE,
+                    state.binaryDecoder);
+            in.configure(state.binaryDecoder);
+            HourlyDataRow row = readRow(in, state);
+            in.drain();
+            return row;
+        } catch (IOException | AvroTypeException | IndexOutOfBoundsException e) {
+            throw new SerializationException("Cannot decode CDC event with schema ID " + schemaId + " in topic "
+                    + topic, e);
+        }
+    }
+
+    /**
+     * Reads the projected envelope. Fields are read in the order the
+     * ResolvingDecoder reports, which follows the writer schema.
+     */
+    private static HourlyDataRow readRow(ResolvingDecoder in, DecoderState state) throws IOException {
+        in.readFieldOrder(); // Envelope: the projection only keeps 'after'
+        if (in.readIndex() == 0) {
+            in.readNull(); // No row after the change (delete)
+            return null;
+        }
+
+        String sensor = null;
+        long hourBucketMicros = 0;
+        double energyTotal = Double.NaN;
+        for (Schema.Field field : in.readFieldOrder()) {
+            switch (field.name()) {
+                case "sensor":
+                    if (in.readIndex() == 0) {
+                        in.readNull();
+                    } else {
+                        state.sensor = in.readString(state.sensor);
+                        sensor = state.sensor.toString();
+                    }
+                    break;
+                case "hour_bucket":
+                    hourBucketMicros = in.readLong();
+                    break;
+                case "energy_total":
+                    if (in.readIndex() == 0) {
+                        in.readNull();
+                    } else {
+                        energyTotal = in.readDouble();
+                    }
+                    break;
+                default:
+                    throw new AvroTypeException("Unexpected field in projection: " + field.name());
+            }
+        }
+        return new HourlyDataRow(sensor, hourBucketMicros, energyTotal);
+    }
+
+    /**
+     * @return The parsed writer schema, fetched from Schema Registry if it was
+     *         not loaded up front
+     */
+    private Schema writerSchema(int schemaId) throws IOException {
+        Schema schema = writerSchemas.get(schemaId);
+        if (schema != null) {
+            return schema;
+        }
+        try {
+            schema = ((AvroSchema) schemaRegistry.getSchemaById(schemaId)).rawSchema();
+        } catch (Exception e) {
+            throw new IOException("Cannot fetch writer schema " + schemaId, e);
+        }
+        writerSchemas.put(schemaId, schema);
+        return schema;
+    }
+
+    private static Schema loadReaderSchema() {
+        try (InputStream in = HourlyDataDeserializer.class.getResourceAsStream("/schemas/db.public.hourlydata-value.avsc")) {
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.kstreams;
+
+/**
+ * The three columns of an hourlydata row that the application reads from a
+ * Debezium CDC event, decoded by HourlyDataDeserializer.
+ *
+ * @param sensor           Sensor name, or null if the column was null
+ * @param hourBucketMicros Start of the hour bucket in microseconds since epoch
+ * @param energyTotal      Total energy for the hour, or NaN if the column was null
+ */
+public record HourlyDataRow(String sensor, long hourBucketMicros, double energyTotal) {
+}
@@ -0,0 +1,139 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggDelta;
+
+/**
+ * Processor that maintains the last 24 hours of energy totals per sensor and
+ * publishes each change as a RedisAggDelta instead of the whole document.
+ *
+ * The sensor's HourlyRingBuffer is kept in the same store as in document
+ * mode, so interactive queries are unaffected. Every update forwards one
+ * delta carrying the hour and its new total. Hours that leave the window,
+ * either because a newer hour pushed them out of the ring or because the
+ * eviction punctuator trimmed them, are forwarded as eviction markers so the
+ * writer can remove them from Redis.
+ *
+ * Deltas are constant-size and the writer batches them, so they are forwarded
+ * as they happen; the rate-limited emit modes only apply to documents.
+ */
+public class HourlyDeltaProcessor implements Processor<String, HourEnergy, String, RedisAggDelta> {
+    private static final Logger logger = LoggerFactory.getLogger(HourlyDeltaProcessor.class);
+
+    /** Length of the window kept per sensor */
+    private static final long WINDOW_MILLIS = Duration.ofHours(App.MAX_HOURS_PER_SENSOR).toMillis();
+
+    private final String storeName;
+    private final Duration evictionInterval;
+    private final PunctuationType evictionPunctuationType;
+
+    private ProcessorContext<String, RedisAggDelta> context;
+    private KeyValueStore<String, HourlyRingBuffer> store;
+
+    /**
+     * @param storeName               Name of the HourlyRingBuffer key-value store
+     * @param evictionInterval        How often expired hours are evicted
+     * @param evictionPunctuationType Whether eviction follows stream time or wall-clock time
+     */
+    public HourlyDeltaProcessor(String storeName, Duration evictionInterval,
+            PunctuationType evictionPunctuationType) {
+        this.storeName = storeName;
+        this.evictionInterval = evictionInterval;
+        this.evictionPunctuationType = evictionPunctuationType;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, RedisAggDelta> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        context.schedule(evictionInterval, evictionPunctuationType, this::evictExpiredHours);
+    }
+
+    @Override
+    public void process(Record<String, HourEnergy> record) {
+        String sensor = record.key();
+        HourEnergy hourEnergy = record.value();
+        if (sensor == null || hourEnergy == null) {
+            return;
+        }
+
+        HourlyRingBuffer buffer = store.get(sensor);
+        if (buffer == null) {
+            buffer = new HourlyRingBuffer();
+        }
+
+        long epochHour = hourEnergy.getHourEpoch();
+        long newestHour = buffer.newestHour();
+        if (newestHour != HourlyRingBuffer.NO_HOUR && epochHour > newestHour) {
+            // Hours the newer hour pushes out of the ring are dropped without an eviction pass
+            long oldestHourToKeep = epochHour - HourlyRingBuffer.SLOTS + 1;
+            buffer.forEachHour((hour, total) -> {
+                if (hour < oldestHourToKeep) {
+                    context.forward(record.withValue(new RedisAggDelta(hour, 0.0, true)));
+                }
+            });
+        }
+
+        if (!buffer.put(epochHour, hourEnergy.getEnergyTotal())) {
+            logger.debug("Ignoring hour_epoch {} for sensor {}: older than the 24-hour window", epochHour, sensor);
+            App.metrics.recordDrop(PipelineMetrics.DropReason.OUTSIDE_24H);
+            return;
+        }
+
+        store.put(sensor, buffer);
+        context.forward(record.withValue(new RedisAggDelta(epochHour, hourEnergy.getEnergyTotal(), false)));
+    }
+
+    /**
+     * Punctuator that trims every sensor's buffer to the 24 hours preceding the
+     * given time, forwarding an eviction marker for every hour removed.
+     *
+     * @param timestamp Stream time or wall-clock time of the punctuation
+     */
+    private void evictExpiredHours(long timestamp) {
+        long oldestHourToKeep = Math.ceilDiv(timestamp - WINDOW_MILLIS, HourlyRingBuffer.MILLIS_PER_HOUR);
+        int evicted = 0;
+        int removed = 0;
+
+        try (KeyValueIterator<String, HourlyRingBuffer> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, HourlyRingBuffer> entry = iterator.next();
+                HourlyRingBuffer buffer = entry.value;
+                int sizeBefore = buffer.size();
+                buffer.forEachHour((hour, total) -> {
+                    if (hour < oldestHourToKeep) {
+                        context.forward(new Record<>(entry.key, new RedisAggDelta(hour, 0.0, true), timestamp));
+                    }
+                });
+                if (!buffer.evictBefore(oldestHourToKeep)) {
+                    continue;
+                }
+
+                evicted += sizeBefore - buffer.size();
+                if (buffer.isEmpty()) {
+                    store.delete(entry.key);
+                    removed++;
+                } else {
+                    store.put(entry.key, buffer);
+                }
+            }
+        }
+
+        if (evicted > 0) {
+            logger.info("Evicted hours before {}: {} hours evicted, {} sensors removed",
+                    HourlyRingBuffer.formatHourBucket(oldestHourToKeep), evicted, removed);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Lightweight HTTP server exposing the per-sensor 24-hour aggregates directly
+ * from the Kafka Streams state store (interactive queries).
+ *
+ * Endpoints:
+ * - GET /sensors/{sensor}          RedisAggData document of one sensor
+ * - GET /sensors?ids=a,b,c         Object mapping each sensor to its document
+ *                                  (null if unknown); ids may be repeated, and
+ *                                  a comma inside an id is sent as %2C
+ *
+ * Responses use the same JSON shape that the Redis sink stores, so callers can
+ * use this as a drop-in fallback when Redis is unavailable. When several
+ * instances own different partitions, keys are located with
+ * queryMetadataForKey and requests for remote keys are forwarded to the owning
+ * instance (marked with local=true so they are never forwarded twice).
+ */
+public class QueryHttpServer {
+    private static final Logger logger = LoggerFactory.getLogger(QueryHttpServer.class);
+
+    private final KafkaStreams streams;
+    private final HostInfo self;
+    private final HourBucketFormat hourBucketFormat;
+    private final HttpServer server;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    /**
+     * @param streams          Running Kafka Streams instance owning the store
+     * @param self             Host and port this instance advertises as
+     *                         application.server
+     * @param hourBucketFormat Hour bucket representation in returned documents
+     * @throws IOException if the HTTP port cannot be bound
+     */
+    public QueryHttpServer(KafkaStreams streams, HostInfo self, HourBucketFormat hourBucketFormat)
+            throws IOException {
+        this.streams = streams;
+        this.self = self;
+        this.hourBucketFormat = hourBucketFormat;
+        this.server = HttpServer.create(new InetSocketAddress(self.port()), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/sensors", this::handleSensors);
+    }
+
+    /**
+     * @return The underlying HTTP server, for registering additional endpoints
+     */
+    HttpServer httpServer() {
+        return server;
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Interactive query server listening on port {}", self.port());
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Dispatches /sensors/{sensor} and /sensors?ids=... requests.
+     */
+    private void handleSensors(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"detail\":\"Method not allowed\"}");
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            boolean localOnly = Boolean.parseBoolean(query.get("local"));
+            String path = exchange.getRequestURI().getPath();
+            String sensor = path.length() > "/sensors/".length()
+                    ? URLDecoder.decode(path.substring("/sensors/".length()), StandardCharsets.UTF_8)
+                    : null;
+
+            if (sensor != null) {
+                handleSingleSensor(exchange, sensor, localOnly);
+            } else if (query.containsKey("ids")) {
+                handleMultipleSensors(exchange, parseIds(exchange.getRequestURI().getRawQuery()), localOnly);
+            } else {
+                respond(exchange, 400, "{\"detail\":\"Specify /sensors/{sensor} or /sensors?ids=a,b\"}");
+            }
+        } catch (InvalidStateStoreException e) {
+            logger.debug("State store not queryable yet", e);
+            if (exchange.getResponseCode() == -1) { // Headers not sent yet
+                respond(exchange, 503, "{\"detail\":\"State store is not available, try again later\"}");
+            }
+        } catch (Exception e) {
+            logger.error("Error serving query {}", exchange.getRequestURI(), e);
+            if (exchange.getResponseCode() == -1) { // Headers not sent yet
+                respond(exchange, 500, "{\"detail\":\"Internal server error\"}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleSingleSensor(HttpExchange exchange, String sensor, boolean localOnly)
+            throws IOException, InterruptedException {
+        HostInfo owner = localOnly ? self : ownerOf(sensor);
+        if (owner == null) {
+            respond(exchange, 503, "{\"detail\":\"Sensor metadata is not available, try again later\"}");
+            return;
+        }
+
+        if (!owner.equals(self)) {
+            HttpResponse<String> remote = fetchRemote(owner, "/sensors/" + encode(sensor) + "?local=true");
+            respond(exchange, remote.statusCode(), remote.body());
+            return;
+        }
+
+        RedisAggData aggData = lookupLocal(sensor);
+        if (aggData == null) {
+            respond(exchange, 404, "{\"detail\":\"No cached data found for sensor: " + escape(sensor) + "\"}");
+            return;
+        }
+        StringBuilder json = new StringBuilder();
+        appendAggData(json, aggData);
+        respond(exchange, 200, json.toString());
+    }
+
+    private void handleMultipleSensors(HttpExchange exchange, List<String> sensors, boolean localOnly)
+            throws IOException, InterruptedException {
+        // Group the requested sensors by the instance that owns them
+        Map<HostInfo, List<String>> sensorsByHost = new LinkedHashMap<>();
+        for (String sensor : sensors) {
+            if (sensor.isEmpty()) {
+                continue;
+            }
+            HostInfo owner = localOnly ? self : ownerOf(sensor);
+            if (owner == null) {
+                respond(exchange, 503, "{\"detail\":\"Sensor metadata is not available, try again later\"}");
+                return;
+            }
+            sensorsByHost.computeIfAbsent(owner, host -> new ArrayList<>()).add(sensor);
+        }
+
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<HostInfo, List<String>> entry : sensorsByHost.entrySet()) {
+            if (entry.getKey().equals(self)) {
+                for (String sensor : entry.getValue()) {
+                    appendSeparator(json);
+                    json.append('"').append(escape(sensor)).append("\":");
+                    RedisAggData aggData = lookupLocal(sensor);
+                    if (aggData == null) {
+                        json.append("null");
+                    } else {
+                        appendAggData(json, aggData);
+                    }
+                }
+            } else {
+                // One parameter per id, so ids containing commas are not split by the owner
+                StringBuilder pathAndQuery = new StringBuilder("/sensors?local=true");
+                for (String sensor : entry.getValue()) {
+                    pathAndQuery.append("&ids=").append(encode(sensor));
+                }
+                HttpResponse<String> remote = fetchRemote(entry.getKey(), pathAndQuery.toString());
+                if (remote.statusCode() != 200) {
+                    respond(exchange, remote.statusCode(), remote.body());
+                    return;
+                }
+                // Splice the remote object's members into the combined response
+                String body = remote.body().trim();
+                if (body.length() > 2) {
+                    appendSeparator(json);
+                    json.append(body, 1, body.length() - 1);
+                }
+            }
+        }
+        json.append('}');
+        respond(exchange, 200, json.toString());
+    }
+
+    /**
+     * Looks up a sensor in the local store.
+     *
+     * The buffer is served as stored. Expired hours are removed by the
+     * processor's eviction punctuator on its own reference clock (stream time
+     * for replays and backfills), so the query applies no wall-clock cutoff of
+     * its own that would hide valid historical hours.
+     *
+     * @param sensor Sensor identifier
+     * @return The sensor's document, or null if it has no data
+     */
+    private RedisAggData lookupLocal(String sensor) {
+        ReadOnlyKeyValueStore<String, HourlyRingBuffer> store = streams.store(StoreQueryParameters
+                .fromNameAndType(App.AGGREGATION_STORE, QueryableStoreTypes.<String, HourlyRingBuffer>keyValueStore()));
+        HourlyRingBuffer buffer = store.get(sensor);
+        if (buffer == null || buffer.isEmpty()) {
+            return null;
+        }
+        return buffer.toRedisAggData(hourBucketFormat);
+    }
+
+    /**
+     * @return The instance hosting the active store partition of the sensor,
+     *         or null if metadata is not available yet (e.g., rebalancing)
+     */
+    private HostInfo ownerOf(String sensor) {
+        KeyQueryMetadata metadata = streams.queryMetadataForKey(App.AGGREGATION_STORE, sensor,
+                Serdes.String().serializer());
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+            return null;
+        }
+        return metadata.activeHost();
+    }
+
+    private HttpResponse<String> fetchRemote(HostInfo host, String pathAndQuery)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://" + host.host() + ":" + host.port() + pathAndQuery))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Appends a RedisAggData document in the JSON shape stored by the Redis sink.
+     */
+    static void appendAggData(StringBuilder json, RedisAggData aggData) {
+        json.append("{\"data\":[");
+        List<HourEnergy> data = aggData.getData();
+        for (int i = 0; i < data.size(); i++) {
+            HourEnergy hourEnergy = data.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"energy_total\":").append(hourEnergy.getEnergyTotal())
+                    .append(",\"hour_bucket\":\"").append(hourEnergy.getHourBucket())
+                    .append("\",\"hour_epoch\":").append(hourEnergy.getHourEpoch())
+                    .append('}');
+        }
+        json.append("]}");
+    }
+
+    private static void appendSeparator(StringBuilder json) {
+        if (json.length() > 1) {
+            json.append(',');
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /**
+     * Collects the sensor ids of every "ids" parameter. Values are split on
+     * literal commas before they are decoded, so an encoded comma (%2C) stays
+     * part of its id.
+     */
+    private static List<String> parseIds(String rawQuery) {
+        List<String> ids = new ArrayList<>();
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator < 0
+                    || !"ids".equals(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8))) {
+                continue;
+            }
+            for (String id : pair.substring(separator + 1).split(",")) {
+                ids.add(URLDecoder.decode(id, StandardCharsets.UTF_8));
+            }
+        }
+        return ids;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
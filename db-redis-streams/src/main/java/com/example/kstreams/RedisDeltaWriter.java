@@ -0,0 +1,202 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.Serdes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.RedisAggDelta;
+
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Applies the RedisAggDelta records of redis.aggdelta to Redis as field-level
+ * updates.
+ *
+ * Each sensor is a hash at keyPrefix + sensor with one field per hour
+ * (hour_epoch as a decimal string) holding the energy total, so the hash never
+ * has more than 24 fields. A delta becomes a single HSET, an eviction marker a
+ * single HDEL; Redis deletes the hash once its last hour is evicted.
+ *
+ * Every poll is applied as one batch: deltas for the same sensor and hour are
+ * coalesced (last one wins, as records of a sensor arrive in order), all
+ * commands are sent in one pipeline, and offsets are committed only after
+ * Redis has acknowledged the pipeline. If Redis fails, the consumer rewinds to
+ * the start of the batch and retries it; since deltas carry absolute totals,
+ * applying one twice is harmless.
+ *
+ * Any other failure (e.g., a delta that cannot be deserialized) stops the
+ * writer: it is logged and reported by isHealthy(), which the liveness probe
+ * checks, so the instance is restarted instead of silently no longer applying
+ * deltas.
+ */
+public class RedisDeltaWriter implements Runnable, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(RedisDeltaWriter.class);
+
+    /** Consumer group of the writer, separate from the streams application */
+    static final String GROUP_ID = "db-redis-streams-delta-writer";
+    /** How long a poll waits for new deltas */
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    /** Pause before retrying a batch after a Redis error */
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private final KafkaConsumer<String, RedisAggDelta> consumer;
+    private final String redisHost;
+    private final int redisPort;
+    private final String keyPrefix;
+
+    private volatile boolean running = true;
+    /** Failure that stopped the writer, or null while it runs or after close() */
+    private volatile Throwable failure;
+    private Jedis jedis;
+
+    /**
+     * @param kafkaBootstrapServers Comma-separated list of Kafka broker addresses
+     * @param serdeConfig           Schema Registry configuration for Avro serdes
+     * @param redisHost             Redis server hostname
+     * @param redisPort             Redis server port
+     * @param keyPrefix             Prefix of the per-sensor hash keys
+     * @param batchSize             Maximum number of deltas applied per pipeline
+     */
+    public RedisDeltaWriter(String kafkaBootstrapServers, Map<String, String> serdeConfig, String redisHost,
+            int redisPort, String keyPrefix, int batchSize) {
+        final SpecificAvroSerde<RedisAggDelta> deltaValueSerde = new SpecificAvroSerde<>();
+        deltaValueSerde.configure(serdeConfig, false); // false = value serde
+
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // The streams application writes with exactly-once; skip aborted transactions
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+
+        this.consumer = new KafkaConsumer<>(props, Serdes.String().deserializer(),
+                deltaValueSerde.deserializer());
+        this.redisHost = redisHost;
+        this.redisPort = redisPort;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public void run() {
+        logger.info("Applying {} to Redis at {}:{} under {}*", App.DELTA_OUTPUT_TOPIC, redisHost, redisPort,
+                keyPrefix);
+        try {
+            consumer.subscribe(List.of(App.DELTA_OUTPUT_TOPIC));
+            while (running) {
+                ConsumerRecords<String, RedisAggDelta> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    continue;
+                }
+                try {
+                    apply(records);
+                    consumer.commitSync();
+                } catch (JedisException e) {
+                    logger.warn("Redis write of {} deltas failed, retrying: {}", records.count(), e.getMessage());
+                    disconnect();
+                    rewind(records);
+                    Thread.sleep(RETRY_BACKOFF.toMillis());
+                }
+            }
+        } catch (WakeupException e) {
+            if (running) {
+                fail(e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(e);
+        } finally {
+            consumer.close();
+            disconnect();
+        }
+    }
+
+    private void fail(Throwable e) {
+        failure = e;
+        logger.error("Redis delta writer stopped, {} is no longer applied to Redis", App.DELTA_OUTPUT_TOPIC, e);
+    }
+
+    /**
+     * @return false once the writer has stopped because of a failure
+     */
+    public boolean isHealthy() {
+        return failure == null;
+    }
+
+    /**
+     * Applies one poll's deltas in a single pipeline.
+     */
+    private void apply(ConsumerRecords<String, RedisAggDelta> records) {
+        Map<String, ConsumerRecord<String, RedisAggDelta>> latest = new LinkedHashMap<>();
+        for (ConsumerRecord<String, RedisAggDelta> record : records) {
+            if (record.key() != null && record.value() != null) {
+                latest.put(record.key() + '\u0000' + record.value().getHourEpoch(), record);
+            }
+        }
+
+        if (jedis == null) {
+            jedis = new Jedis(redisHost, redisPort);
+        }
+        Pipeline pipeline = jedis.pipelined();
+        for (ConsumerRecord<String, RedisAggDelta> record : latest.values()) {
+            RedisAggDelta delta = record.value();
+            String key = keyPrefix + record.key();
+            String field = Long.toString(delta.getHourEpoch());
+            if (delta.getEvicted()) {
+                pipeline.hdel(key, field);
+            } else {
+                pipeline.hset(key, field, Double.toString(delta.getEnergyTotal()));
+            }
+        }
+        pipeline.sync();
+        logger.debug("Applied {} deltas ({} coalesced)", latest.size(), records.count() - latest.size());
+    }
+
+    /**
+     * Moves every partition of the batch back to its first record, so the
+     * next poll returns the batch again.
+     */
+    private void rewind(ConsumerRecords<String, RedisAggDelta> records) {
+        for (TopicPartition partition : records.partitions()) {
+            consumer.seek(partition, records.records(partition).get(0).offset());
+        }
+    }
+
+    private void disconnect() {
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (JedisException e) {
+                logger.debug("Error closing Redis connection", e);
+            }
+            jedis = null;
+        }
+    }
+
+    /**
+     * Stops the writer; the polling thread closes the consumer and the Redis
+     * connection on its way out.
+     */
+    @Override
+    public void close() {
+        running = false;
+        consumer.wakeup();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.kstreams;
+
+/**
+ * Shape of the hourly aggregates published for Redis.
+ *
+ * A full document rewrites all 24 hours of a sensor whenever one hour
+ * changes, so bytes on the wire and Redis CPU per update grow with the
+ * window. Delta output publishes only the hour that changed, and a writer
+ * applies it as a single field update on a fixed-shape hash.
+ */
+public enum RedisOutputMode {
+    /**
+     * Full RedisAggData documents on redis.aggdata, stored by the Redis sink
+     * connector with JSONSET (original behaviour).
+     */
+    DOCUMENT,
+    /**
+     * RedisAggDelta records on redis.aggdelta, one per changed or evicted
+     * hour, applied by RedisDeltaWriter with pipelined HSET and HDEL.
+     */
+    DELTA;
+
+    /**
+     * Parses a mode name case-insensitively.
+     *
+     * @param value Mode name (e.g., "document" or "delta")
+     * @return The matching mode
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static RedisOutputMode fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
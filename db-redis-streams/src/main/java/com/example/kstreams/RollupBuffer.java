@@ -0,0 +1,272 @@
+package com.example.kstreams;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.avro.PeriodEnergy;
+import com.example.avro.RollupData;
+
+/**
+ * Bounded per-sensor state of a daily, weekly or monthly rollup.
+ *
+ * The hourly totals of a sensor keep changing while the continuous aggregate
+ * refreshes the open hour, so the buffer keeps the last 24 hours as they are
+ * in an HourlyRingBuffer. Once an hour leaves that window it is final and is
+ * frozen, i.e. added exactly once to the total of its period. Frozen period
+ * totals live in a fixed ring of retention slots, addressed by period number
+ * modulo retention, so the state never grows beyond 24 hours plus retention
+ * periods no matter how long the sensor has been reporting.
+ *
+ * The published total of a period is its frozen total plus its hours still
+ * in the 24-hour window. Freezing therefore does not change the document;
+ * only new hourly values and periods expiring from the retention do.
+ *
+ * Instances are mutable and not thread-safe; each one belongs to a single
+ * sensor key inside a Kafka Streams task.
+ */
+public class RollupBuffer {
+    /** Marker for an empty period slot, or a buffer without frozen periods */
+    static final long NO_PERIOD = Long.MIN_VALUE;
+
+    private final RollupResolution resolution;
+    private final HourlyRingBuffer liveHours;
+    /** Every hour before this one has been frozen; later updates to them are ignored */
+    private long frozenBefore = HourlyRingBuffer.NO_HOUR;
+    private long newestPeriod = NO_PERIOD;
+    private final long[] periods;
+    private final double[] frozenTotals;
+    private long dirtySince = 0;
+
+    /**
+     * @param resolution Calendar resolution of the rollup
+     */
+    public RollupBuffer(RollupResolution resolution) {
+        this(resolution, new HourlyRingBuffer());
+    }
+
+    private RollupBuffer(RollupResolution resolution, HourlyRingBuffer liveHours) {
+        this.resolution = resolution;
+        this.liveHours = liveHours;
+        this.periods = new long[resolution.retention()];
+        this.frozenTotals = new double[resolution.retention()];
+        Arrays.fill(periods, NO_PERIOD);
+    }
+
+    /**
+     * Inserts or updates the energy total of an hour.
+     *
+     * @param epochHour   Hours since the Unix epoch (UTC)
+     * @param energyTotal Total energy consumption for the hour
+     * @return true if the hour was stored, false if it has already been frozen
+     */
+    public boolean put(long epochHour, double energyTotal) {
+        if (epochHour < frozenBefore) {
+            return false;
+        }
+        long newestHour = liveHours.newestHour();
+        if (newestHour != HourlyRingBuffer.NO_HOUR && epochHour > newestHour) {
+            // Freeze the hours the ring buffer is about to overwrite
+            freezeBefore(epochHour - HourlyRingBuffer.SLOTS + 1);
+        }
+        return liveHours.put(epochHour, energyTotal);
+    }
+
+    /**
+     * Adds every live hour older than the given epoch-hour to its period total
+     * and removes it from the 24-hour window.
+     *
+     * @param oldestHourToKeep Oldest epoch-hour that stays in the window
+     * @return true if at least one hour was frozen
+     */
+    public boolean freezeBefore(long oldestHourToKeep) {
+        if (oldestHourToKeep <= frozenBefore) {
+            return false;
+        }
+        frozenBefore = oldestHourToKeep;
+        liveHours.forEachHour((hour, total) -> {
+            if (hour < oldestHourToKeep) {
+                addFrozen(resolution.periodOf(hour), total);
+            }
+        });
+        return liveHours.evictBefore(oldestHourToKeep);
+    }
+
+    /**
+     * Adds a final hourly total to the frozen total of its period.
+     */
+    private void addFrozen(long period, double energyTotal) {
+        if (newestPeriod == NO_PERIOD || period > newestPeriod) {
+            newestPeriod = period;
+        } else if (period <= newestPeriod - periods.length) {
+            return;
+        }
+        int slot = slotOf(period);
+        if (periods[slot] != period) {
+            periods[slot] = period;
+            frozenTotals[slot] = 0;
+        }
+        frozenTotals[slot] += energyTotal;
+    }
+
+    /**
+     * Removes every frozen period older than the given one.
+     *
+     * @param oldestPeriodToKeep Oldest period that stays in the rollup
+     * @return true if at least one period was removed
+     */
+    public boolean evictPeriodsBefore(long oldestPeriodToKeep) {
+        boolean removed = false;
+        for (int slot = 0; slot < periods.length; slot++) {
+            if (periods[slot] != NO_PERIOD && periods[slot] < oldestPeriodToKeep) {
+                periods[slot] = NO_PERIOD;
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return true if neither live hours nor frozen periods are stored
+     */
+    public boolean isEmpty() {
+        if (!liveHours.isEmpty()) {
+            return false;
+        }
+        for (long period : periods) {
+            if (period != NO_PERIOD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Renders the rollup as the RollupData document published to Redis, with
+     * periods in ascending order.
+     *
+     * @return RollupData containing one PeriodEnergy per period with data
+     */
+    public RollupData toRollupData() {
+        long newest = newestPeriod;
+        if (!liveHours.isEmpty()) {
+            newest = Math.max(newest, resolution.periodOf(liveHours.newestHour()));
+        }
+        List<PeriodEnergy> data = new ArrayList<>();
+        if (newest != NO_PERIOD) {
+            long oldest = newest - periods.length + 1;
+            double[] sums = new double[periods.length];
+            boolean[] present = new boolean[periods.length];
+            for (int slot = 0; slot < periods.length; slot++) {
+                if (periods[slot] != NO_PERIOD && periods[slot] >= oldest) {
+                    sums[slot] = frozenTotals[slot];
+                    present[slot] = true;
+                }
+            }
+            liveHours.forEachHour((hour, total) -> {
+                long period = resolution.periodOf(hour);
+                if (period >= oldest) {
+                    sums[slotOf(period)] += total;
+                    present[slotOf(period)] = true;
+                }
+            });
+            for (long period = oldest; period <= newest; period++) {
+                int slot = slotOf(period);
+                if (present[slot]) {
+                    long startDay = resolution.startDayOf(period);
+                    data.add(new PeriodEnergy(sums[slot], LocalDate.ofEpochDay(startDay).toString(), startDay));
+                }
+            }
+        }
+        return new RollupData(resolution.label(), data);
+    }
+
+    /**
+     * @return Calendar resolution of the rollup
+     */
+    RollupResolution resolution() {
+        return resolution;
+    }
+
+    /**
+     * @return The 24-hour window of hours not yet frozen
+     */
+    HourlyRingBuffer liveHours() {
+        return liveHours;
+    }
+
+    /**
+     * @return Epoch-hour before which every hour has been frozen, or NO_HOUR
+     */
+    long frozenBefore() {
+        return frozenBefore;
+    }
+
+    /**
+     * @return Newest frozen period, or NO_PERIOD if none was frozen yet
+     */
+    long newestPeriod() {
+        return newestPeriod;
+    }
+
+    /**
+     * @param slot Slot index in [0, retention)
+     * @return Period held by the slot, or NO_PERIOD if it is empty
+     */
+    long periodAt(int slot) {
+        return periods[slot];
+    }
+
+    /**
+     * @param slot Slot index in [0, retention)
+     * @return Frozen energy total stored in the slot
+     */
+    double frozenTotalAt(int slot) {
+        return frozenTotals[slot];
+    }
+
+    /**
+     * @return Wall-clock time of the first update not yet emitted, or 0 if the
+     *         last emitted document is up to date
+     */
+    long dirtySince() {
+        return dirtySince;
+    }
+
+    /**
+     * Records when the rollup first diverged from the last emitted document.
+     *
+     * @param dirtySince Wall-clock time in milliseconds, or 0 once emitted
+     */
+    void setDirtySince(long dirtySince) {
+        this.dirtySince = dirtySince;
+    }
+
+    /**
+     * Restores a rollup from its raw layout.
+     *
+     * @param resolution   Calendar resolution of the rollup
+     * @param liveHours    The 24-hour window of hours not yet frozen
+     * @param frozenBefore Epoch-hour before which every hour has been frozen
+     * @param newestPeriod Newest frozen period, or NO_PERIOD
+     * @param periods      Period held by each slot, or NO_PERIOD
+     * @param frozenTotals Frozen energy totals indexed by slot
+     * @param dirtySince   Time of the first update not yet emitted, or 0
+     * @return Rollup holding the given state
+     */
+    static RollupBuffer restore(RollupResolution resolution, HourlyRingBuffer liveHours, long frozenBefore,
+            long newestPeriod, long[] periods, double[] frozenTotals, long dirtySince) {
+        RollupBuffer buffer = new RollupBuffer(resolution, liveHours);
+        buffer.frozenBefore = frozenBefore;
+        buffer.newestPeriod = newestPeriod;
+        buffer.dirtySince = dirtySince;
+        System.arraycopy(periods, 0, buffer.periods, 0, buffer.periods.length);
+        System.arraycopy(frozenTotals, 0, buffer.frozenTotals, 0, buffer.frozenTotals.length);
+        return buffer;
+    }
+
+    private int slotOf(long period) {
+        return (int) Math.floorMod(period, (long) periods.length);
+    }
+}
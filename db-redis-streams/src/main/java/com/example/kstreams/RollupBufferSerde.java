@@ -0,0 +1,138 @@
+package com.example.kstreams;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Compact serde for RollupBuffer state in a rollup store and its changelog
+ * topic.
+ *
+ * Layout (big-endian, at most 1131 bytes for the 90 daily periods):
+ * - byte    format version (1)
+ * - long    epoch-hour before which every hour has been frozen
+ * - long    newest live epoch-hour
+ * - int     bit mask of occupied live slots
+ * - double  energy total for each of the 24 live slots
+ * - long    time of the first update not yet emitted (0 if none)
+ * - long    newest frozen period
+ * - short   number of frozen periods that follow
+ * - per frozen period: short age (newest frozen period minus the period) and
+ *   double energy total
+ *
+ * Only occupied period slots are written, so a sensor that has been
+ * reporting for a few days costs a few dozen bytes beyond the live window.
+ * The resolution is not stored; each store has its own serde instance.
+ */
+public class RollupBufferSerde implements Serde<RollupBuffer> {
+    /** Current layout version */
+    static final byte FORMAT_VERSION = 1;
+    /** Serialized size of a buffer without frozen periods */
+    private static final int FIXED_SIZE = Byte.BYTES + 3 * Long.BYTES + Integer.BYTES
+            + HourlyRingBuffer.SLOTS * Double.BYTES + Long.BYTES + Short.BYTES;
+    /** Serialized size of one frozen period */
+    private static final int PERIOD_SIZE = Short.BYTES + Double.BYTES;
+
+    private final RollupResolution resolution;
+
+    /**
+     * @param resolution Calendar resolution of the stored rollups
+     */
+    public RollupBufferSerde(RollupResolution resolution) {
+        this.resolution = resolution;
+    }
+
+    @Override
+    public Serializer<RollupBuffer> serializer() {
+        return (topic, buffer) -> {
+            if (buffer == null) {
+                return null;
+            }
+            int retention = resolution.retention();
+            long newestPeriod = buffer.newestPeriod();
+            int count = 0;
+            for (int slot = 0; slot < retention; slot++) {
+                if (isStored(buffer.periodAt(slot), newestPeriod, retention)) {
+                    count++;
+                }
+            }
+
+            ByteBuffer out = ByteBuffer.allocate(FIXED_SIZE + count * PERIOD_SIZE);
+            out.put(FORMAT_VERSION);
+            out.putLong(buffer.frozenBefore());
+            HourlyRingBuffer liveHours = buffer.liveHours();
+            out.putLong(liveHours.newestHour());
+            out.putInt(liveHours.presentMask());
+            for (int slot = 0; slot < HourlyRingBuffer.SLOTS; slot++) {
+                out.putDouble(liveHours.totalAt(slot));
+            }
+            out.putLong(buffer.dirtySince());
+            out.putLong(newestPeriod);
+            out.putShort((short) count);
+            for (int slot = 0; slot < retention; slot++) {
+                long period = buffer.periodAt(slot);
+                if (isStored(period, newestPeriod, retention)) {
+                    out.putShort((short) (newestPeriod - period));
+                    out.putDouble(buffer.frozenTotalAt(slot));
+                }
+            }
+            return out.array();
+        };
+    }
+
+    /**
+     * Stale slots (periods that have left the retention but were not evicted
+     * yet) are not written.
+     */
+    private static boolean isStored(long period, long newestPeriod, int retention) {
+        return period != RollupBuffer.NO_PERIOD && period > newestPeriod - retention;
+    }
+
+    @Override
+    public Deserializer<RollupBuffer> deserializer() {
+        return (topic, bytes) -> {
+            if (bytes == null) {
+                return null;
+            }
+            if (bytes.length < FIXED_SIZE || bytes[0] != FORMAT_VERSION
+                    || (bytes.length - FIXED_SIZE) % PERIOD_SIZE != 0) {
+                throw new SerializationException("Unknown RollupBuffer layout ("
+                        + bytes.length + " bytes) in topic " + topic);
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            long frozenBefore = in.getLong();
+            long newestHour = in.getLong();
+            int presentMask = in.getInt();
+            double[] totals = new double[HourlyRingBuffer.SLOTS];
+            for (int slot = 0; slot < HourlyRingBuffer.SLOTS; slot++) {
+                totals[slot] = in.getDouble();
+            }
+            long dirtySince = in.getLong();
+            long newestPeriod = in.getLong();
+            int count = in.getShort();
+            if (count != (bytes.length - FIXED_SIZE) / PERIOD_SIZE) {
+                throw new SerializationException("Corrupt RollupBuffer (" + count + " periods in "
+                        + bytes.length + " bytes) in topic " + topic);
+            }
+
+            int retention = resolution.retention();
+            long[] periods = new long[retention];
+            double[] frozenTotals = new double[retention];
+            Arrays.fill(periods, RollupBuffer.NO_PERIOD);
+            for (int i = 0; i < count; i++) {
+                long period = newestPeriod - in.getShort();
+                int slot = (int) Math.floorMod(period, (long) retention);
+                periods[slot] = period;
+                frozenTotals[slot] = in.getDouble();
+            }
+            HourlyRingBuffer liveHours = HourlyRingBuffer.restore(newestHour, presentMask, totals, 0);
+            return RollupBuffer.restore(resolution, liveHours, frozenBefore, newestPeriod, periods, frozenTotals,
+                    dirtySince);
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RollupData;
+
+/**
+ * Processor that maintains the daily, weekly or monthly energy totals of each
+ * sensor from the hourly stream.
+ *
+ * Each incoming HourEnergy record updates the sensor's RollupBuffer. Rollup
+ * documents change with every refresh of the open hour but are only read by
+ * long-range dashboards, so updates are coalesced: sensors with unpublished
+ * changes are tracked in memory and flushed by a wall-clock punctuator, and
+ * the buffer records when it became dirty so pending emits survive a restart.
+ *
+ * A second punctuator freezes the hours that have left the 24-hour window
+ * into their period totals and drops periods beyond the retention. Sensors
+ * with no data left are removed from the store and a tombstone (null value)
+ * is forwarded so the Redis key is deleted.
+ */
+public class RollupProcessor implements Processor<String, HourEnergy, String, RollupData> {
+    private static final Logger logger = LoggerFactory.getLogger(RollupProcessor.class);
+
+    /** Length of the window of hours that may still change */
+    private static final long WINDOW_MILLIS = Duration.ofHours(App.MAX_HOURS_PER_SENSOR).toMillis();
+
+    private final RollupResolution resolution;
+    private final Duration evictionInterval;
+    private final PunctuationType evictionPunctuationType;
+    private final Duration emitInterval;
+
+    /** Sensors with unpublished updates */
+    private final Set<String> pendingEmits = new LinkedHashSet<>();
+
+    private ProcessorContext<String, RollupData> context;
+    private KeyValueStore<String, RollupBuffer> store;
+
+    /**
+     * @param resolution              Calendar resolution of the rollup
+     * @param evictionInterval        How often hours are frozen and expired periods evicted
+     * @param evictionPunctuationType Whether eviction follows stream time or wall-clock time
+     * @param emitInterval            How often updated rollups are published
+     */
+    public RollupProcessor(RollupResolution resolution, Duration evictionInterval,
+            PunctuationType evictionPunctuationType, Duration emitInterval) {
+        this.resolution = resolution;
+        this.evictionInterval = evictionInterval;
+        this.evictionPunctuationType = evictionPunctuationType;
+        this.emitInterval = emitInterval;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, RollupData> context) {
+        this.context = context;
+        this.store = context.getStateStore(resolution.storeName());
+        recoverPendingEmits();
+        context.schedule(evictionInterval, evictionPunctuationType, this::evictExpiredData);
+        context.schedule(emitInterval, PunctuationType.WALL_CLOCK_TIME, this::flushPendingEmits);
+    }
+
+    @Override
+    public void process(Record<String, HourEnergy> record) {
+        String sensor = record.key();
+        HourEnergy hourEnergy = record.value();
+        if (sensor == null || hourEnergy == null) {
+            return;
+        }
+
+        RollupBuffer buffer = store.get(sensor);
+        if (buffer == null) {
+            buffer = new RollupBuffer(resolution);
+        }
+
+        long epochHour = hourEnergy.getHourEpoch();
+        if (!buffer.put(epochHour, hourEnergy.getEnergyTotal())) {
+            // Already counted as OUTSIDE_24H by the hourly aggregation
+            logger.debug("Ignoring hour_epoch {} for sensor {}: already frozen into the {} rollup", epochHour,
+                    sensor, resolution.label());
+            return;
+        }
+
+        if (buffer.dirtySince() == 0) {
+            buffer.setDirtySince(context.currentSystemTimeMs());
+        }
+        store.put(sensor, buffer);
+        pendingEmits.add(sensor);
+    }
+
+    /**
+     * Punctuator that emits every pending sensor.
+     *
+     * @param timestamp Current wall-clock time
+     */
+    private void flushPendingEmits(long timestamp) {
+        for (String sensor : pendingEmits) {
+            RollupBuffer buffer = store.get(sensor);
+            if (buffer != null && buffer.dirtySince() != 0) {
+                emit(sensor, buffer, timestamp);
+            }
+        }
+        pendingEmits.clear();
+    }
+
+    /**
+     * Stores the buffer as clean and forwards its RollupData document.
+     */
+    private void emit(String sensor, RollupBuffer buffer, long timestamp) {
+        buffer.setDirtySince(0);
+        store.put(sensor, buffer);
+        context.forward(new Record<>(sensor, buffer.toRollupData(), timestamp));
+    }
+
+    /**
+     * Rebuilds the pending-emit set from buffers that were stored dirty before
+     * a restart or rebalance, so their updates are not lost.
+     */
+    private void recoverPendingEmits() {
+        try (KeyValueIterator<String, RollupBuffer> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, RollupBuffer> entry = iterator.next();
+                if (entry.value.dirtySince() != 0) {
+                    pendingEmits.add(entry.key);
+                }
+            }
+        }
+        if (!pendingEmits.isEmpty()) {
+            logger.info("Recovered {} sensors with pending {} rollup emits", pendingEmits.size(),
+                    resolution.label());
+        }
+    }
+
+    /**
+     * Punctuator that freezes every sensor's hours older than 24 hours before
+     * the given time and evicts periods beyond the retention, forwarding
+     * trimmed documents and tombstones for empty sensors.
+     *
+     * Freezing alone leaves the published totals unchanged, so such sensors
+     * are only stored, not emitted.
+     *
+     * @param timestamp Stream time or wall-clock time of the punctuation
+     */
+    private void evictExpiredData(long timestamp) {
+        long oldestHourToKeep = Math.ceilDiv(timestamp - WINDOW_MILLIS, HourlyRingBuffer.MILLIS_PER_HOUR);
+        long oldestPeriodToKeep = resolution.periodOf(Math.floorDiv(timestamp, HourlyRingBuffer.MILLIS_PER_HOUR))
+                - resolution.retention() + 1;
+        int trimmed = 0;
+        int removed = 0;
+
+        try (KeyValueIterator<String, RollupBuffer> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, RollupBuffer> entry = iterator.next();
+                RollupBuffer buffer = entry.value;
+                boolean frozen = buffer.freezeBefore(oldestHourToKeep);
+                if (!buffer.evictPeriodsBefore(oldestPeriodToKeep)) {
+                    if (frozen) {
+                        store.put(entry.key, buffer);
+                    }
+                    continue;
+                }
+
+                pendingEmits.remove(entry.key);
+                if (buffer.isEmpty()) {
+                    store.delete(entry.key);
+                    context.forward(new Record<>(entry.key, (RollupData) null, timestamp));
+                    removed++;
+                } else {
+                    emit(entry.key, buffer, timestamp);
+                    trimmed++;
+                }
+            }
+        }
+
+        if (trimmed > 0 || removed > 0) {
+            logger.info("Evicted {} periods before {}: {} sensors trimmed, {} sensors removed", resolution.label(),
+                    LocalDate.ofEpochDay(resolution.startDayOf(oldestPeriodToKeep)), trimmed, removed);
+        }
+    }
+}
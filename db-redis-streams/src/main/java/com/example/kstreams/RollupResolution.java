@@ -0,0 +1,101 @@
+package com.example.kstreams;
+
+import java.time.LocalDate;
+
+/**
+ * Calendar resolution of a long-range rollup, with the number of periods kept
+ * per sensor.
+ *
+ * Periods are numbered consecutively from the Unix epoch (UTC), so a rollup
+ * can address them with the same modulo-slot scheme as the hourly ring
+ * buffer. Weeks are ISO weeks starting on Monday.
+ */
+public enum RollupResolution {
+    /** Daily totals for the last 90 days. */
+    DAILY(90),
+    /** Weekly totals for the last 52 weeks. */
+    WEEKLY(52),
+    /** Monthly totals for the last 24 months. */
+    MONTHLY(24);
+
+    /** Days from the Monday of week 0 (1969-12-29) to the epoch */
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private final int retention;
+
+    RollupResolution(int retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * @return Number of periods kept per sensor, including the current one
+     */
+    public int retention() {
+        return retention;
+    }
+
+    /**
+     * @return Output topic of this resolution (e.g., "redis.aggdata.daily")
+     */
+    public String topic() {
+        return App.SENSOR_OUTPUT_TOPIC + "." + label();
+    }
+
+    /**
+     * @return State store holding the rollups of this resolution
+     */
+    public String storeName() {
+        return "rollup-" + label() + "-store";
+    }
+
+    /**
+     * @return Lower-case name used in topic, store and processor names
+     */
+    public String label() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Maps an epoch-hour to the period containing it.
+     *
+     * @param epochHour Hours since the Unix epoch (UTC)
+     * @return Periods since the Unix epoch
+     */
+    public long periodOf(long epochHour) {
+        long epochDay = Math.floorDiv(epochHour, 24L);
+        return switch (this) {
+            case DAILY -> epochDay;
+            case WEEKLY -> Math.floorDiv(epochDay + EPOCH_DAY_OF_WEEK, 7L);
+            case MONTHLY -> {
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                yield (date.getYear() - 1970L) * 12 + date.getMonthValue() - 1;
+            }
+        };
+    }
+
+    /**
+     * Returns the first day of a period.
+     *
+     * @param period Periods since the Unix epoch
+     * @return Days since the Unix epoch (UTC)
+     */
+    public long startDayOf(long period) {
+        return switch (this) {
+            case DAILY -> period;
+            case WEEKLY -> period * 7 - EPOCH_DAY_OF_WEEK;
+            case MONTHLY -> LocalDate.of((int) (1970 + Math.floorDiv(period, 12L)),
+                    (int) Math.floorMod(period, 12L) + 1, 1).toEpochDay();
+        };
+    }
+
+    /**
+     * Parses a resolution name case-insensitively.
+     *
+     * @param value Resolution name (e.g., "daily", "weekly" or "monthly")
+     * @return The matching resolution
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static RollupResolution fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.kstreams;
+
+import java.util.Properties;
+
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.state.KeyValueBytesStoreSupplier;
+import org.apache.kafka.streams.state.Stores;
+
+/**
+ * Backing implementation of the application's key-value state stores.
+ *
+ * The aggregation state is small (a few hundred bytes per sensor) and fully
+ * rebuildable from its changelog, so the choice trades restore time after a
+ * restart against predictable memory use.
+ */
+public enum StateStoreProfile {
+    /** RocksDB with the Kafka Streams defaults (original behaviour). */
+    ROCKSDB,
+    /**
+     * RocksDB with one block cache and write buffer budget shared by every
+     * store instance of the process (BoundedMemoryRocksDBConfig), so memory
+     * no longer grows with the number of assigned partitions.
+     */
+    BOUNDED,
+    /**
+     * Heap-only stores. Nothing is written to local disk, so every restart or
+     * reassignment restores the stores from their changelogs.
+     */
+    IN_MEMORY;
+
+    /**
+     * Creates the store supplier of a key-value store in this profile.
+     *
+     * @param name Store name
+     * @return Persistent (RocksDB) or in-memory store supplier
+     */
+    public KeyValueBytesStoreSupplier keyValueStore(String name) {
+        return this == IN_MEMORY ? Stores.inMemoryKeyValueStore(name) : Stores.persistentKeyValueStore(name);
+    }
+
+    /**
+     * Adds the Kafka Streams settings this profile needs.
+     *
+     * @param props Kafka Streams properties
+     */
+    public void configure(Properties props) {
+        if (this == BOUNDED) {
+            props.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedMemoryRocksDBConfig.class);
+        }
+    }
+
+    /**
+     * Parses a profile name case-insensitively.
+     *
+     * @param value Profile name (e.g., "rocksdb", "bounded" or "in_memory")
+     * @return The matching profile
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static StateStoreProfile fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.kafka.streams.processor.PunctuationType;
+
+/**
+ * Settings that shape the topology built by App.buildTopology, as opposed to
+ * client settings such as bootstrap servers or the query server address.
+ *
+ * @param hourBucketFormat        Hour bucket representation in emitted documents
+ * @param evictionInterval        How often expired hours are evicted
+ * @param evictionPunctuationType Whether eviction follows stream time or wall-clock time
+ * @param emitMode                How updated documents are published
+ * @param emitInterval            Minimum interval or quiet period for rate-limited emit modes
+ * @param freshnessMode           Reference clock of the 24-hour filter
+ * @param replayCatchUp           How far behind the wall clock a replay counts as caught up
+ * @param rollupResolutions       Long-range rollups to maintain (empty to disable)
+ * @param rollupEmitInterval      How often updated rollups are published
+ * @param stateStoreProfile       Backing implementation of the key-value stores
+ * @param redisOutputMode         Whether full documents or per-hour deltas are published
+ */
+public record TopologySettings(
+        HourBucketFormat hourBucketFormat,
+        Duration evictionInterval,
+        PunctuationType evictionPunctuationType,
+        EmitMode emitMode,
+        Duration emitInterval,
+        FreshnessMode freshnessMode,
+        Duration replayCatchUp,
+        List<RollupResolution> rollupResolutions,
+        Duration rollupEmitInterval,
+        StateStoreProfile stateStoreProfile,
+        RedisOutputMode redisOutputMode) {
+
+    /**
+     * Loads the settings from environment variables with fallback defaults.
+     *
+     * @return Settings for the running application
+     */
+    public static TopologySettings fromEnvironment() {
+        return new TopologySettings(
+                HourBucketFormat.fromString(System.getenv().getOrDefault("REDIS_HOUR_BUCKET_FORMAT", "string")),
+                Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("EVICTION_INTERVAL_SECONDS", "300"))),
+                PunctuationType.valueOf(
+                        System.getenv().getOrDefault("EVICTION_PUNCTUATION_TYPE", "stream_time").toUpperCase()),
+                EmitMode.fromString(System.getenv().getOrDefault("REDIS_EMIT_MODE", "eager")),
+                Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("REDIS_EMIT_INTERVAL_MS", "5000"))),
+                FreshnessMode.fromString(System.getenv().getOrDefault("FRESHNESS_MODE", "live")),
+                Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("REPLAY_CATCH_UP_SECONDS", "7200"))),
+                parseRollupResolutions(System.getenv().getOrDefault("ROLLUP_RESOLUTIONS", "daily,weekly,monthly")),
+                Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("ROLLUP_EMIT_INTERVAL_SECONDS", "60"))),
+                StateStoreProfile.fromString(System.getenv().getOrDefault("STATE_STORE_PROFILE", "rocksdb")),
+                RedisOutputMode.fromString(System.getenv().getOrDefault("REDIS_OUTPUT_MODE", "document")));
+    }
+
+    /**
+     * Parses a comma-separated list of rollup resolutions.
+     *
+     * @param value Resolution names (e.g., "daily,monthly"), or an empty string
+     * @return The distinct resolutions in the given order
+     * @throws IllegalArgumentException if a name is unknown
+     */
+    static List<RollupResolution> parseRollupResolutions(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(RollupResolution::fromString)
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.kstreams;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecordBuilder;
+
+/**
+ * Debezium-shaped hourlydata CDC events for tests, to be serialized with
+ * KafkaAvroSerializer against a mock Schema Registry.
+ */
+final class DebeziumEvents {
+
+    /** Table row as Debezium writes it: columns in table order, plus one the projection drops */
+    static final Schema VALUE_SCHEMA = SchemaBuilder.record("Value").namespace("db.public.hourlydata")
+            .fields()
+            .requiredLong("hour_bucket")
+            .optionalLong("reading_count")
+            .optionalString("sensor")
+            .optionalDouble("energy_total")
+            .endRecord();
+    static final Schema SOURCE_SCHEMA = SchemaBuilder.record("Source")
+            .namespace("io.debezium.connector.postgresql")
+            .fields()
+            .requiredString("db")
+            .requiredLong("lsn")
+            .endRecord();
+    static final Schema ENVELOPE_SCHEMA = SchemaBuilder.record("Envelope").namespace("db.public.hourlydata")
+            .fields()
+            .name("before").type().optional().type(VALUE_SCHEMA)
+            .name("after").type().optional().type(VALUE_SCHEMA)
+            .name("source").type(SOURCE_SCHEMA).noDefault()
+            .requiredString("op")
+            .optionalLong("ts_ms")
+            .endRecord();
+
+    private DebeziumEvents() {
+    }
+
+    /**
+     * @param op     Debezium operation ("c", "u" or "d")
+     * @param after  Row after the change, or null for a delete
+     * @param before Row before the change, or null
+     * @return Change event envelope
+     */
+    static GenericData.Record envelope(String op, GenericData.Record after, GenericData.Record before) {
+        return new GenericRecordBuilder(ENVELOPE_SCHEMA)
+                .set("before", before)
+                .set("after", after)
+                .set("source", new GenericRecordBuilder(SOURCE_SCHEMA).set("db", "energy").set("lsn", 42L).build())
+                .set("op", op)
+                .set("ts_ms", 1_717_250_460_000L)
+                .build();
+    }
+
+    /**
+     * @param sensor           Sensor column
+     * @param hourBucketMicros Hour bucket column in microseconds since epoch
+     * @param energyTotal      Energy total column, or null
+     * @return hourlydata row
+     */
+    static GenericData.Record row(String sensor, long hourBucketMicros, Double energyTotal) {
+        return new GenericRecordBuilder(VALUE_SCHEMA)
+                .set("hour_bucket", hourBucketMicros)
+                .set("reading_count", 60L)
+                .set("sensor", sensor)
+                .set("energy_total", energyTotal)
+                .build();
+    }
+}
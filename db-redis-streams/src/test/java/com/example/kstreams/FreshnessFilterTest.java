@@ -0,0 +1,179 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+class FreshnessFilterTest {
+
+    private static final String REGISTRY_SCOPE = "freshness-filter-test";
+    private static final Map<String, String> SERDE_CONFIG = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+    /** Wall clock of the drivers: 2024-06-10 00:00:00 UTC */
+    private static final long NOW_HOUR = 477_216L;
+
+    @TempDir
+    Path stateDir;
+
+    private final SpecificAvroSerde<HourEnergy> serde = new SpecificAvroSerde<>();
+
+    @AfterEach
+    void tearDown() {
+        MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+    }
+
+    @Test
+    void liveModeKeepsTheLast24HoursOfTheWallClock() {
+        try (Filter filter = new Filter(FreshnessMode.LIVE, "live")) {
+            assertEquals(List.of(NOW_HOUR - 1), filter.pipe(NOW_HOUR - 1));
+            assertEquals(List.of(), filter.pipe(NOW_HOUR - 30));
+            assertEquals(List.of(), filter.pipe(NOW_HOUR + 2)); // In the future
+        }
+    }
+
+    @Test
+    void replayModeJudgesByTheNewestHourSeen() {
+        try (Filter filter = new Filter(FreshnessMode.REPLAY, "replay")) {
+            assertEquals(List.of(NOW_HOUR - 100), filter.pipe(NOW_HOUR - 100));
+            assertEquals(List.of(NOW_HOUR - 110), filter.pipe(NOW_HOUR - 110));
+            assertEquals(List.of(), filter.pipe(NOW_HOUR - 130)); // More than 24 hours before NOW_HOUR - 100
+        }
+    }
+
+    @Test
+    void switchesToTheWallClockOnceCaughtUp() {
+        try (Filter filter = new Filter(FreshnessMode.AUTO, "auto")) {
+            filter.pipe(NOW_HOUR);
+
+            assertEquals(List.of(), filter.pipe(NOW_HOUR - 100));
+        }
+    }
+
+    @Test
+    void eachTaskOfTheAppTopologyTracksItsOwnReferenceTime() {
+        // One topology instance, whose suppliers the tasks share as in KafkaStreams; each driver is one task
+        Topology topology = App.buildTopology(SERDE_CONFIG, new TopologySettings(HourBucketFormat.EPOCH,
+                Duration.ofMinutes(5), PunctuationType.STREAM_TIME, EmitMode.EAGER, Duration.ZERO,
+                FreshnessMode.REPLAY, Duration.ofHours(1), List.of(), Duration.ofMinutes(1),
+                StateStoreProfile.IN_MEMORY, RedisOutputMode.DOCUMENT));
+
+        try (AppTask caughtUp = new AppTask(topology, "task-a");
+                AppTask replaying = new AppTask(topology, "task-b")) {
+            assertEquals(List.of(NOW_HOUR), caughtUp.pipe("sensor_001", NOW_HOUR));
+            assertEquals(List.of(), caughtUp.pipe("sensor_002", NOW_HOUR - 100));
+
+            // A shared reference time would have switched this task to the wall clock too
+            assertEquals(List.of(NOW_HOUR - 100), replaying.pipe("sensor_002", NOW_HOUR - 100));
+        }
+    }
+
+    /**
+     * A FreshnessFilter in a topology of its own, run by TopologyTestDriver.
+     */
+    private final class Filter implements AutoCloseable {
+        private final TopologyTestDriver driver;
+        private final TestInputTopic<String, HourEnergy> input;
+        private final TestOutputTopic<String, HourEnergy> output;
+
+        Filter(FreshnessMode mode, String name) {
+            serde.configure(SERDE_CONFIG, false);
+
+            StreamsBuilder builder = new StreamsBuilder();
+            builder.stream("hours", Consumed.with(Serdes.String(), serde))
+                    .processValues(() -> new FreshnessFilter(mode, Duration.ofHours(1)))
+                    .to("fresh-hours", Produced.with(Serdes.String(), serde));
+
+            Properties props = new Properties();
+            props.put(StreamsConfig.APPLICATION_ID_CONFIG, "freshness-filter-test-" + name);
+            props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "test:9092");
+            props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve(name).toString());
+            driver = new TopologyTestDriver(builder.build(), props,
+                    Instant.ofEpochMilli(NOW_HOUR * HourlyRingBuffer.MILLIS_PER_HOUR));
+            input = driver.createInputTopic("hours", new StringSerializer(), serde.serializer());
+            output = driver.createOutputTopic("fresh-hours", new StringDeserializer(), serde.deserializer());
+        }
+
+        /**
+         * @return The hours that passed the filter
+         */
+        List<Long> pipe(long epochHour) {
+            input.pipeInput("sensor_001", new HourEnergy(1.0, "", epochHour));
+            return output.readValuesToList().stream().map(HourEnergy::getHourEpoch).toList();
+        }
+
+        @Override
+        public void close() {
+            driver.close();
+        }
+    }
+
+    /**
+     * One task of the App topology, run by TopologyTestDriver on CDC events.
+     */
+    private final class AppTask implements AutoCloseable {
+        private final TopologyTestDriver driver;
+        private final TestInputTopic<String, Object> input;
+        private final TestOutputTopic<String, RedisAggData> output;
+
+        AppTask(Topology topology, String name) {
+            Properties props = new Properties();
+            props.put(StreamsConfig.APPLICATION_ID_CONFIG, "freshness-filter-test-app");
+            props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "test:9092");
+            props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve(name).toString());
+            driver = new TopologyTestDriver(topology, props,
+                    Instant.ofEpochMilli(NOW_HOUR * HourlyRingBuffer.MILLIS_PER_HOUR));
+
+            KafkaAvroSerializer cdcSerializer = new KafkaAvroSerializer();
+            cdcSerializer.configure(SERDE_CONFIG, false);
+            SpecificAvroSerde<RedisAggData> redisSerde = new SpecificAvroSerde<>();
+            redisSerde.configure(SERDE_CONFIG, false);
+            input = driver.createInputTopic(App.SENSOR_INPUT_TOPIC, new StringSerializer(), cdcSerializer);
+            output = driver.createOutputTopic(App.SENSOR_OUTPUT_TOPIC, new StringDeserializer(),
+                    redisSerde.deserializer());
+        }
+
+        /**
+         * @return The hours of the sensor's document, or none if the event was filtered out
+         */
+        List<Long> pipe(String sensor, long epochHour) {
+            long bucketMillis = epochHour * HourlyRingBuffer.MILLIS_PER_HOUR;
+            input.pipeInput(sensor, DebeziumEvents.envelope("c",
+                    DebeziumEvents.row(sensor, bucketMillis * 1000, 1.0), null), bucketMillis);
+            List<RedisAggData> documents = output.readValuesToList();
+            return documents.isEmpty() ? List.of()
+                    : documents.get(documents.size() - 1).getData().stream().map(HourEnergy::getHourEpoch).toList();
+        }
+
+        @Override
+        public void close() {
+            driver.close();
+        }
+    }
+}
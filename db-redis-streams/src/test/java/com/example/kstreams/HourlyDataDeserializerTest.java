@@ -0,0 +1,87 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+
+class HourlyDataDeserializerTest {
+
+    private static final String REGISTRY_SCOPE = "hourly-data-deserializer-test";
+    private static final Map<String, String> SERDE_CONFIG = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+    private static final String TOPIC = App.SENSOR_INPUT_TOPIC;
+    /** 2024-06-01 14:00:00 UTC */
+    private static final long HOUR_BUCKET_MICROS = 1_717_250_400_000_000L;
+
+    private final KafkaAvroSerializer serializer = new KafkaAvroSerializer();
+    private final HourlyDataDeserializer deserializer = new HourlyDataDeserializer();
+
+    @AfterEach
+    void tearDown() {
+        MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+    }
+
+    @Test
+    void projectsTheAfterRow() {
+        byte[] event = serialize(DebeziumEvents.envelope("u", row("sensor_001", 2.5), row("sensor_001", 1.5)));
+        deserializer.configure(SERDE_CONFIG, false); // Loads the writer schema up front
+
+        assertEquals(new HourlyDataRow("sensor_001", HOUR_BUCKET_MICROS, 2.5), deserializer.deserialize(TOPIC, event));
+    }
+
+    @Test
+    void fetchesWriterSchemasRegisteredAfterConfigure() {
+        deserializer.configure(SERDE_CONFIG, false); // Subject not registered yet
+        byte[] event = serialize(DebeziumEvents.envelope("c", row("sensor_002", 4.0), null));
+
+        assertEquals(new HourlyDataRow("sensor_002", HOUR_BUCKET_MICROS, 4.0), deserializer.deserialize(TOPIC, event));
+        assertEquals(new HourlyDataRow("sensor_002", HOUR_BUCKET_MICROS, 4.0), deserializer.deserialize(TOPIC, event));
+    }
+
+    @Test
+    void mapsAMissingEnergyTotalToNaN() {
+        deserializer.configure(SERDE_CONFIG, false);
+        byte[] event = serialize(DebeziumEvents.envelope("c", row("sensor_001", null), null));
+
+        assertTrue(Double.isNaN(deserializer.deserialize(TOPIC, event).energyTotal()));
+    }
+
+    @Test
+    void deletesAndTombstonesHaveNoRow() {
+        deserializer.configure(SERDE_CONFIG, false);
+        byte[] event = serialize(DebeziumEvents.envelope("d", null, row("sensor_001", 2.5)));
+
+        assertNull(deserializer.deserialize(TOPIC, event));
+        assertNull(deserializer.deserialize(TOPIC, null));
+    }
+
+    @Test
+    void rejectsEventsItCannotDecode() {
+        deserializer.configure(SERDE_CONFIG, false);
+
+        byte[] notFramed = { 1, 0, 0, 0, 1, 2 };
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, notFramed));
+
+        byte[] unknownSchema = { 0, 0, 0, 0x7f, 0x7f, 2 };
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, unknownSchema));
+    }
+
+    private byte[] serialize(GenericData.Record envelope) {
+        serializer.configure(SERDE_CONFIG, false);
+        return serializer.serialize(TOPIC, envelope);
+    }
+
+    private static GenericData.Record row(String sensor, Double energyTotal) {
+        return DebeziumEvents.row(sensor, HOUR_BUCKET_MICROS, energyTotal);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class RollupBufferSerdeTest {
+
+    private static final String TOPIC = "rollup-daily-store-changelog";
+    /** 2024-06-01 00:00:00 UTC */
+    private static final long BASE_HOUR = 477_000L;
+
+    private final RollupBufferSerde serde = new RollupBufferSerde(RollupResolution.DAILY);
+
+    @Test
+    void roundTripsLiveHoursFrozenPeriodsAndTheDirtyMarker() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        for (long hour = BASE_HOUR; hour < BASE_HOUR + 24 * 5; hour += 5) {
+            buffer.put(hour, hour * 0.25);
+        }
+        buffer.setDirtySince(1_717_200_000_123L);
+
+        RollupBuffer restored = roundTrip(buffer);
+
+        assertEquals(buffer.frozenBefore(), restored.frozenBefore());
+        assertEquals(buffer.newestPeriod(), restored.newestPeriod());
+        assertEquals(buffer.dirtySince(), restored.dirtySince());
+        assertEquals(buffer.toRollupData(), restored.toRollupData());
+
+        // Frozen hours stay frozen, and both buffers keep freezing alike
+        assertFalse(restored.put(BASE_HOUR, 1.0));
+        buffer.put(BASE_HOUR + 24 * 6, 1.0);
+        restored.put(BASE_HOUR + 24 * 6, 1.0);
+        assertEquals(buffer.toRollupData(), restored.toRollupData());
+    }
+
+    @Test
+    void dropsPeriodsOutsideTheRetention() {
+        int retention = RollupResolution.DAILY.retention();
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 24 * (retention + 1), 2.0);
+        // Freezing the later day leaves the first one in its slot, beyond the retention
+        buffer.put(BASE_HOUR + 24 * (retention + 2), 3.0);
+        long firstDay = RollupResolution.DAILY.periodOf(BASE_HOUR);
+
+        RollupBuffer restored = roundTrip(buffer);
+
+        assertEquals(buffer.toRollupData(), restored.toRollupData());
+        assertFalse(restored.evictPeriodsBefore(firstDay + 1));
+        assertTrue(buffer.evictPeriodsBefore(firstDay + 1));
+    }
+
+    @Test
+    void roundTripsAnEmptyBuffer() {
+        RollupBuffer restored = roundTrip(new RollupBuffer(RollupResolution.DAILY));
+
+        assertTrue(restored.isEmpty());
+        assertEquals(RollupBuffer.NO_PERIOD, restored.newestPeriod());
+    }
+
+    @Test
+    void passesTombstonesThrough() {
+        assertNull(serde.serializer().serialize(TOPIC, null));
+        assertNull(serde.deserializer().deserialize(TOPIC, null));
+    }
+
+    @Test
+    void rejectsUnknownLayouts() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.freezeBefore(BASE_HOUR + 1);
+        byte[] bytes = serde.serializer().serialize(TOPIC, buffer);
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, otherVersion));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, truncated));
+    }
+
+    private RollupBuffer roundTrip(RollupBuffer buffer) {
+        return serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, buffer));
+    }
+}
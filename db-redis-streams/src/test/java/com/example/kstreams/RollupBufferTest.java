@@ -0,0 +1,119 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.avro.PeriodEnergy;
+import com.example.avro.RollupData;
+
+class RollupBufferTest {
+
+    /** 2024-06-01 00:00:00 UTC */
+    private static final long BASE_HOUR = 477_000L;
+    private static final long BASE_DAY = LocalDate.of(2024, 6, 1).toEpochDay();
+
+    @Test
+    void sumsTheLiveHoursOfEachPeriod() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        for (long hour = BASE_HOUR; hour < BASE_HOUR + 24; hour++) {
+            buffer.put(hour, 1.0);
+        }
+
+        RollupData rollup = buffer.toRollupData();
+        assertEquals("daily", rollup.getResolution().toString());
+        assertEquals(List.of(new PeriodEnergy(24.0, "2024-06-01", BASE_DAY)), rollup.getData());
+        // Nothing was frozen, but hours before the window are already final
+        assertEquals(BASE_HOUR, buffer.frozenBefore());
+        assertFalse(buffer.put(BASE_HOUR - 1, 1.0));
+    }
+
+    @Test
+    void freezesHoursLeavingTheWindowWithoutChangingTheTotals() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        for (long hour = BASE_HOUR; hour < BASE_HOUR + 24; hour++) {
+            buffer.put(hour, 1.0);
+        }
+
+        // Pushes BASE_HOUR to BASE_HOUR + 6 out of the 24-hour window
+        buffer.put(BASE_HOUR + 30, 2.0);
+
+        assertEquals(BASE_HOUR + 7, buffer.frozenBefore());
+        assertEquals(18, buffer.liveHours().size());
+        assertEquals(List.of(
+                new PeriodEnergy(24.0, "2024-06-01", BASE_DAY),
+                new PeriodEnergy(2.0, "2024-06-02", BASE_DAY + 1)),
+                buffer.toRollupData().getData());
+    }
+
+    @Test
+    void ignoresUpdatesToFrozenHours() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 30, 2.0);
+
+        assertFalse(buffer.put(BASE_HOUR, 100.0));
+        assertTrue(buffer.put(BASE_HOUR + 29, 3.0));
+        assertEquals(List.of(
+                new PeriodEnergy(1.0, "2024-06-01", BASE_DAY),
+                new PeriodEnergy(5.0, "2024-06-02", BASE_DAY + 1)),
+                buffer.toRollupData().getData());
+    }
+
+    @Test
+    void freezesHoursIntoTheirCalendarMonth() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.MONTHLY);
+        buffer.put(BASE_HOUR - 1, 4.0); // 2024-05-31 23:00
+        buffer.put(BASE_HOUR + 24, 1.0);
+
+        assertEquals(List.of(
+                new PeriodEnergy(4.0, "2024-05-01", LocalDate.of(2024, 5, 1).toEpochDay()),
+                new PeriodEnergy(1.0, "2024-06-01", BASE_DAY)),
+                buffer.toRollupData().getData());
+    }
+
+    @Test
+    void freezesHoursIntoTheirWeek() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.WEEKLY);
+        buffer.put(BASE_HOUR, 1.0); // Saturday
+        buffer.put(BASE_HOUR + 24, 2.0); // Sunday, same week
+        buffer.put(BASE_HOUR + 48, 4.0); // Monday, freezes Saturday
+
+        assertEquals(List.of(
+                new PeriodEnergy(3.0, "2024-05-27", BASE_DAY - 5),
+                new PeriodEnergy(4.0, "2024-06-03", BASE_DAY + 2)),
+                buffer.toRollupData().getData());
+    }
+
+    @Test
+    void leavesPeriodsOutsideTheRetentionOut() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 24 * RollupResolution.DAILY.retention(), 2.0);
+
+        List<PeriodEnergy> data = buffer.toRollupData().getData();
+        assertEquals(1, data.size());
+        assertEquals(BASE_DAY + RollupResolution.DAILY.retention(), data.get(0).getPeriodEpochDay());
+    }
+
+    @Test
+    void evictPeriodsBeforeRemovesOlderFrozenPeriods() {
+        RollupBuffer buffer = new RollupBuffer(RollupResolution.DAILY);
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 24, 2.0);
+        buffer.freezeBefore(BASE_HOUR + 25);
+
+        assertTrue(buffer.evictPeriodsBefore(BASE_DAY + 1));
+        assertEquals(List.of(new PeriodEnergy(2.0, "2024-06-02", BASE_DAY + 1)), buffer.toRollupData().getData());
+        assertFalse(buffer.evictPeriodsBefore(BASE_DAY + 1));
+
+        assertTrue(buffer.evictPeriodsBefore(BASE_DAY + 2));
+        assertTrue(buffer.isEmpty());
+        assertTrue(buffer.toRollupData().getData().isEmpty());
+    }
+}
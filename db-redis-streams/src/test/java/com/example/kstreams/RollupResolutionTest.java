@@ -0,0 +1,76 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class RollupResolutionTest {
+
+    /** 2024-06-01 00:00:00 UTC */
+    private static final long BASE_HOUR = 477_000L;
+    private static final long BASE_DAY = LocalDate.of(2024, 6, 1).toEpochDay();
+
+    @Test
+    void dailyPeriodsAreEpochDays() {
+        RollupResolution daily = RollupResolution.DAILY;
+
+        assertEquals(BASE_DAY, daily.periodOf(BASE_HOUR));
+        assertEquals(BASE_DAY, daily.periodOf(BASE_HOUR + 23));
+        assertEquals(BASE_DAY + 1, daily.periodOf(BASE_HOUR + 24));
+        assertEquals(BASE_DAY - 1, daily.periodOf(BASE_HOUR - 1));
+        assertEquals(BASE_DAY, daily.startDayOf(BASE_DAY));
+    }
+
+    @Test
+    void weeklyPeriodsStartOnMonday() {
+        RollupResolution weekly = RollupResolution.WEEKLY;
+        long monday = LocalDate.of(2024, 5, 27).toEpochDay(); // BASE_HOUR is a Saturday
+        long week = weekly.periodOf(BASE_HOUR);
+
+        assertEquals(monday, weekly.startDayOf(week));
+        assertEquals(week, weekly.periodOf(BASE_HOUR + 2 * 24 - 1)); // Sunday 23:00
+        assertEquals(week + 1, weekly.periodOf(BASE_HOUR + 2 * 24));
+        assertEquals(monday + 7, weekly.startDayOf(week + 1));
+        assertEquals(0, weekly.periodOf(0)); // 1970-01-01 is a Thursday of week 0
+        assertEquals(LocalDate.of(1969, 12, 29).toEpochDay(), weekly.startDayOf(0));
+    }
+
+    @Test
+    void monthlyPeriodsFollowTheCalendar() {
+        RollupResolution monthly = RollupResolution.MONTHLY;
+        long june2024 = (2024 - 1970) * 12 + 5;
+
+        assertEquals(june2024, monthly.periodOf(BASE_HOUR));
+        assertEquals(june2024, monthly.periodOf(BASE_HOUR + 30 * 24 - 1)); // 2024-06-30 23:00
+        assertEquals(june2024 + 1, monthly.periodOf(BASE_HOUR + 30 * 24));
+        assertEquals(june2024 - 1, monthly.periodOf(BASE_HOUR - 1));
+
+        assertEquals(BASE_DAY, monthly.startDayOf(june2024));
+        assertEquals(LocalDate.of(2024, 5, 1).toEpochDay(), monthly.startDayOf(june2024 - 1));
+        assertEquals(LocalDate.of(2025, 1, 1).toEpochDay(), monthly.startDayOf(june2024 + 7));
+    }
+
+    @Test
+    void periodsBeforeTheEpochRoundDown() {
+        assertEquals(-1, RollupResolution.DAILY.periodOf(-1));
+        assertEquals(-1, RollupResolution.MONTHLY.periodOf(-1));
+        assertEquals(LocalDate.of(1969, 12, 1).toEpochDay(), RollupResolution.MONTHLY.startDayOf(-1));
+    }
+
+    @Test
+    void derivesNamesFromTheLabel() {
+        assertEquals("redis.aggdata.daily", RollupResolution.DAILY.topic());
+        assertEquals("rollup-monthly-store", RollupResolution.MONTHLY.storeName());
+    }
+
+    @Test
+    void parsesNamesCaseInsensitively() {
+        assertEquals(RollupResolution.DAILY, RollupResolution.fromString(" Daily "));
+        assertEquals(RollupResolution.WEEKLY, RollupResolution.fromString("weekly"));
+        assertEquals(RollupResolution.MONTHLY, RollupResolution.fromString("MONTHLY"));
+        assertThrows(IllegalArgumentException.class, () -> RollupResolution.fromString("yearly"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.loadgen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+
+/**
+ * Publishes readings straight to mqtt.rawdata as MqttRawData records keyed
+ * by MQTT topic path, exactly as the MQTT source connector writes them.
+ *
+ * The producer is thread-safe and batches on its own, so all sensor threads
+ * share it; send only blocks when its buffer is full.
+ */
+public class KafkaReadingPublisher implements ReadingPublisher {
+  /** Topic the MQTT source connector writes to */
+  static final String MQTT_RAWDATA_TOPIC = "mqtt.rawdata";
+
+  private final KafkaProducer<String, Object> producer;
+  private final Schema schema;
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * @param settings Run settings with the Kafka and Schema Registry addresses
+   * @throws IOException if the bundled MqttRawData schema cannot be read
+   */
+  public KafkaReadingPublisher(LoadSettings settings) throws IOException {
+    try (InputStream in = KafkaReadingPublisher.class.getResourceAsStream("/avro/mqtt.rawdata-value.avsc")) {
+      this.schema = new Schema.Parser().parse(in);
+    }
+
+    Properties props = new Properties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, settings.kafkaBootstrap());
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class.getName());
+    props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, 128 * 1024);
+    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+    props.put("schema.registry.url", settings.schemaRegistryUrl());
+    this.producer = new KafkaProducer<>(props);
+  }
+
+  @Override
+  public void publish(int sensor, String name, double energy, long timestamp) {
+    GenericRecord value = new GenericData.Record(schema);
+    value.put("energy", energy);
+    value.put("timestamp", timestamp);
+    producer.send(new ProducerRecord<>(MQTT_RAWDATA_TOPIC, null, timestamp, "/sensors/" + name, value),
+        (metadata, exception) -> {
+          if (exception != null) {
+            failures.increment();
+          }
+        });
+  }
+
+  @Override
+  public long failures() {
+    return failures.sum();
+  }
+
+  @Override
+  public void close() {
+    producer.close();
+  }
+}
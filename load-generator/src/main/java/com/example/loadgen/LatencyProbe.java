@@ -0,0 +1,194 @@
+package com.example.loadgen;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+
+/**
+ * Consumes the pipeline's output topics and records when each simulated
+ * reading becomes visible there, relative to its intended send time.
+ *
+ * - db.rawdata carries one record per reading (or per micro-batch, stamped
+ *   with the start of the batch and counted once per reading in it), so its
+ *   latency is the receive time minus the record's timestamp.
+ * - redis.aggdata documents and redis.aggdelta records only carry hourly
+ *   totals. Every reading has the same energy, so a total reveals how many of
+ *   the sensor's readings in that hour are included; the readings that became
+ *   visible since the previous update are looked up in the SensorSchedule and
+ *   each is charged with its own latency.
+ *
+ * Only keys of this run's sensors are considered. Partitions are assigned
+ * and positioned at their end before the first reading is sent, so nothing
+ * is missed and earlier runs are ignored.
+ */
+public class LatencyProbe implements Runnable, AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(LatencyProbe.class);
+
+  /** Output of mqtt-db-streams with one record per reading */
+  static final String DB_RAWDATA_TOPIC = "db.rawdata";
+  /** Output of db-redis-streams with per-hour changes */
+  static final String REDIS_DELTA_TOPIC = "redis.aggdelta";
+  /** Milliseconds in one hour bucket */
+  private static final long MILLIS_PER_HOUR = 3_600_000L;
+  /** Hours per sensor for which visible reading counts are remembered */
+  private static final int TRACKED_HOURS = 3;
+  private static final DateTimeFormatter HOUR_BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final KafkaConsumer<String, Object> consumer;
+  private final SensorSchedule schedule;
+  private final double energy;
+  private final Map<String, StageLatency> stages = new LinkedHashMap<>();
+  /** Readings already visible in the hourly totals, per sensor and epoch-hour */
+  private final Map<Integer, Map<Long, Long>> visibleReadings = new HashMap<>();
+
+  private volatile boolean running = true;
+
+  /**
+   * Creates the consumer and positions it at the end of every probe topic.
+   *
+   * @param settings Run settings with the probe topics and Kafka addresses
+   * @param schedule Intended send times of the simulated sensors
+   * @param runId    Identifier of this run, used in the consumer group
+   */
+  public LatencyProbe(LoadSettings settings, SensorSchedule schedule, String runId) {
+    this.schedule = schedule;
+    this.energy = settings.energy();
+
+    Properties props = new Properties();
+    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, settings.kafkaBootstrap());
+    props.put(ConsumerConfig.GROUP_ID_CONFIG, "loadgen-probe-" + runId);
+    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    // The streams applications write with exactly-once; a reading is visible once committed
+    props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, KafkaAvroDeserializer.class.getName());
+    props.put("schema.registry.url", settings.schemaRegistryUrl());
+    this.consumer = new KafkaConsumer<>(props);
+
+    List<TopicPartition> partitions = new ArrayList<>();
+    for (String topic : settings.probeTopics()) {
+      stages.put(topic, new StageLatency(topic));
+      for (PartitionInfo partition : consumer.partitionsFor(topic)) {
+        partitions.add(new TopicPartition(topic, partition.partition()));
+      }
+    }
+    consumer.assign(partitions);
+    consumer.seekToEnd(partitions);
+    partitions.forEach(consumer::position); // Resolve the end offsets now, before readings are sent
+  }
+
+  /**
+   * @return Latency histograms per probe topic
+   */
+  public Iterable<StageLatency> stages() {
+    return stages.values();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        for (ConsumerRecord<String, Object> record : consumer.poll(Duration.ofMillis(100))) {
+          int sensor = schedule.indexOf(record.key());
+          if (sensor >= 0 && record.value() instanceof GenericRecord value) {
+            observe(record.topic(), sensor, value, System.currentTimeMillis());
+          }
+        }
+      }
+    } catch (WakeupException e) {
+      if (running) {
+        throw e;
+      }
+    } finally {
+      consumer.close();
+    }
+  }
+
+  private void observe(String topic, int sensor, GenericRecord value, long now) {
+    StageLatency stage = stages.get(topic);
+    if (DB_RAWDATA_TOPIC.equals(topic)) {
+      Object timestamp = value.get("timestamp");
+      Object readingCount = value.get("reading_count");
+      if (timestamp instanceof Long sent) {
+        stage.record(now - sent, readingCount instanceof Long count ? count : 1);
+      }
+    } else if (REDIS_DELTA_TOPIC.equals(topic)) {
+      if (!Boolean.TRUE.equals(value.get("evicted"))) {
+        observeHourTotal(stage, sensor, (Long) value.get("hour_epoch"), (Double) value.get("energy_total"), now);
+      }
+    } else if (value.get("data") instanceof List<?> hours) {
+      for (Object hour : hours) {
+        GenericRecord hourEnergy = (GenericRecord) hour;
+        observeHourTotal(stage, sensor, epochHourOf(hourEnergy), (Double) hourEnergy.get("energy_total"), now);
+      }
+    }
+  }
+
+  /**
+   * Records the latency of every reading of the hour that is included in the
+   * total for the first time.
+   */
+  private void observeHourTotal(StageLatency stage, int sensor, long epochHour, double total, long now) {
+    long included = Math.round(total / energy);
+    Map<Long, Long> hours = visibleReadings.computeIfAbsent(sensor, key -> new HashMap<>());
+    long visible = hours.getOrDefault(epochHour, 0L);
+    if (included <= visible) {
+      return;
+    }
+
+    long hourStart = epochHour * MILLIS_PER_HOUR;
+    long firstReading = schedule.firstReadingAtOrAfter(sensor, hourStart);
+    for (long n = visible; n < included; n++) {
+      long intended = schedule.intendedTime(sensor, firstReading + n);
+      if (intended >= hourStart + MILLIS_PER_HOUR) {
+        break; // More readings than this run sent in the hour; not ours
+      }
+      stage.record(now - intended);
+    }
+
+    hours.put(epochHour, included);
+    hours.keySet().removeIf(hour -> hour <= epochHour - TRACKED_HOURS);
+  }
+
+  private static long epochHourOf(GenericRecord hourEnergy) {
+    Object hourEpoch = hourEnergy.get("hour_epoch");
+    if (hourEpoch instanceof Long epochHour && epochHour != 0) {
+      return epochHour;
+    }
+    LocalDateTime hourBucket = LocalDateTime.parse(hourEnergy.get("hour_bucket").toString(), HOUR_BUCKET_FORMAT);
+    return hourBucket.toEpochSecond(ZoneOffset.UTC) / 3600;
+  }
+
+  /**
+   * Stops the probe; the polling thread closes the consumer on its way out.
+   */
+  @Override
+  public void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    consumer.wakeup();
+    logger.info("Latency probe stopped");
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.loadgen;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load generator simulating large sensor fleets and measuring end-to-end
+ * latency through the pipeline.
+ *
+ * Each simulated sensor runs on its own virtual thread and sends a reading
+ * at every intended send time of its SensorSchedule, so fleets of 50k+
+ * sensors need no more than a few carrier threads. Readings go to the MQTT
+ * broker or straight to mqtt.rawdata (LOADGEN_TARGET=mqtt|kafka) and carry
+ * their intended send time as timestamp. A LatencyProbe awaits them on
+ * db.rawdata and redis.aggdata (LOADGEN_PROBE_TOPICS) and records latencies
+ * against that intended time, which accounts for coordinated omission.
+ *
+ * Every LOADGEN_REPORT_INTERVAL_SECONDS an interval summary of the send lag
+ * (actual minus intended send time, i.e. how far the generator itself falls
+ * behind) and of each probe topic is printed; after LOADGEN_DURATION_SECONDS
+ * of sending and LOADGEN_DRAIN_SECONDS of waiting for stragglers, the full
+ * percentile distributions follow.
+ *
+ * Notes for interpreting the results:
+ * - All readings have the same energy (LOADGEN_ENERGY) so hourly totals can
+ *   be decoded into reading counts; statistics downstream are flat.
+ * - redis.aggdata latency includes the continuous aggregate refresh policy in
+ *   TimescaleDB, which usually dominates it.
+ * - With MICRO_BATCH_INTERVAL_SECONDS > 0, db.rawdata latency is measured
+ *   from the start of each batch.
+ */
+public class LoadGenerator {
+  private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+  public static void main(String[] args) throws Exception {
+    String runId = Long.toString(System.currentTimeMillis(), 36);
+    LoadSettings settings = LoadSettings.fromEnvironment(runId);
+    logger.info("Starting load generator run {}: {} sensors every {} ms ({} readings/s) to {} for {}", runId,
+        settings.sensors(), settings.interval().toMillis(), Math.round(settings.readingsPerSecond()),
+        settings.target(), settings.duration());
+
+    // Start one interval from now so every connection and the probe are ready
+    long startMillis = System.currentTimeMillis() + settings.interval().toMillis();
+    long endMillis = startMillis + settings.duration().toMillis();
+    SensorSchedule schedule = new SensorSchedule(settings.sensorPrefix(), settings.sensors(), startMillis,
+        settings.interval().toMillis());
+
+    StageLatency sendLag = new StageLatency("send lag");
+    LongAdder sent = new LongAdder();
+    LongAdder errors = new LongAdder();
+
+    try (ReadingPublisher publisher = settings.target() == PublishTarget.MQTT
+        ? new MqttReadingPublisher(settings, runId)
+        : new KafkaReadingPublisher(settings);
+        LatencyProbe probe = new LatencyProbe(settings, schedule, runId)) {
+      Thread probeThread = Thread.ofPlatform().name("latency-probe").start(probe);
+
+      ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+      long reportMillis = settings.reportInterval().toMillis();
+      reporter.scheduleAtFixedRate(() -> {
+        System.out.printf("%,d readings sent, %,d errors%n", sent.sum(), errors.sum() + publisher.failures());
+        sendLag.reportInterval(System.out);
+        probe.stages().forEach(stage -> stage.reportInterval(System.out));
+      }, reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+
+      try (ExecutorService sensors = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int sensor = 0; sensor < settings.sensors(); sensor++) {
+          int index = sensor;
+          sensors.submit(() -> runSensor(index, schedule, endMillis, settings.energy(), publisher, sendLag, sent,
+              errors));
+        }
+      } // Waits for every sensor to send its last reading
+
+      logger.info("Sent {} readings; measuring latency for another {}", sent.sum(), settings.drain());
+      Thread.sleep(settings.drain().toMillis());
+
+      reporter.shutdown();
+      reporter.awaitTermination(Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS);
+      probe.close();
+      probeThread.join();
+
+      sendLag.reportInterval(System.out);
+      probe.stages().forEach(stage -> stage.reportInterval(System.out));
+      sendLag.reportTotal(System.out);
+      probe.stages().forEach(stage -> stage.reportTotal(System.out));
+      System.out.printf("%nRun %s: %,d readings sent, %,d errors%n", runId, sent.sum(),
+          errors.sum() + publisher.failures());
+    }
+  }
+
+  /**
+   * Sends one sensor's readings at their intended times until the end of the
+   * run. Sleeping is cheap on a virtual thread; if the thread falls behind,
+   * overdue readings are sent immediately with their original intended time.
+   */
+  private static void runSensor(int sensor, SensorSchedule schedule, long endMillis, double energy,
+      ReadingPublisher publisher, StageLatency sendLag, LongAdder sent, LongAdder errors) {
+    String name = schedule.nameOf(sensor);
+    try {
+      for (long k = 0;; k++) {
+        long intended = schedule.intendedTime(sensor, k);
+        if (intended >= endMillis) {
+          return;
+        }
+        long wait = intended - System.currentTimeMillis();
+        if (wait > 0) {
+          Thread.sleep(wait);
+        }
+
+        try {
+          publisher.publish(sensor, name, energy, intended);
+          sent.increment();
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Exception e) {
+          errors.increment();
+          logger.debug("Sensor {} failed to send a reading", name, e);
+        }
+        sendLag.record(System.currentTimeMillis() - intended);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
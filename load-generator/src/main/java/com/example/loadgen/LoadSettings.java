@@ -0,0 +1,94 @@
+package com.example.loadgen;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings of a load generator run.
+ *
+ * @param target             Where readings are published
+ * @param sensors            Number of simulated sensors
+ * @param interval           Interval between two readings of the same sensor
+ * @param duration           How long readings are published
+ * @param drain              How long latencies are still measured after the last reading
+ * @param reportInterval     How often interval histograms are printed
+ * @param sensorPrefix       Prefix of the simulated sensor names, unique per run
+ * @param energy             Energy of every reading; constant so hourly totals reveal reading counts
+ * @param probeTopics        Topics on which readings are awaited to measure latency
+ * @param mqttUri            MQTT broker URI
+ * @param mqttUser           MQTT user name, or empty for anonymous access
+ * @param mqttPassword       MQTT password
+ * @param mqttConnections    Number of MQTT connections the sensors are spread over
+ * @param mqttQos            MQTT quality of service of every reading
+ * @param mqttMaxInflight    Maximum unacknowledged QoS 1 messages per connection
+ * @param kafkaBootstrap     Comma-separated list of Kafka broker addresses
+ * @param schemaRegistryUrl  URL of the Confluent Schema Registry service
+ */
+public record LoadSettings(
+    PublishTarget target,
+    int sensors,
+    Duration interval,
+    Duration duration,
+    Duration drain,
+    Duration reportInterval,
+    String sensorPrefix,
+    double energy,
+    List<String> probeTopics,
+    String mqttUri,
+    String mqttUser,
+    String mqttPassword,
+    int mqttConnections,
+    int mqttQos,
+    int mqttMaxInflight,
+    String kafkaBootstrap,
+    String schemaRegistryUrl) {
+
+  /**
+   * Loads the settings from environment variables with fallback defaults.
+   *
+   * @param runId Identifier of this run, used in the default sensor prefix
+   * @return Settings for the run
+   */
+  public static LoadSettings fromEnvironment(String runId) {
+    return new LoadSettings(
+        PublishTarget.fromString(System.getenv().getOrDefault("LOADGEN_TARGET", "mqtt")),
+        Integer.parseInt(System.getenv().getOrDefault("LOADGEN_SENSORS", "1000")),
+        Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("LOADGEN_INTERVAL_MS", "1000"))),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("LOADGEN_DURATION_SECONDS", "300"))),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("LOADGEN_DRAIN_SECONDS", "120"))),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("LOADGEN_REPORT_INTERVAL_SECONDS", "10"))),
+        System.getenv().getOrDefault("LOADGEN_SENSOR_PREFIX", "loadgen-" + runId + "-"),
+        Double.parseDouble(System.getenv().getOrDefault("LOADGEN_ENERGY", "1.0")),
+        parseTopics(System.getenv().getOrDefault("LOADGEN_PROBE_TOPICS", "db.rawdata,redis.aggdata")),
+        System.getenv().getOrDefault("LOADGEN_MQTT_URI", "tcp://mqtt:1883"),
+        System.getenv().getOrDefault("MQTT_USER", ""),
+        System.getenv().getOrDefault("MQTT_PASSWORD", ""),
+        Integer.parseInt(System.getenv().getOrDefault("LOADGEN_MQTT_CONNECTIONS", "8")),
+        Integer.parseInt(System.getenv().getOrDefault("LOADGEN_MQTT_QOS", "1")),
+        Integer.parseInt(System.getenv().getOrDefault("LOADGEN_MQTT_MAX_INFLIGHT", "1000")),
+        System.getenv().getOrDefault("KAKFA_BOOTSTRAP", "broker:29092"),
+        System.getenv().getOrDefault("KAFKA_SCHEMA_REGISTRY", "http://schema-registry:8081"));
+  }
+
+  /**
+   * @return Readings per second over all sensors
+   */
+  public double readingsPerSecond() {
+    return sensors * 1000.0 / interval.toMillis();
+  }
+
+  /**
+   * Parses a comma-separated list of topic names.
+   *
+   * @param value Topic names (e.g., "db.rawdata,redis.aggdata"), or an empty string
+   * @return The distinct topics in the given order
+   */
+  static List<String> parseTopics(String value) {
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .distinct()
+        .toList();
+  }
+}
@@ -0,0 +1,112 @@
+package com.example.loadgen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes readings to the MQTT broker in the same JSON format as the Python
+ * producer, on /sensors/{sensor}.
+ *
+ * Opening one connection per sensor does not scale to tens of thousands of
+ * sensors, so the sensors share a small pool of asynchronous connections
+ * (sensor index modulo pool size). When a connection's in-flight window is
+ * full, the publishing virtual thread waits until an acknowledgement frees a
+ * slot; the wait shows up as send lag and, since latencies are measured from
+ * the intended send time, in the end-to-end histograms.
+ */
+public class MqttReadingPublisher implements ReadingPublisher {
+  private static final Logger logger = LoggerFactory.getLogger(MqttReadingPublisher.class);
+
+  /** Pause before retrying a publish on a full in-flight window */
+  private static final long INFLIGHT_BACKOFF_MS = 1;
+  /** How long close waits for outstanding acknowledgements */
+  private static final long DISCONNECT_QUIESCE_MS = 10_000;
+
+  private final MqttAsyncClient[] clients;
+  private final int qos;
+  private final LongAdder failures = new LongAdder();
+  private final IMqttActionListener deliveryListener = new IMqttActionListener() {
+    @Override
+    public void onSuccess(IMqttToken token) {
+    }
+
+    @Override
+    public void onFailure(IMqttToken token, Throwable exception) {
+      failures.increment();
+    }
+  };
+
+  /**
+   * Connects the pool.
+   *
+   * @param settings Run settings with the broker URI, credentials and pool size
+   * @param runId    Identifier of this run, used in the client IDs
+   * @throws MqttException if a connection cannot be established
+   */
+  public MqttReadingPublisher(LoadSettings settings, String runId) throws MqttException {
+    this.qos = settings.mqttQos();
+    this.clients = new MqttAsyncClient[settings.mqttConnections()];
+
+    MqttConnectOptions options = new MqttConnectOptions();
+    options.setCleanSession(true);
+    options.setAutomaticReconnect(true);
+    options.setMaxInflight(settings.mqttMaxInflight());
+    if (!settings.mqttUser().isEmpty()) {
+      options.setUserName(settings.mqttUser());
+      options.setPassword(settings.mqttPassword().toCharArray());
+    }
+
+    for (int i = 0; i < clients.length; i++) {
+      clients[i] = new MqttAsyncClient(settings.mqttUri(), "loadgen-" + runId + "-" + i, new MemoryPersistence());
+      clients[i].connect(options).waitForCompletion();
+    }
+    logger.info("Connected {} MQTT clients to {}", clients.length, settings.mqttUri());
+  }
+
+  @Override
+  public void publish(int sensor, String name, double energy, long timestamp) throws Exception {
+    MqttMessage message = new MqttMessage(String.format(Locale.ROOT, "{\"energy\": %s, \"timestamp\": %d}",
+        energy, timestamp).getBytes(StandardCharsets.UTF_8));
+    message.setQos(qos);
+
+    MqttAsyncClient client = clients[sensor % clients.length];
+    while (true) {
+      try {
+        client.publish("/sensors/" + name, message, null, deliveryListener);
+        return;
+      } catch (MqttException e) {
+        if (e.getReasonCode() != MqttException.REASON_CODE_MAX_INFLIGHT
+            && e.getReasonCode() != MqttException.REASON_CODE_CLIENT_NOT_CONNECTED) {
+          throw e;
+        }
+        Thread.sleep(INFLIGHT_BACKOFF_MS);
+      }
+    }
+  }
+
+  @Override
+  public long failures() {
+    return failures.sum();
+  }
+
+  @Override
+  public void close() throws MqttException {
+    for (MqttAsyncClient client : clients) {
+      if (client.isConnected()) {
+        client.disconnect(DISCONNECT_QUIESCE_MS).waitForCompletion();
+      }
+      client.close();
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.loadgen;
+
+/**
+ * Where the load generator publishes its readings.
+ */
+public enum PublishTarget {
+  /**
+   * The MQTT broker, on /sensors/{sensor} like real sensors; exercises the
+   * MQTT source connector as well as the streams applications.
+   */
+  MQTT,
+  /**
+   * The mqtt.rawdata topic directly, keyed by MQTT topic path like the
+   * connector's records; bypasses the broker and the connector to load the
+   * streams applications beyond what a single connector task can deliver.
+   */
+  KAFKA;
+
+  /**
+   * Parses a target name case-insensitively.
+   *
+   * @param value Target name (e.g., "mqtt" or "kafka")
+   * @return The matching target
+   * @throws IllegalArgumentException if the name is unknown
+   */
+  public static PublishTarget fromString(String value) {
+    return valueOf(value.trim().toUpperCase());
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.loadgen;
+
+/**
+ * Sends simulated readings to the pipeline.
+ *
+ * Implementations are called concurrently from one virtual thread per
+ * sensor and may block while their transport applies back pressure.
+ */
+public interface ReadingPublisher extends AutoCloseable {
+
+  /**
+   * Publishes one reading.
+   *
+   * @param sensor    Sensor index
+   * @param name      Sensor name
+   * @param energy    Energy reading
+   * @param timestamp Intended send time in milliseconds since epoch
+   * @throws Exception if the reading could not be handed to the transport
+   */
+  void publish(int sensor, String name, double energy, long timestamp) throws Exception;
+
+  /**
+   * @return Number of readings whose delivery failed asynchronously
+   */
+  long failures();
+
+  /**
+   * Flushes pending readings and disconnects.
+   */
+  @Override
+  void close() throws Exception;
+}
@@ -0,0 +1,86 @@
+package com.example.loadgen;
+
+/**
+ * Intended send times of every simulated sensor.
+ *
+ * Sensor s sends reading k at start + offset(s) + k * interval, with the
+ * offsets spread evenly over one interval so the fleet produces a steady
+ * rate instead of one burst per interval. Readings carry their intended send
+ * time as their timestamp and latencies are measured from it, never from the
+ * moment the generator actually got around to sending: if the generator or
+ * the broker stalls, the readings that should have been sent meanwhile are
+ * charged with the stall, so the histograms do not suffer from coordinated
+ * omission.
+ */
+public class SensorSchedule {
+  private final String sensorPrefix;
+  private final int sensors;
+  private final long startMillis;
+  private final long intervalMillis;
+
+  /**
+   * @param sensorPrefix   Prefix of the sensor names
+   * @param sensors        Number of sensors
+   * @param startMillis    Wall-clock time of the first reading
+   * @param intervalMillis Interval between two readings of the same sensor
+   */
+  public SensorSchedule(String sensorPrefix, int sensors, long startMillis, long intervalMillis) {
+    this.sensorPrefix = sensorPrefix;
+    this.sensors = sensors;
+    this.startMillis = startMillis;
+    this.intervalMillis = intervalMillis;
+  }
+
+  /**
+   * @param sensor Sensor index in [0, sensors)
+   * @return Name of the sensor (e.g., "loadgen-abc123-000042")
+   */
+  public String nameOf(int sensor) {
+    return sensorPrefix + String.format("%06d", sensor);
+  }
+
+  /**
+   * @param name Sensor name
+   * @return Sensor index, or -1 if the name does not belong to this run
+   */
+  public int indexOf(String name) {
+    if (name == null || !name.startsWith(sensorPrefix)) {
+      return -1;
+    }
+    try {
+      int sensor = Integer.parseInt(name, sensorPrefix.length(), name.length(), 10);
+      return sensor < sensors ? sensor : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * @param sensor Sensor index
+   * @param k      Reading number, starting at 0
+   * @return Intended send time of the reading in milliseconds since epoch
+   */
+  public long intendedTime(int sensor, long k) {
+    return startMillis + offsetOf(sensor) + k * intervalMillis;
+  }
+
+  /**
+   * @param sensor Sensor index
+   * @param time   Wall-clock time in milliseconds since epoch
+   * @return Number of the sensor's first reading intended at or after the time
+   */
+  public long firstReadingAtOrAfter(int sensor, long time) {
+    return Math.max(0, Math.ceilDiv(time - startMillis - offsetOf(sensor), intervalMillis));
+  }
+
+  /**
+   * @return Number of sensors
+   */
+  public int sensors() {
+    return sensors;
+  }
+
+  private long offsetOf(int sensor) {
+    return sensor * intervalMillis / sensors;
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.loadgen;
+
+import java.io.PrintStream;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram of one pipeline stage, in milliseconds.
+ *
+ * Values are recorded into an HdrHistogram Recorder, which any thread can
+ * write without locking. The reporter swaps out an interval histogram at
+ * every report and adds it to the total for the final summary.
+ */
+public class StageLatency {
+  /** Highest latency tracked; larger values are clamped */
+  private static final long MAX_LATENCY_MS = 3_600_000;
+  /** Significant decimal digits kept per value */
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final String name;
+  private final Recorder recorder = new Recorder(MAX_LATENCY_MS, SIGNIFICANT_DIGITS);
+  private final Histogram total = new Histogram(MAX_LATENCY_MS, SIGNIFICANT_DIGITS);
+  private Histogram interval;
+
+  /**
+   * @param name Stage name used in reports (e.g., "db.rawdata")
+   */
+  public StageLatency(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Records one latency.
+   *
+   * @param latencyMs Latency in milliseconds; negative values count as zero
+   */
+  public void record(long latencyMs) {
+    recorder.recordValue(Math.min(MAX_LATENCY_MS, Math.max(0, latencyMs)));
+  }
+
+  /**
+   * Records the same latency for several readings.
+   *
+   * @param latencyMs Latency in milliseconds; negative values count as zero
+   * @param count     Number of readings
+   */
+  public void record(long latencyMs, long count) {
+    recorder.recordValueWithCount(Math.min(MAX_LATENCY_MS, Math.max(0, latencyMs)), count);
+  }
+
+  /**
+   * Prints the latencies recorded since the previous report on one line and
+   * adds them to the total.
+   *
+   * @param out Destination of the report
+   */
+  public void reportInterval(PrintStream out) {
+    interval = recorder.getIntervalHistogram(interval);
+    total.add(interval);
+    out.printf("  %-16s %,10d readings  p50 %,7d ms  p99 %,7d ms  p99.9 %,7d ms  max %,7d ms%n", name,
+        interval.getTotalCount(), interval.getValueAtPercentile(50), interval.getValueAtPercentile(99),
+        interval.getValueAtPercentile(99.9), interval.getMaxValue());
+  }
+
+  /**
+   * Prints the percentile distribution of the whole run.
+   *
+   * @param out Destination of the report
+   */
+  public void reportTotal(PrintStream out) {
+    out.printf("%n=== %s: %,d readings ===%n", name, total.getTotalCount());
+    if (total.getTotalCount() > 0) {
+      total.outputPercentileDistribution(out, 1.0);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package com.example.kstreams;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KeyValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.avro.DbRawData;
+import com.example.avro.MqttRawData;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * JMH benchmarks for the per-record hot paths of the MQTT to Database
+ * application.
+ *
+ * Every benchmark processes exactly one record per operation, so the
+ * throughput score is records per second and, when run with the GC profiler,
+ * gc.alloc.rate.norm is the number of bytes allocated per record:
+ *
+ * mvn -Pbenchmark package
+ * java -jar target/mqtt-db-streams-1.0-SNAPSHOT-benchmarks.jar -prof gc
+ *
+ * Inputs are generated up front for sensorCount sensors, keyed by MQTT topic
+ * path as the source connector produces them, and cycled through. The
+ * timestampDistribution parameter controls the reading timestamps:
+ * - present  every reading carries its own timestamp
+ * - missing  one reading in ten has no timestamp and falls back to the
+ *            current time
+ *
+ * Avro serdes talk to an in-memory mock Schema Registry, so the numbers
+ * include framing and schema lookup but no network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttDbStreamsBenchmark {
+
+  /** Number of pre-generated input records cycled through by each benchmark */
+  private static final int INPUT_COUNT = 1 << 14;
+  private static final String REGISTRY_SCOPE = "mqtt-db-streams-benchmark";
+
+  @Param({ "100", "10000" })
+  public int sensorCount;
+
+  @Param({ "present", "missing" })
+  public String timestampDistribution;
+
+  private String[] keys;
+  private MqttRawData[] readings;
+  private DbRawData[] dbReadings;
+  private byte[][] readingBytes;
+  private byte[][] dbReadingBytes;
+  private int next;
+
+  private Serializer<MqttRawData> mqttSerializer;
+  private Deserializer<MqttRawData> mqttDeserializer;
+  private Serializer<DbRawData> dbSerializer;
+  private Deserializer<DbRawData> dbDeserializer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Map<String, String> serdeConfig = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+
+    SpecificAvroSerde<MqttRawData> mqttSerde = new SpecificAvroSerde<>();
+    mqttSerde.configure(serdeConfig, false);
+    mqttSerializer = mqttSerde.serializer();
+    mqttDeserializer = mqttSerde.deserializer();
+
+    SpecificAvroSerde<DbRawData> dbSerde = new SpecificAvroSerde<>();
+    dbSerde.configure(serdeConfig, false);
+    dbSerializer = dbSerde.serializer();
+    dbDeserializer = dbSerde.deserializer();
+
+    long now = System.currentTimeMillis();
+    SplittableRandom random = new SplittableRandom(42);
+
+    keys = new String[INPUT_COUNT];
+    readings = new MqttRawData[INPUT_COUNT];
+    dbReadings = new DbRawData[INPUT_COUNT];
+    readingBytes = new byte[INPUT_COUNT][];
+    dbReadingBytes = new byte[INPUT_COUNT][];
+    for (int i = 0; i < INPUT_COUNT; i++) {
+      String sensor = "sensor_" + random.nextInt(sensorCount);
+      boolean hasTimestamp = !"missing".equals(timestampDistribution) || i % 10 != 0;
+      Long timestamp = hasTimestamp ? now - random.nextLong(60_000) : null;
+
+      keys[i] = "/sensors/" + sensor;
+      readings[i] = new MqttRawData(random.nextDouble(0.0, 5.0), timestamp);
+      dbReadings[i] = new DbRawData(sensor, readings[i].getEnergy(), timestamp == null ? now : timestamp, 1L);
+      readingBytes[i] = mqttSerializer.serialize(MqttDbStreamsApp.MQTT_INPUT_TOPIC, readings[i]);
+      dbReadingBytes[i] = dbSerializer.serialize(MqttDbStreamsApp.DB_OUTPUT_TOPIC, dbReadings[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+  }
+
+  private int nextIndex() {
+    int index = next;
+    next = (index + 1) & (INPUT_COUNT - 1);
+    return index;
+  }
+
+  @Benchmark
+  public String extractSensorFromKey() {
+    return MqttDbStreamsApp.extractSensorFromKey(keys[nextIndex()]);
+  }
+
+  @Benchmark
+  public KeyValue<String, DbRawData> dbRawKeyValueMapper() {
+    int index = nextIndex();
+    return MqttDbStreamsApp.dbRawKeyValueMapper.apply(keys[index], readings[index]);
+  }
+
+  /**
+   * The full per-record path from MQTT bytes to database bytes.
+   */
+  @Benchmark
+  public byte[] endToEnd() {
+    int index = nextIndex();
+    MqttRawData reading = mqttDeserializer.deserialize(MqttDbStreamsApp.MQTT_INPUT_TOPIC, readingBytes[index]);
+    KeyValue<String, DbRawData> mapped = MqttDbStreamsApp.dbRawKeyValueMapper.apply(keys[index], reading);
+    return dbSerializer.serialize(MqttDbStreamsApp.DB_OUTPUT_TOPIC, mapped.value);
+  }
+
+  @Benchmark
+  public MqttRawData mqttSpecificDeserialize() {
+    return mqttDeserializer.deserialize(MqttDbStreamsApp.MQTT_INPUT_TOPIC, readingBytes[nextIndex()]);
+  }
+
+  @Benchmark
+  public MqttRawData mqttSpecificRoundTrip() {
+    byte[] bytes = mqttSerializer.serialize(MqttDbStreamsApp.MQTT_INPUT_TOPIC, readings[nextIndex()]);
+    return mqttDeserializer.deserialize(MqttDbStreamsApp.MQTT_INPUT_TOPIC, bytes);
+  }
+
+  @Benchmark
+  public byte[] dbSpecificSerialize() {
+    return dbSerializer.serialize(MqttDbStreamsApp.DB_OUTPUT_TOPIC, dbReadings[nextIndex()]);
+  }
+
+  @Benchmark
+  public DbRawData dbSpecificDeserialize() {
+    return dbDeserializer.deserialize(MqttDbStreamsApp.DB_OUTPUT_TOPIC, dbReadingBytes[nextIndex()]);
+  }
+}
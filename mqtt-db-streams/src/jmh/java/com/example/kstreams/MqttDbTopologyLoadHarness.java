@@ -0,0 +1,157 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+
+import com.example.avro.MqttRawData;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+/**
+ * Load harness that pushes synthetic MQTT readings through the full MQTT to
+ * Database topology with TopologyTestDriver, without brokers, and reports
+ * throughput and heap usage for instance sizing.
+ *
+ * Usage:
+ * java -cp target/mqtt-db-streams-1.0-SNAPSHOT-benchmarks.jar \
+ *     com.example.kstreams.MqttDbTopologyLoadHarness [sensors] [hours] [intervalSeconds]
+ *
+ * Defaults to 100 sensors reporting every second for 24 hours, i.e. 8.64
+ * million readings (insert-one-year-data.sh uses the same one-second rate).
+ * Topology settings are read from the same environment variables as the
+ * application, e.g. HOURLY_AGGREGATION_ENABLED=true or
+ * MICRO_BATCH_INTERVAL_SECONDS=10 to include those branches.
+ *
+ * Records go through the real Avro serdes (mock Schema Registry), the
+ * repartition round trips and RocksDB-backed state stores; only the network
+ * and the broker are missing.
+ */
+public class MqttDbTopologyLoadHarness {
+
+  private static final String REGISTRY_SCOPE = "mqtt-db-streams-harness";
+  /** Progress is printed every this many input records */
+  private static final long REPORT_EVERY = 1_000_000;
+
+  public static void main(String[] args) throws IOException {
+    int sensors = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int hours = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+    int intervalSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+    TopologySettings settings = TopologySettings.fromEnvironment();
+    System.out.printf("Replaying %d sensors x %d hours every %d s with %s%n",
+        sensors, hours, intervalSeconds, settings);
+
+    Map<String, String> serdeConfig = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+    Path stateDir = Files.createTempDirectory("mqtt-db-streams-harness");
+    Properties props = new Properties();
+    props.put(StreamsConfig.APPLICATION_ID_CONFIG, "mqtt-db-streams-harness");
+    props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "harness:9092");
+    props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+
+    SpecificAvroSerde<MqttRawData> mqttSerde = new SpecificAvroSerde<>();
+    mqttSerde.configure(serdeConfig, false);
+    String[] keys = new String[sensors];
+    for (int sensor = 0; sensor < sensors; sensor++) {
+      keys[sensor] = "/sensors/sensor_" + sensor;
+    }
+    MqttRawData reading = new MqttRawData();
+
+    long startMillis = System.currentTimeMillis() - hours * 3_600_000L;
+    long endMillis = startMillis + hours * 3_600_000L;
+    long stepMillis = intervalSeconds * 1000L;
+    SplittableRandom random = new SplittableRandom(42);
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    long records = 0;
+    long outputs = 0;
+    long peakHeap = 0;
+    long startNanos = System.nanoTime();
+    long intervalNanos = startNanos;
+    long intervalRecords = 0;
+
+    try (TopologyTestDriver driver = new TopologyTestDriver(MqttDbStreamsApp.buildTopology(serdeConfig, settings),
+        props, Instant.ofEpochMilli(startMillis))) {
+      TestInputTopic<String, MqttRawData> input = driver.createInputTopic(MqttDbStreamsApp.MQTT_INPUT_TOPIC,
+          new StringSerializer(), mqttSerde.serializer());
+      TestOutputTopic<byte[], byte[]> dbOutput = driver.createOutputTopic(MqttDbStreamsApp.DB_OUTPUT_TOPIC,
+          new ByteArrayDeserializer(), new ByteArrayDeserializer());
+      TestOutputTopic<byte[], byte[]> redisOutput = settings.hourlyAggregationEnabled()
+          ? driver.createOutputTopic(MqttDbStreamsApp.REDIS_OUTPUT_TOPIC, new ByteArrayDeserializer(),
+              new ByteArrayDeserializer())
+          : null;
+      TestOutputTopic<byte[], byte[]> catalogOutput = settings.catalogEnabled()
+          ? driver.createOutputTopic(MqttDbStreamsApp.CATALOG_OUTPUT_TOPIC, new ByteArrayDeserializer(),
+              new ByteArrayDeserializer())
+          : null;
+      TestOutputTopic<byte[], byte[]> statsOutput = settings.statsEnabled()
+          ? driver.createOutputTopic(MqttDbStreamsApp.STATS_OUTPUT_TOPIC, new ByteArrayDeserializer(),
+              new ByteArrayDeserializer())
+          : null;
+
+      for (long timestamp = startMillis; timestamp < endMillis; timestamp += stepMillis) {
+        for (int sensor = 0; sensor < sensors; sensor++) {
+          reading.setEnergy(random.nextDouble(5.0, 15.0));
+          reading.setTimestamp(timestamp);
+          input.pipeInput(keys[sensor], reading, timestamp);
+          records++;
+
+          if (records % REPORT_EVERY == 0) {
+            long now = System.nanoTime();
+            long heap = memory.getHeapMemoryUsage().getUsed();
+            peakHeap = Math.max(peakHeap, heap);
+            System.out.printf("%,d records, %,.0f records/sec, heap used %,d MB%n", records,
+                (records - intervalRecords) / ((now - intervalNanos) / 1e9), heap >> 20);
+            intervalNanos = now;
+            intervalRecords = records;
+          }
+        }
+        outputs += dbOutput.readValuesToList().size();
+        if (redisOutput != null) {
+          outputs += redisOutput.readValuesToList().size();
+        }
+        if (statsOutput != null) {
+          outputs += statsOutput.readValuesToList().size();
+        }
+        if (catalogOutput != null) {
+          outputs += catalogOutput.readValuesToList().size();
+        }
+      }
+
+      double seconds = (System.nanoTime() - startNanos) / 1e9;
+      System.gc();
+      long retainedHeap = memory.getHeapMemoryUsage().getUsed();
+      System.out.printf("Processed %,d records in %.1f s: %,.0f records/sec, %,d output records%n",
+          records, seconds, records / seconds, outputs);
+      System.out.printf("Heap: peak sampled %,d MB, retained after GC %,d MB; state directory %,d MB%n",
+          peakHeap >> 20, retainedHeap >> 20, directorySize(stateDir) >> 20);
+      System.out.printf("Dropped records: %s%n", MqttDbStreamsApp.metrics.getDroppedRecords());
+    } finally {
+      MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+    }
+  }
+
+  /**
+   * @return Total size in bytes of the regular files below the directory
+   */
+  static long directorySize(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.kstreams;
+
+import java.util.Set;
+
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+
+import com.example.avro.DbRawData;
+
+/**
+ * Sub-keys for the readings of hot sensors in the hourly aggregation branch.
+ *
+ * A hot sensor's readings are spread over fanout shards keyed sensor#shard,
+ * so its hourly sums are computed as partial sums in up to fanout tasks
+ * instead of all in the one task owning the sensor. Other sensors keep their
+ * plain key. '#' cannot occur in a sensor name, as MQTT does not allow it in
+ * topic names, so the shard suffix is unambiguous.
+ *
+ * The shard is derived from the reading's timestamp, not chosen at random, so
+ * a reading lands in the same shard when it is reprocessed.
+ */
+public class HotSensorKeys implements KeyValueMapper<String, DbRawData, String> {
+  /** Separator between the sensor name and the shard number */
+  static final char SEPARATOR = '#';
+  /** Shard number of a sensor that is not sub-keyed */
+  static final int UNSHARDED = -1;
+  /** Multiplier of Fibonacci hashing, to spread evenly spaced timestamps */
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final Set<String> hotSensors;
+  private final int fanout;
+
+  /**
+   * @param hotSensors Names of the sensors to sub-key
+   * @param fanout     Number of shards per hot sensor
+   */
+  public HotSensorKeys(Set<String> hotSensors, int fanout) {
+    if (fanout < 2) {
+      throw new IllegalArgumentException("HOT_SENSOR_FANOUT must be at least 2: " + fanout);
+    }
+    this.hotSensors = Set.copyOf(hotSensors);
+    this.fanout = fanout;
+  }
+
+  /**
+   * @return sensor#shard for readings of a hot sensor, the sensor otherwise
+   */
+  @Override
+  public String apply(String sensor, DbRawData reading) {
+    if (!hotSensors.contains(sensor)) {
+      return sensor;
+    }
+    long timestamp = reading.getTimestamp() == null ? 0L : reading.getTimestamp();
+    // Readings arrive at regular intervals, so take the well-mixed high bits instead of timestamp % fanout
+    int shard = (int) (((timestamp * GOLDEN_RATIO) >>> 32) % fanout);
+    return sensor + SEPARATOR + shard;
+  }
+
+  /**
+   * @param key Sub-key or plain sensor key
+   * @return The sensor the key belongs to
+   */
+  static String sensorOf(String key) {
+    int separator = key.lastIndexOf(SEPARATOR);
+    return separator < 0 ? key : key.substring(0, separator);
+  }
+
+  /**
+   * @param key Sub-key or plain sensor key
+   * @return The shard number, or UNSHARDED for a plain sensor key
+   */
+  static int shardOf(String key) {
+    int separator = key.lastIndexOf(SEPARATOR);
+    return separator < 0 ? UNSHARDED : Integer.parseInt(key, separator + 1, key.length(), 10);
+  }
+}
@@ -0,0 +1,73 @@
+package com.example.kstreams;
+
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.WindowStore;
+
+import com.example.avro.HourEnergy;
+
+/**
+ * Processor that merges the partial hourly sums of hot sensors into the
+ * sensor's hourly total.
+ *
+ * Records arrive keyed by sensor, after a repartition, so all shards of a
+ * sensor meet in one task. Each partial is kept in a window store under
+ * sensor#shard and the hour's start; the forwarded total is the sum of every
+ * shard stored for that hour. Totals of sensors that are not sub-keyed are
+ * already complete and are forwarded as they are, without touching the store.
+ *
+ * The store's retention covers the 24-hour window plus the grace period, so
+ * partials are dropped with their segments once no update can reach the hour.
+ */
+public class HotSensorMergeProcessor implements FixedKeyProcessor<String, HourlyPartial, HourEnergy> {
+  /** Upper bound of the shard keys of a sensor in a key range scan */
+  private static final char LAST_SHARD_CHAR = '\uffff';
+
+  private final String storeName;
+
+  private FixedKeyProcessorContext<String, HourEnergy> context;
+  private WindowStore<String, Double> store;
+
+  /**
+   * @param storeName Name of the window store holding the partial sums
+   */
+  public HotSensorMergeProcessor(String storeName) {
+    this.storeName = storeName;
+  }
+
+  @Override
+  public void init(FixedKeyProcessorContext<String, HourEnergy> context) {
+    this.context = context;
+    this.store = context.getStateStore(storeName);
+  }
+
+  @Override
+  public void process(FixedKeyRecord<String, HourlyPartial> record) {
+    String sensor = record.key();
+    HourlyPartial partial = record.value();
+    if (sensor == null || partial == null) {
+      return;
+    }
+
+    if (partial.shard() == HotSensorKeys.UNSHARDED) {
+      context.forward(record.withValue(new HourEnergy(partial.energyTotal(), "", partial.hourEpoch())));
+      return;
+    }
+
+    long hourStart = partial.hourEpoch() * HourlyRingBuffer.MILLIS_PER_HOUR;
+    String shardPrefix = sensor + HotSensorKeys.SEPARATOR;
+    store.put(shardPrefix + partial.shard(), partial.energyTotal(), hourStart);
+
+    double total = 0.0;
+    try (KeyValueIterator<Windowed<String>, Double> partials = store.fetch(shardPrefix,
+        shardPrefix + LAST_SHARD_CHAR, hourStart, hourStart)) {
+      while (partials.hasNext()) {
+        total += partials.next().value;
+      }
+    }
+    context.forward(record.withValue(new HourEnergy(total, "", partial.hourEpoch())));
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.kstreams;
+
+/**
+ * Energy sum of one shard of a sensor's readings within one hour, on its way
+ * from the sub-keyed windowed aggregation to HotSensorMergeProcessor.
+ *
+ * @param shard       Shard number, or HotSensorKeys.UNSHARDED for the complete hourly total
+ * @param hourEpoch   Hour of the sum, in hours since the epoch
+ * @param energyTotal Sum of the energy of the shard's readings in the hour
+ */
+public record HourlyPartial(int shard, long hourEpoch, double energyTotal) {
+}
@@ -0,0 +1,56 @@
+package com.example.kstreams;
+
+import java.nio.ByteBuffer;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Compact serde for HourlyPartial records in the hot-sensor repartition topic.
+ *
+ * Layout (big-endian, 21 bytes):
+ * - byte    format version (1)
+ * - int     shard number
+ * - long    epoch-hour
+ * - double  energy total
+ */
+public class HourlyPartialSerde implements Serde<HourlyPartial> {
+  /** Current layout version */
+  static final byte FORMAT_VERSION = 1;
+  /** Serialized size of a partial in the current layout */
+  static final int SERIALIZED_SIZE = Byte.BYTES + Integer.BYTES + Long.BYTES + Double.BYTES;
+
+  @Override
+  public Serializer<HourlyPartial> serializer() {
+    return (topic, partial) -> {
+      if (partial == null) {
+        return null;
+      }
+      return ByteBuffer.allocate(SERIALIZED_SIZE)
+          .put(FORMAT_VERSION)
+          .putInt(partial.shard())
+          .putLong(partial.hourEpoch())
+          .putDouble(partial.energyTotal())
+          .array();
+    };
+  }
+
+  @Override
+  public Deserializer<HourlyPartial> deserializer() {
+    return (topic, bytes) -> {
+      if (bytes == null) {
+        return null;
+      }
+      if (bytes.length != SERIALIZED_SIZE || bytes[0] != FORMAT_VERSION) {
+        String version = bytes.length > 0 ? "version " + bytes[0] + ", " : "";
+        throw new SerializationException("Unknown HourlyPartial layout (" + version + bytes.length
+            + " bytes) in topic " + topic);
+      }
+
+      ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+      return new HourlyPartial(in.getInt(), in.getLong(), in.getDouble());
+    };
+  }
+}
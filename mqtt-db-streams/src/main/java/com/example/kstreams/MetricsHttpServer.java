@@ -0,0 +1,55 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+
+import org.apache.kafka.streams.KafkaStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Lightweight HTTP server exposing GET /metrics in Prometheus text format and
+ * the GET /health (liveness) and GET /ready (readiness) probes.
+ */
+public class MetricsHttpServer {
+  private static final Logger logger = LoggerFactory.getLogger(MetricsHttpServer.class);
+
+  private final HttpServer server;
+  private final int port;
+
+  /**
+   * @param port    Port to listen on
+   * @param metrics         Application-level metrics
+   * @param restoreListener Restore listener registered with the instance
+   * @param streams         Kafka Streams instance whose client metrics and state are exported
+   * @throws IOException if the HTTP port cannot be bound
+   */
+  public MetricsHttpServer(int port, PipelineMetrics metrics, RestoreProgressListener restoreListener,
+      KafkaStreams streams) throws IOException {
+    this.port = port;
+    this.server = HttpServer.create(new InetSocketAddress(port), 0);
+    this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    this.server.createContext("/metrics", new MetricsHandler(metrics, restoreListener, streams, "mqtt_db_streams"));
+    this.server.createContext("/health", new HealthHandler(streams, restoreListener, false));
+    this.server.createContext("/ready", new HealthHandler(streams, restoreListener, true));
+  }
+
+  /**
+   * @return The underlying HTTP server, for registering additional endpoints
+   */
+  HttpServer httpServer() {
+    return server;
+  }
+
+  public void start() {
+    server.start();
+    logger.info("Metrics server listening on port {}", port);
+  }
+
+  public void stop() {
+    server.stop(0);
+  }
+}
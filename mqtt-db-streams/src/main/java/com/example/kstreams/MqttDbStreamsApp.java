@@ -1,5 +1,6 @@
 package com.example.kstreams;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Properties;
@@ -7,20 +8,38 @@ import java.util.Properties;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
 import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.Suppressed.BufferConfig;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.example.avro.DbRawData;
+import com.example.avro.HourEnergy;
 import com.example.avro.MqttRawData;
+import com.example.avro.RedisAggData;
+import com.example.avro.SensorCatalogEntry;
+import com.example.avro.SensorStats;
 
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
 
@@ -38,7 +57,30 @@ import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
  * 1. Consumes MQTT sensor data from mqtt.rawdata topic (MqttRawData schema)
  * 2. Extracts sensor name from the message key (MQTT topic path)
  * 3. Transforms the data structure to database format (DbRawData schema)
- * 4. Produces processed records to db.rawdata topic for JDBC sink connector
+ * 4. Drops QoS 1 redeliveries of a reading (same sensor and timestamp) seen
+ * within DEDUP_RETENTION_SECONDS, counted as the "duplicate" drop reason
+ * 5. Produces processed records to db.rawdata topic for JDBC sink connector,
+ * optionally (MICRO_BATCH_INTERVAL_SECONDS > 0) pre-aggregated per sensor into
+ * sub-hour intervals carrying the energy sum and reading count
+ * 6. Optionally (HOURLY_AGGREGATION_ENABLED=true) computes hourly energy totals
+ * per sensor in-stream and produces them to redis.aggdata; the sums of very
+ * chatty sensors (HOT_SENSORS) can be split over HOT_SENSOR_FANOUT sub-keys,
+ * computed in parallel and merged per sensor downstream
+ * 7. Maintains rolling 1-hour and 24-hour count, sum, min, max, mean and
+ * variance per sensor and produces them to sensors.stats (STATS_ENABLED,
+ * STATS_EMIT_INTERVAL_SECONDS)
+ * 8. Maintains a catalog entry per sensor (first seen, last seen, reading
+ * count) and produces it to sensors.catalog on first sight and then once per
+ * heartbeat (SENSOR_CATALOG_ENABLED, SENSOR_CATALOG_HEARTBEAT_SECONDS);
+ * the topic is read back as a global table whose sensor names are served at
+ * /sensors
+ * 9. Exposes drop-reason counters, event-time lag histograms and per-partition
+ * record counts and lag over JMX and in Prometheus format at /metrics
+ * (METRICS_SERVER_PORT), together with the Kafka Streams client metrics and
+ * changelog restore progress, plus liveness and readiness probes at /health
+ * and /ready (ready once restoration has finished)
+ * 10. Runs one stream thread per available core (NUM_STREAM_THREADS=auto, or a
+ * fixed count)
  * 
  * Key transformations:
  * - Changes message key from MQTT topic path to sensor name
@@ -52,6 +94,36 @@ public class MqttDbStreamsApp {
   static final String MQTT_INPUT_TOPIC = "mqtt.rawdata";
   /** Output: Processed data for database */
   static final String DB_OUTPUT_TOPIC = "db.rawdata";
+  /** Output: Aggregated data for Redis caching (optional hourly branch) */
+  static final String REDIS_OUTPUT_TOPIC = "redis.aggdata";
+  /** Output: Rolling 1h and 24h statistics per sensor (compacted) */
+  static final String STATS_OUTPUT_TOPIC = "sensors.stats";
+  /** Output: First seen, last seen and reading count per sensor (compacted) */
+  static final String CATALOG_OUTPUT_TOPIC = "sensors.catalog";
+  /** Maximum number of hourly records to keep per sensor (24 hours) */
+  static final int MAX_HOURS_PER_SENSOR = HourlyRingBuffer.SLOTS;
+  /** Window store holding the running hourly sums of the optional branch */
+  static final String HOURLY_WINDOW_STORE = "hourly-energy-window-store";
+  /** State store holding the HourlyRingBuffer of each sensor */
+  static final String AGGREGATION_STORE = "hourly-aggregates-store";
+  /** Window store holding the running sums of the optional micro-batch mode */
+  static final String MICRO_BATCH_STORE = "micro-batch-window-store";
+  /** Window store of the readings already forwarded, for duplicate suppression */
+  static final String DEDUP_STORE = "reading-dedup-store";
+  /** State store holding the RollingStats of each sensor */
+  static final String STATS_STORE = "rolling-stats-store";
+  /** State store holding the SensorCatalogEntry of each sensor */
+  static final String CATALOG_STORE = "sensor-catalog-store";
+  /** Global table materializing the sensors.catalog topic, served at /sensors */
+  static final String CATALOG_TABLE_STORE = "sensor-catalog-table";
+  /** Window store holding the partial hourly sums of hot sensors, per shard */
+  static final String HOT_PARTIALS_STORE = "hot-sensor-partials-store";
+
+  /** Drop counters and event-time lag histograms, exported over JMX and /metrics */
+  static final PipelineMetrics metrics = new PipelineMetrics();
+  /** Canonical sensor names by MQTT topic path (SENSOR_REGISTRY_MAX_ENTRIES) */
+  static final SensorRegistry sensorRegistry = new SensorRegistry(
+      Integer.parseInt(System.getenv().getOrDefault("SENSOR_REGISTRY_MAX_ENTRIES", "100000")));
 
   public static void main(String[] args) {
     logger.info("Starting MQTT to Database Kafka Streams application...");
@@ -59,33 +131,21 @@ public class MqttDbStreamsApp {
     // Load configuration from environment variables with fallback defaults
     String kafkaBootstrapServers = System.getenv().getOrDefault("KAKFA_BOOTSTRAP", "broker:29092");
     String schemaRegistryUrl = System.getenv().getOrDefault("KAFKA_SCHEMA_REGISTRY", "http://schema-registry:8081");
+    TopologySettings settings = TopologySettings.fromEnvironment();
+    int metricsServerPort = Integer.parseInt(System.getenv().getOrDefault("METRICS_SERVER_PORT", "7071"));
 
-    // Initialize Kafka Streams configuration and topology builder
+    // Initialize Kafka Streams configuration
     Properties props = createStreamsProperties(kafkaBootstrapServers, schemaRegistryUrl);
-    StreamsBuilder builder = new StreamsBuilder();
 
     // Configure Avro serialization/deserialization for Schema Registry integration
     Map<String, String> serdeConfig = Map.of("schema.registry.url", schemaRegistryUrl);
 
-    // Serde for input messages (MQTT raw data with MqttRawData schema)
-    final SpecificAvroSerde<MqttRawData> mqttValueSerde = new SpecificAvroSerde<>();
-    mqttValueSerde.configure(serdeConfig, false); // false = value serde
-
-    // Serde for output messages (Database raw data with DbRawData schema)
-    final SpecificAvroSerde<DbRawData> dbValueSerde = new SpecificAvroSerde<>();
-    dbValueSerde.configure(serdeConfig, false); // false = value serde
-
-    final Serde<String> keySerde = Serdes.String();
-
     try {
-      KStream<String, DbRawData> processedStream = builder.stream(MQTT_INPUT_TOPIC,
-          Consumed.with(keySerde, mqttValueSerde))
-          .map(dbRawKeyValueMapper) // Transform each record (extract sensor, restructure data)
-          .filter((key, value) -> key != null); // Filter out invalid records
+      KafkaStreams streams = new KafkaStreams(buildTopology(serdeConfig, settings), props);
 
-      processedStream.to(DB_OUTPUT_TOPIC, Produced.with(Serdes.String(), dbValueSerde));
-
-      KafkaStreams streams = new KafkaStreams(builder.build(), props);
+      // Log and export changelog restore progress; the readiness probe waits for it
+      RestoreProgressListener restoreListener = new RestoreProgressListener();
+      streams.setGlobalStateRestoreListener(restoreListener);
 
       // Configure global exception handling - shutdown client on uncaught exceptions
       streams.setUncaughtExceptionHandler(exception -> {
@@ -99,9 +159,19 @@ public class MqttDbStreamsApp {
 
       logger.info("MQTT to Database streams started successfully. Application is running...");
 
+      // Serve pipeline and Kafka Streams metrics for Prometheus
+      MetricsHttpServer metricsHttpServer = new MetricsHttpServer(metricsServerPort, metrics, restoreListener,
+          streams);
+      if (settings.catalogEnabled()) {
+        metricsHttpServer.httpServer().createContext("/sensors", new SensorCatalogHandler(streams));
+      }
+      metricsHttpServer.start();
+      metrics.registerMBean("mqtt-db-streams");
+
       // Register shutdown hook for graceful application termination
       Runtime.getRuntime().addShutdownHook(new Thread(() -> {
         logger.info("Shutting down MQTT to Database streams...");
+        metricsHttpServer.stop();
         streams.close();
         logger.info("MQTT to Database streams shutdown complete.");
       }));
@@ -112,6 +182,78 @@ public class MqttDbStreamsApp {
     }
   }
 
+  /**
+   * Builds the MQTT to Database topology.
+   * 
+   * @param serdeConfig Schema Registry configuration for Avro serdes
+   * @param settings    Topology settings
+   * @return Topology ready to be run by KafkaStreams or TopologyTestDriver
+   */
+  static Topology buildTopology(Map<String, String> serdeConfig, TopologySettings settings) {
+    StreamsBuilder builder = new StreamsBuilder();
+
+    // Serde for input messages (MQTT raw data with MqttRawData schema)
+    final SpecificAvroSerde<MqttRawData> mqttValueSerde = new SpecificAvroSerde<>();
+    mqttValueSerde.configure(serdeConfig, false); // false = value serde
+
+    // Serde for output messages (Database raw data with DbRawData schema)
+    final SpecificAvroSerde<DbRawData> dbValueSerde = new SpecificAvroSerde<>();
+    dbValueSerde.configure(serdeConfig, false); // false = value serde
+
+    final Serde<String> keySerde = Serdes.String();
+
+    Consumed<String, MqttRawData> consumed = Consumed.with(keySerde, mqttValueSerde);
+    if (settings.hourlyAggregationEnabled() || !settings.microBatchInterval().isZero()) {
+      // Windowed branches bucket readings by when they were taken, not when they reached Kafka;
+      // otherwise records keep the connector timestamp, as db.rawdata always had
+      consumed = consumed.withTimestampExtractor(new MqttRawDataTimestampExtractor());
+    }
+
+    KStream<String, DbRawData> processedStream = builder.stream(MQTT_INPUT_TOPIC, consumed)
+        .map(dbRawKeyValueMapper) // Transform each record (extract sensor, restructure data)
+        .filter((key, value) -> key != null) // Filter out invalid records
+        .processValues(() -> metrics.<DbRawData>partitionRecorder()); // Records per mqtt.rawdata partition
+
+    if (!settings.dedupRetention().isZero()) {
+      // Before any branch, so duplicates inflate neither rawdata nor the batch and hourly sums
+      processedStream = addDeduplication(builder, processedStream, settings.dedupRetention());
+    }
+
+    KStream<String, DbRawData> dbStream = processedStream;
+    if (!settings.microBatchInterval().isZero()) {
+      logger.info("Micro-batching enabled (interval {}, grace period {})", settings.microBatchInterval(),
+          settings.microBatchGrace());
+      dbStream = addMicroBatching(processedStream, serdeConfig, settings.microBatchInterval(),
+          settings.microBatchGrace());
+    }
+
+    dbStream
+        .processValues(() -> metrics.<DbRawData>lagRecorder("db_output")) // Reading to database-ready
+        .to(DB_OUTPUT_TOPIC, Produced.with(Serdes.String(), dbValueSerde));
+
+    if (settings.statsEnabled()) {
+      addRollingStats(builder, processedStream, serdeConfig, settings.statsEmitInterval());
+    }
+
+    if (settings.catalogEnabled()) {
+      addSensorCatalog(builder, processedStream, serdeConfig, settings.catalogHeartbeat());
+    }
+
+    if (settings.hourlyAggregationEnabled()) {
+      logger.info("Hourly aggregation branch enabled (grace period {})", settings.hourlyAggregationGrace());
+      HotSensorKeys hotSensorKeys = null;
+      if (!settings.hotSensors().isEmpty()) {
+        logger.info("Hot-sensor mode enabled for {} sensors ({} shards each)", settings.hotSensors().size(),
+            settings.hotSensorFanout());
+        hotSensorKeys = new HotSensorKeys(settings.hotSensors(), settings.hotSensorFanout());
+      }
+      addHourlyAggregation(builder, processedStream, serdeConfig, settings.hourlyAggregationGrace(),
+          settings.hourBucketFormat(), hotSensorKeys);
+    }
+
+    return builder.build();
+  }
+
   /**
    * Creates and configures the Kafka Streams properties for the application.
    * 
@@ -127,28 +269,289 @@ public class MqttDbStreamsApp {
     props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
     props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass().getName());
     props.put(StreamsConfig.topicPrefix(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG), 1);
-    props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, 0);
+    // Tasks (one per input partition) are spread over the threads; threads beyond the task count stay idle
+    props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG,
+        streamThreads(System.getenv().getOrDefault("NUM_STREAM_THREADS", "auto")));
+    // Warm standbys and warmup replicas shorten the restore after a pod is rescheduled
+    props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG,
+        Integer.parseInt(System.getenv().getOrDefault("NUM_STANDBY_REPLICAS", "0")));
+    props.put(StreamsConfig.MAX_WARMUP_REPLICAS_CONFIG,
+        Integer.parseInt(System.getenv().getOrDefault("MAX_WARMUP_REPLICAS", "2")));
+    props.put(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG,
+        Long.parseLong(System.getenv().getOrDefault("ACCEPTABLE_RECOVERY_LAG", "10000")));
     props.put("schema.registry.url", schemaRegistryUrl);
     return props;
   }
 
+  /**
+   * Resolves the number of stream threads.
+   * 
+   * @param value "auto" for one thread per available core, or a thread count
+   * @return Number of stream threads, at least one
+   */
+  static int streamThreads(String value) {
+    int threads = "auto".equalsIgnoreCase(value.trim()) ? Runtime.getRuntime().availableProcessors()
+        : Integer.parseInt(value.trim());
+    if (threads < 1) {
+      throw new IllegalArgumentException("NUM_STREAM_THREADS must be 'auto' or at least 1: " + value);
+    }
+    logger.info("Using {} stream threads ({} cores available)", threads,
+        Runtime.getRuntime().availableProcessors());
+    return threads;
+  }
+
+  /**
+   * Adds the optional in-stream hourly aggregation branch.
+   * 
+   * Computes 1-hour tumbling-window SUM(energy) per sensor directly from the
+   * MQTT readings, keeps the last 24 hourly totals per sensor and publishes them
+   * to redis.aggdata in the same RedisAggData format as db-redis-streams. This
+   * bypasses the JDBC sink, the hourlydata continuous aggregate refresh and
+   * Debezium CDC, so Redis is updated within seconds of a reading. Only one of
+   * the two applications should publish to redis.aggdata at a time.
+   * 
+   * Late readings are accepted until the grace period after the end of their
+   * hour has passed.
+   * 
+   * In hot-sensor mode the readings of the listed sensors are sub-keyed
+   * (HotSensorKeys), so the windowed sums of one such sensor are computed in
+   * parallel by several tasks. The partial sums are then re-keyed by sensor
+   * and repartitioned, and HotSensorMergeProcessor adds them up before the
+   * ring buffer. Totals of the other sensors take the same extra hop, but
+   * record caching on the window store already coalesces them per commit.
+   * 
+   * @param builder          Topology builder
+   * @param processedStream  Stream of readings keyed by sensor
+   * @param serdeConfig      Schema Registry configuration for Avro serdes
+   * @param grace            Grace period for late readings
+   * @param hourBucketFormat Hour bucket representation in emitted documents
+   * @param hotSensorKeys    Sub-keys of the hot sensors, or null to aggregate by sensor only
+   */
+  private static void addHourlyAggregation(StreamsBuilder builder, KStream<String, DbRawData> processedStream,
+      Map<String, String> serdeConfig, Duration grace, HourBucketFormat hourBucketFormat,
+      HotSensorKeys hotSensorKeys) {
+    final Serde<String> keySerde = Serdes.String();
+
+    final SpecificAvroSerde<DbRawData> dbValueSerde = new SpecificAvroSerde<>();
+    dbValueSerde.configure(serdeConfig, false); // false = value serde
+
+    final SpecificAvroSerde<RedisAggData> redisValueSerde = new SpecificAvroSerde<>();
+    redisValueSerde.configure(serdeConfig, false); // false = value serde
+
+    builder.addStateStore(Stores.keyValueStoreBuilder(
+        Stores.persistentKeyValueStore(AGGREGATION_STORE),
+        keySerde,
+        new HourlyRingBufferSerde()));
+
+    final Grouped<String, DbRawData> readingsBySensor = Grouped.with("readings-by-sensor", keySerde,
+        dbValueSerde);
+    KStream<Windowed<String>, Double> hourlySums = (hotSensorKeys == null
+        ? processedStream.groupByKey(readingsBySensor)
+        : processedStream.groupBy(hotSensorKeys, readingsBySensor)) // Same repartition, hot sensors sub-keyed
+        .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofHours(1), grace))
+        .aggregate(
+            () -> 0.0,
+            (sensor, reading, total) -> total + reading.getEnergy(),
+            Materialized.<String, Double, WindowStore<Bytes, byte[]>>as(HOURLY_WINDOW_STORE)
+                .withKeySerde(keySerde)
+                .withValueSerde(Serdes.Double()))
+        .toStream();
+
+    KStream<String, HourEnergy> hourlyTotals;
+    if (hotSensorKeys == null) {
+      // Windowed keys are already partitioned by sensor, so no repartition is needed
+      hourlyTotals = hourlySums.map((windowedSensor, total) -> KeyValue.pair(windowedSensor.key(),
+          new HourEnergy(total, "", windowedSensor.window().start() / HourlyRingBuffer.MILLIS_PER_HOUR)));
+    } else {
+      // Partials must outlive every hour the ring buffer still accepts
+      builder.addStateStore(Stores.windowStoreBuilder(
+          Stores.persistentWindowStore(HOT_PARTIALS_STORE, Duration.ofHours(MAX_HOURS_PER_SENSOR + 1).plus(grace),
+              Duration.ofHours(1), false),
+          keySerde,
+          Serdes.Double()));
+
+      hourlyTotals = hourlySums
+          .map((windowedKey, total) -> KeyValue.pair(HotSensorKeys.sensorOf(windowedKey.key()),
+              new HourlyPartial(HotSensorKeys.shardOf(windowedKey.key()),
+                  windowedKey.window().start() / HourlyRingBuffer.MILLIS_PER_HOUR, total)))
+          .repartition(Repartitioned.with(keySerde, new HourlyPartialSerde()).withName("hourly-partials-by-sensor"))
+          .processValues(() -> metrics.<HourlyPartial>partitionRecorder()) // Records per merge partition
+          .processValues(() -> new HotSensorMergeProcessor(HOT_PARTIALS_STORE), Named.as("hot-sensor-merge"),
+              HOT_PARTIALS_STORE);
+    }
+
+    hourlyTotals
+        .process(() -> new HourlyAggregationProcessor(AGGREGATION_STORE, hourBucketFormat,
+            Duration.ofMinutes(5), PunctuationType.STREAM_TIME, EmitMode.EAGER, Duration.ZERO, metrics),
+            AGGREGATION_STORE)
+        .processValues(() -> metrics.<RedisAggData>lagRecorder("redis_output")) // Reading to Redis-ready
+        .to(REDIS_OUTPUT_TOPIC, Produced.with(keySerde, redisValueSerde));
+  }
+
+  /**
+   * Adds the rolling statistics branch.
+   * 
+   * Works on the single readings (before micro-batching), which are already
+   * partitioned by sensor, and keeps fixed-size Welford accumulators per
+   * sensor instead of the readings themselves. Documents go to the compacted
+   * sensors.stats topic, one key per sensor, for the Redis sink.
+   * 
+   * @param builder         Topology builder
+   * @param processedStream Stream of readings keyed by sensor
+   * @param serdeConfig     Schema Registry configuration for Avro serdes
+   * @param emitInterval    How often updated statistics are published
+   */
+  private static void addRollingStats(StreamsBuilder builder, KStream<String, DbRawData> processedStream,
+      Map<String, String> serdeConfig, Duration emitInterval) {
+    final Serde<String> keySerde = Serdes.String();
+
+    final SpecificAvroSerde<SensorStats> statsValueSerde = new SpecificAvroSerde<>();
+    statsValueSerde.configure(serdeConfig, false); // false = value serde
+
+    builder.addStateStore(Stores.keyValueStoreBuilder(
+        Stores.persistentKeyValueStore(STATS_STORE),
+        keySerde,
+        new RollingStatsSerde()));
+
+    processedStream
+        .process(() -> new RollingStatsProcessor(STATS_STORE, emitInterval), Named.as("rolling-stats"),
+            STATS_STORE)
+        .to(STATS_OUTPUT_TOPIC, Produced.with(keySerde, statsValueSerde));
+  }
+
+  /**
+   * Adds the sensor catalog branch.
+   * 
+   * The catalog store is the application's table of known sensors; the
+   * compacted sensors.catalog topic mirrors it for the Redis sink and is read
+   * back as a global KTable, so every instance can list all sensors at
+   * /sensors without a DISTINCT scan over rawdata. The global table restores
+   * from the compacted topic itself and needs no changelog of its own.
+   * 
+   * @param builder         Topology builder
+   * @param processedStream Stream of readings keyed by sensor
+   * @param serdeConfig     Schema Registry configuration for Avro serdes
+   * @param heartbeat       Event-time interval between updates of a known sensor
+   */
+  private static void addSensorCatalog(StreamsBuilder builder, KStream<String, DbRawData> processedStream,
+      Map<String, String> serdeConfig, Duration heartbeat) {
+    final Serde<String> keySerde = Serdes.String();
+
+    final SpecificAvroSerde<SensorCatalogEntry> catalogValueSerde = new SpecificAvroSerde<>();
+    catalogValueSerde.configure(serdeConfig, false); // false = value serde
+
+    builder.addStateStore(Stores.keyValueStoreBuilder(
+        Stores.persistentKeyValueStore(CATALOG_STORE),
+        keySerde,
+        catalogValueSerde)
+        .withCachingEnabled()); // One changelog write per sensor and commit, not per reading
+
+    processedStream
+        .processValues(() -> new SensorCatalogProcessor(CATALOG_STORE, heartbeat.toMillis()),
+            Named.as("sensor-catalog"), CATALOG_STORE)
+        .to(CATALOG_OUTPUT_TOPIC, Produced.with(keySerde, catalogValueSerde));
+
+    builder.globalTable(CATALOG_OUTPUT_TOPIC, Consumed.with(keySerde, catalogValueSerde),
+        Materialized.<String, SensorCatalogEntry, KeyValueStore<Bytes, byte[]>>as(CATALOG_TABLE_STORE));
+  }
+
+  /**
+   * Drops repeated readings of the same sensor and timestamp.
+   * 
+   * Readings of a sensor all arrive on the partition of its MQTT topic path,
+   * so duplicates meet in the same task and the stage needs no repartition.
+   * The window store keeps one entry per reading for the retention period
+   * (in stream time), backed by a changelog topic so the dedup horizon
+   * survives restarts.
+   * 
+   * @param builder         Topology builder
+   * @param processedStream Stream of readings keyed by sensor
+   * @param retention       How long readings are remembered
+   * @return Stream of readings without duplicates
+   */
+  private static KStream<String, DbRawData> addDeduplication(StreamsBuilder builder,
+      KStream<String, DbRawData> processedStream, Duration retention) {
+    builder.addStateStore(Stores.windowStoreBuilder(
+        // One-millisecond windows: the window start is the reading timestamp itself
+        Stores.persistentWindowStore(DEDUP_STORE, retention, Duration.ofMillis(1), false),
+        Serdes.String(),
+        Serdes.Long()));
+
+    return processedStream.processValues(() -> new ReadingDeduplicator(DEDUP_STORE),
+        Named.as("reading-dedup"), DEDUP_STORE);
+  }
+
+  /**
+   * Pre-aggregates readings per sensor into fixed sub-hour intervals.
+   * 
+   * Each interval produces a single DbRawData record whose energy is the sum
+   * of the interval's readings, whose reading_count is their number and whose
+   * timestamp is the start of the interval. The interval must divide an hour,
+   * so every batch falls into exactly one hour bucket and SUM(energy) in the
+   * hourlydata continuous aggregate is unchanged, while the number of rows
+   * upserted into rawdata drops by the average readings per interval.
+   * 
+   * Batches are emitted once their interval plus the grace period has passed
+   * in stream time. Readings arriving after that are dropped by Kafka Streams
+   * (dropped-records metric) instead of producing a second, partial row.
+   * 
+   * @param processedStream Stream of single readings keyed by sensor
+   * @param serdeConfig     Schema Registry configuration for Avro serdes
+   * @param interval        Length of each batch interval
+   * @param grace           Grace period for late readings
+   * @return Stream of batches keyed by sensor
+   * @throws IllegalArgumentException if the interval does not divide an hour
+   */
+  private static KStream<String, DbRawData> addMicroBatching(KStream<String, DbRawData> processedStream,
+      Map<String, String> serdeConfig, Duration interval, Duration grace) {
+    if (interval.isNegative() || Duration.ofHours(1).toMillis() % interval.toMillis() != 0) {
+      throw new IllegalArgumentException("MICRO_BATCH_INTERVAL_SECONDS must divide one hour: " + interval);
+    }
+
+    final Serde<String> keySerde = Serdes.String();
+
+    final SpecificAvroSerde<DbRawData> dbValueSerde = new SpecificAvroSerde<>();
+    dbValueSerde.configure(serdeConfig, false); // false = value serde
+
+    return processedStream
+        .groupByKey(Grouped.with("readings-by-sensor-batch", keySerde, dbValueSerde))
+        .windowedBy(TimeWindows.ofSizeAndGrace(interval, grace))
+        .aggregate(
+            () -> new DbRawData(null, 0.0, null, 0L),
+            (sensor, reading, batch) -> {
+              batch.setEnergy(batch.getEnergy() + reading.getEnergy());
+              batch.setReadingCount(batch.getReadingCount() + reading.getReadingCount());
+              return batch;
+            },
+            Materialized.<String, DbRawData, WindowStore<Bytes, byte[]>>as(MICRO_BATCH_STORE)
+                .withKeySerde(keySerde)
+                .withValueSerde(dbValueSerde))
+        // Emit each batch once, after its window has closed
+        .suppress(Suppressed.untilWindowCloses(BufferConfig.unbounded()).withName("micro-batch-suppress"))
+        .toStream()
+        .map((windowedSensor, batch) -> KeyValue.pair(windowedSensor.key(),
+            new DbRawData(windowedSensor.key(), batch.getEnergy(), windowedSensor.window().start(),
+                batch.getReadingCount())));
+  }
+
   /**
    * Extracts sensor name from MQTT topic key.
    * 
    * MQTT topics follow the pattern: /sensors/{sensor_name}
-   * This method extracts the sensor_name from the topic path.
+   * This method extracts the sensor_name from the topic path through the
+   * sensor registry, so known topics resolve to the same canonical String
+   * without splitting or allocating.
    * 
    * @param key MQTT topic path (e.g., "/sensors/sensor_001")
    * @return Sensor identifier (e.g., "sensor_001") or null if extraction fails
    */
-  private static String extractSensorFromKey(String key) {
-    // Split the topic path and get the last segment (sensor ID)
-    String[] keyParts = key.split("/");
-    String sensor = keyParts[keyParts.length - 1];
+  static String extractSensorFromKey(String key) {
+    String sensor = sensorRegistry.lookup(key);
 
     // Validate that we successfully extracted the sensor name
-    if (sensor == null || sensor.isEmpty()) {
+    if (sensor == null) {
       logger.warn("No sensor found in key: {}", key);
+      metrics.recordDrop(PipelineMetrics.DropReason.EMPTY_SENSOR_KEY);
       return null;
     }
 
@@ -168,9 +571,20 @@ public class MqttDbStreamsApp {
    * - Adding sensor field to the message value for database insertion
    * - Handling missing timestamps with current time fallback
    */
-  private static KeyValueMapper<String, MqttRawData, KeyValue<String, DbRawData>> dbRawKeyValueMapper = (key,
+  static final KeyValueMapper<String, MqttRawData, KeyValue<String, DbRawData>> dbRawKeyValueMapper = (key,
       value) -> {
     try {
+      if (key == null) {
+        logger.warn("Record without MQTT topic key");
+        metrics.recordDrop(PipelineMetrics.DropReason.EMPTY_SENSOR_KEY);
+        return new KeyValue<>(null, null); // Will be filtered out
+      }
+      if (value == null) {
+        logger.warn("Record without value for key: {}", key);
+        metrics.recordDrop(PipelineMetrics.DropReason.MISSING_FIELDS);
+        return new KeyValue<>(null, null); // Will be filtered out
+      }
+
       String sensor = extractSensorFromKey(key);
       if (sensor == null) {
         return new KeyValue<>(null, null); // Will be filtered out
@@ -188,11 +602,13 @@ public class MqttDbStreamsApp {
       dbRawData.setSensor(sensor);
       dbRawData.setEnergy(energy);
       dbRawData.setTimestamp(timestamp);
+      dbRawData.setReadingCount(1L);
 
       return new KeyValue<>(sensor, dbRawData);
 
     } catch (Exception e) {
       logger.error("Error processing record for key: {}", key, e);
+      metrics.recordDrop(PipelineMetrics.DropReason.INVALID_RECORD);
       return new KeyValue<>(null, null); // Return null to filter out invalid records
     }
   };
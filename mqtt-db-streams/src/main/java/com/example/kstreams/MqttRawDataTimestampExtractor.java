@@ -0,0 +1,25 @@
+package com.example.kstreams;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+import com.example.avro.MqttRawData;
+
+/**
+ * Timestamp extractor that uses the sensor's own reading time as event time.
+ *
+ * The MQTT source connector stamps records with the time they reached Kafka,
+ * which can lag behind the actual reading. Windowed aggregations should bucket
+ * readings by the 'timestamp' field of MqttRawData instead, falling back to
+ * the record timestamp (or the partition's stream time) when it is missing.
+ */
+public class MqttRawDataTimestampExtractor implements TimestampExtractor {
+
+  @Override
+  public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+    if (record.value() instanceof MqttRawData value && value.getTimestamp() != null) {
+      return value.getTimestamp();
+    }
+    return record.timestamp() >= 0 ? record.timestamp() : partitionTime;
+  }
+}
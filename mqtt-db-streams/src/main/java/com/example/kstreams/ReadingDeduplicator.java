@@ -0,0 +1,60 @@
+package com.example.kstreams;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.WindowStore;
+
+import com.example.avro.DbRawData;
+
+/**
+ * Processor that drops repeated readings of the same sensor and timestamp.
+ *
+ * The MQTT source connector subscribes with QoS 1, so a reading can be
+ * delivered more than once. Every reading forwarded is recorded in a window
+ * store under its sensor and reading timestamp (the window start), and a
+ * reading whose sensor and timestamp are already present is counted as a
+ * DUPLICATE drop instead of being forwarded. Redeliveries carry the same
+ * payload, so the first copy wins.
+ *
+ * The store's retention bounds both its size and the dedup horizon: once a
+ * timestamp is older than the retention relative to stream time, its entry
+ * expires and a very late copy passes through, where the rawdata primary key
+ * still turns it into a no-op upsert.
+ */
+public class ReadingDeduplicator implements FixedKeyProcessor<String, DbRawData, DbRawData> {
+  private final String storeName;
+
+  private FixedKeyProcessorContext<String, DbRawData> context;
+  /** Wall-clock time a reading was first seen, by sensor and reading timestamp */
+  private WindowStore<String, Long> store;
+
+  /**
+   * @param storeName Name of the window store of forwarded readings
+   */
+  public ReadingDeduplicator(String storeName) {
+    this.storeName = storeName;
+  }
+
+  @Override
+  public void init(FixedKeyProcessorContext<String, DbRawData> context) {
+    this.context = context;
+    this.store = context.getStateStore(storeName);
+  }
+
+  @Override
+  public void process(FixedKeyRecord<String, DbRawData> record) {
+    Long timestamp = record.value().getTimestamp();
+    if (timestamp == null) {
+      context.forward(record);
+      return;
+    }
+
+    if (store.fetch(record.key(), timestamp) != null) {
+      MqttDbStreamsApp.metrics.recordDrop(PipelineMetrics.DropReason.DUPLICATE);
+      return;
+    }
+    store.put(record.key(), context.currentSystemTimeMs(), timestamp);
+    context.forward(record);
+  }
+}
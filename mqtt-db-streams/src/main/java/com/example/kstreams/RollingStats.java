@@ -0,0 +1,137 @@
+package com.example.kstreams;
+
+import com.example.avro.SensorStats;
+
+/**
+ * Rolling 1-hour and 24-hour statistics of a sensor's energy readings.
+ *
+ * The last hour is kept in twelve 5-minute slots and the last 24 hours in
+ * twenty-four 1-hour slots, so the hour window advances in 5-minute steps and
+ * the day window in 1-hour steps. Every reading updates one slot of each, and
+ * the state stays at 36 fixed accumulators however many readings a sensor
+ * sends.
+ *
+ * Instances are mutable and not thread-safe; each one belongs to a single
+ * sensor key inside a Kafka Streams task.
+ */
+public class RollingStats {
+  /** Slots of the 1-hour window */
+  static final int HOUR_SLOTS = 12;
+  /** Event time covered by each slot of the 1-hour window */
+  static final long HOUR_SLOT_MILLIS = 5 * 60_000L;
+  /** Slots of the 24-hour window */
+  static final int DAY_SLOTS = 24;
+  /** Event time covered by each slot of the 24-hour window */
+  static final long DAY_SLOT_MILLIS = HourlyRingBuffer.MILLIS_PER_HOUR;
+
+  private final WelfordSlots lastHour;
+  private final WelfordSlots lastDay;
+  private long newestTimestamp = Long.MIN_VALUE;
+  private long dirtySince = 0;
+
+  public RollingStats() {
+    this(new WelfordSlots(HOUR_SLOTS, HOUR_SLOT_MILLIS), new WelfordSlots(DAY_SLOTS, DAY_SLOT_MILLIS));
+  }
+
+  private RollingStats(WelfordSlots lastHour, WelfordSlots lastDay) {
+    this.lastHour = lastHour;
+    this.lastDay = lastDay;
+  }
+
+  /**
+   * Adds a reading to both windows.
+   *
+   * @param timestamp Event time in milliseconds since epoch
+   * @param energy    Energy reading
+   * @return true if the reading was added, false if it is older than 24 hours
+   *         relative to the sensor's newest reading
+   */
+  public boolean add(long timestamp, double energy) {
+    newestTimestamp = Math.max(newestTimestamp, timestamp);
+    if (!lastDay.add(timestamp, energy, newestTimestamp)) {
+      return false;
+    }
+    lastHour.add(timestamp, energy, newestTimestamp);
+    return true;
+  }
+
+  /**
+   * Clears the slots that have left both windows ending at the given time.
+   *
+   * @param reference End of the windows in milliseconds since epoch
+   * @return true if at least one slot was cleared
+   */
+  public boolean evictBefore(long reference) {
+    boolean hourChanged = lastHour.evictBefore(reference);
+    boolean dayChanged = lastDay.evictBefore(reference);
+    return hourChanged || dayChanged;
+  }
+
+  /**
+   * @return true if no reading is left in the 24-hour window
+   */
+  public boolean isEmpty() {
+    return lastDay.isEmpty();
+  }
+
+  /**
+   * Renders the SensorStats document published to the stats topic.
+   *
+   * @param sensor    Sensor name
+   * @param reference End of the windows; the newest reading is used if it is later
+   * @return Statistics of both windows
+   */
+  public SensorStats toSensorStats(String sensor, long reference) {
+    long end = Math.max(reference, newestTimestamp);
+    return new SensorStats(sensor, end, lastHour.summarize(end), lastDay.summarize(end));
+  }
+
+  /**
+   * @return Event time of the newest reading, or Long.MIN_VALUE if none
+   */
+  long newestTimestamp() {
+    return newestTimestamp;
+  }
+
+  WelfordSlots lastHour() {
+    return lastHour;
+  }
+
+  WelfordSlots lastDay() {
+    return lastDay;
+  }
+
+  /**
+   * @return Wall-clock time of the first update not yet emitted, or 0 if the
+   *         last emitted document is up to date
+   */
+  long dirtySince() {
+    return dirtySince;
+  }
+
+  /**
+   * Records when the statistics first diverged from the last emitted document.
+   *
+   * @param dirtySince Wall-clock time in milliseconds, or 0 once emitted
+   */
+  void setDirtySince(long dirtySince) {
+    this.dirtySince = dirtySince;
+  }
+
+  /**
+   * Restores statistics from their raw layout.
+   *
+   * @param lastHour        Slots of the 1-hour window
+   * @param lastDay         Slots of the 24-hour window
+   * @param newestTimestamp Event time of the newest reading
+   * @param dirtySince      Time of the first update not yet emitted, or 0
+   * @return Statistics holding the given state
+   */
+  static RollingStats restore(WelfordSlots lastHour, WelfordSlots lastDay, long newestTimestamp,
+      long dirtySince) {
+    RollingStats stats = new RollingStats(lastHour, lastDay);
+    stats.newestTimestamp = newestTimestamp;
+    stats.dirtySince = dirtySince;
+    return stats;
+  }
+}
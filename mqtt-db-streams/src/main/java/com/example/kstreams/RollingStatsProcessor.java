@@ -0,0 +1,169 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.DbRawData;
+import com.example.avro.SensorStats;
+
+/**
+ * Processor that maintains rolling 1-hour and 24-hour statistics per sensor
+ * and publishes them as SensorStats documents.
+ *
+ * Each reading updates the sensor's RollingStats in the store. Sensors report
+ * every second, so documents are not emitted per reading: sensors with
+ * unpublished updates are tracked in memory and flushed by a wall-clock
+ * punctuator, and the stats record when they became dirty so pending emits
+ * survive a restart.
+ *
+ * A stream-time punctuator slides the windows of sensors that stopped
+ * reporting: their expired slots are cleared and an updated document is
+ * emitted, or a tombstone once nothing is left of the last 24 hours.
+ */
+public class RollingStatsProcessor implements Processor<String, DbRawData, String, SensorStats> {
+  private static final Logger logger = LoggerFactory.getLogger(RollingStatsProcessor.class);
+
+  /** How often idle sensors' windows are advanced, in stream time */
+  private static final Duration EVICTION_INTERVAL = Duration.ofMillis(RollingStats.HOUR_SLOT_MILLIS);
+
+  private final String storeName;
+  private final Duration emitInterval;
+
+  /** Sensors with unpublished updates */
+  private final Set<String> pendingEmits = new LinkedHashSet<>();
+
+  private ProcessorContext<String, SensorStats> context;
+  private KeyValueStore<String, RollingStats> store;
+
+  /**
+   * @param storeName    Name of the RollingStats key-value store
+   * @param emitInterval How often updated statistics are published
+   */
+  public RollingStatsProcessor(String storeName, Duration emitInterval) {
+    this.storeName = storeName;
+    this.emitInterval = emitInterval;
+  }
+
+  @Override
+  public void init(ProcessorContext<String, SensorStats> context) {
+    this.context = context;
+    this.store = context.getStateStore(storeName);
+    recoverPendingEmits();
+    context.schedule(emitInterval, PunctuationType.WALL_CLOCK_TIME, this::flushPendingEmits);
+    context.schedule(EVICTION_INTERVAL, PunctuationType.STREAM_TIME, this::evictIdleSlots);
+  }
+
+  @Override
+  public void process(Record<String, DbRawData> record) {
+    String sensor = record.key();
+    DbRawData reading = record.value();
+    if (sensor == null || reading == null || reading.getTimestamp() == null) {
+      return;
+    }
+
+    RollingStats stats = store.get(sensor);
+    if (stats == null) {
+      stats = new RollingStats();
+    }
+    if (!stats.add(reading.getTimestamp(), reading.getEnergy())) {
+      return;
+    }
+
+    if (stats.dirtySince() == 0) {
+      stats.setDirtySince(context.currentSystemTimeMs());
+    }
+    store.put(sensor, stats);
+    pendingEmits.add(sensor);
+  }
+
+  /**
+   * Punctuator that emits every pending sensor.
+   *
+   * @param timestamp Current wall-clock time
+   */
+  private void flushPendingEmits(long timestamp) {
+    long streamTime = context.currentStreamTimeMs();
+    for (String sensor : pendingEmits) {
+      RollingStats stats = store.get(sensor);
+      if (stats != null && stats.dirtySince() != 0) {
+        emit(sensor, stats, streamTime, timestamp);
+      }
+    }
+    pendingEmits.clear();
+  }
+
+  /**
+   * Stores the stats as clean and forwards their SensorStats document.
+   */
+  private void emit(String sensor, RollingStats stats, long reference, long timestamp) {
+    stats.setDirtySince(0);
+    store.put(sensor, stats);
+    context.forward(new Record<>(sensor, stats.toSensorStats(sensor, reference), timestamp));
+  }
+
+  /**
+   * Rebuilds the pending-emit set from stats that were stored dirty before a
+   * restart or rebalance, so their updates are not lost.
+   */
+  private void recoverPendingEmits() {
+    try (KeyValueIterator<String, RollingStats> iterator = store.all()) {
+      while (iterator.hasNext()) {
+        KeyValue<String, RollingStats> entry = iterator.next();
+        if (entry.value.dirtySince() != 0) {
+          pendingEmits.add(entry.key);
+        }
+      }
+    }
+    if (!pendingEmits.isEmpty()) {
+      logger.info("Recovered {} sensors with pending stats emits", pendingEmits.size());
+    }
+  }
+
+  /**
+   * Punctuator that clears expired slots of every sensor, forwarding updated
+   * documents and tombstones for sensors without readings in the last 24
+   * hours. Sensors that are still reporting only lose slots here when the
+   * windows step forward, which their next flush would publish anyway.
+   *
+   * @param timestamp Stream time of the punctuation
+   */
+  private void evictIdleSlots(long timestamp) {
+    int updated = 0;
+    int removed = 0;
+
+    try (KeyValueIterator<String, RollingStats> iterator = store.all()) {
+      while (iterator.hasNext()) {
+        KeyValue<String, RollingStats> entry = iterator.next();
+        RollingStats stats = entry.value;
+        if (!stats.evictBefore(timestamp)) {
+          continue;
+        }
+
+        pendingEmits.remove(entry.key);
+        if (stats.isEmpty()) {
+          store.delete(entry.key);
+          context.forward(new Record<>(entry.key, (SensorStats) null, timestamp));
+          removed++;
+        } else {
+          emit(entry.key, stats, timestamp, timestamp);
+          updated++;
+        }
+      }
+    }
+
+    if (removed > 0) {
+      logger.info("Advanced stats windows: {} sensors updated, {} sensors removed", updated, removed);
+    }
+  }
+}
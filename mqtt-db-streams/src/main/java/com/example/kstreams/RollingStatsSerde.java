@@ -0,0 +1,110 @@
+package com.example.kstreams;
+
+import java.nio.ByteBuffer;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Compact serde for RollingStats state in the stats store and its changelog
+ * topic.
+ *
+ * Layout (big-endian):
+ * - byte    format version (1)
+ * - long    event time of the newest reading
+ * - long    time of the first update not yet emitted (0 if none)
+ * - for the 1-hour and then the 24-hour window:
+ *   - byte  number of occupied slots that follow
+ *   - per occupied slot: long slot number, long count and double mean, M2,
+ *     minimum and maximum
+ *
+ * Only occupied slots are written, so a sensor costs at most 1747 bytes.
+ */
+public class RollingStatsSerde implements Serde<RollingStats> {
+  /** Current layout version */
+  static final byte FORMAT_VERSION = 1;
+  /** Serialized size of the header */
+  private static final int HEADER_SIZE = Byte.BYTES + 2 * Long.BYTES;
+  /** Serialized size of one occupied slot */
+  private static final int SLOT_SIZE = 2 * Long.BYTES + 4 * Double.BYTES;
+
+  @Override
+  public Serializer<RollingStats> serializer() {
+    return (topic, stats) -> {
+      if (stats == null) {
+        return null;
+      }
+      int hourSlots = occupiedSlots(stats.lastHour());
+      int daySlots = occupiedSlots(stats.lastDay());
+      ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + 2 * Byte.BYTES + (hourSlots + daySlots) * SLOT_SIZE);
+      out.put(FORMAT_VERSION);
+      out.putLong(stats.newestTimestamp());
+      out.putLong(stats.dirtySince());
+      writeSlots(out, stats.lastHour(), hourSlots);
+      writeSlots(out, stats.lastDay(), daySlots);
+      return out.array();
+    };
+  }
+
+  private static int occupiedSlots(WelfordSlots slots) {
+    int occupied = 0;
+    for (int slot = 0; slot < slots.slots(); slot++) {
+      if (slots.slotNumberAt(slot) != WelfordSlots.NO_SLOT) {
+        occupied++;
+      }
+    }
+    return occupied;
+  }
+
+  private static void writeSlots(ByteBuffer out, WelfordSlots slots, int occupied) {
+    out.put((byte) occupied);
+    for (int slot = 0; slot < slots.slots(); slot++) {
+      if (slots.slotNumberAt(slot) == WelfordSlots.NO_SLOT) {
+        continue;
+      }
+      out.putLong(slots.slotNumberAt(slot));
+      out.putLong(slots.countAt(slot));
+      out.putDouble(slots.meanAt(slot));
+      out.putDouble(slots.m2At(slot));
+      out.putDouble(slots.minAt(slot));
+      out.putDouble(slots.maxAt(slot));
+    }
+  }
+
+  @Override
+  public Deserializer<RollingStats> deserializer() {
+    return (topic, bytes) -> {
+      if (bytes == null) {
+        return null;
+      }
+      if (bytes.length < HEADER_SIZE + 2 * Byte.BYTES || bytes[0] != FORMAT_VERSION) {
+        throw new SerializationException("Unknown RollingStats layout (" + bytes.length + " bytes) in topic "
+            + topic);
+      }
+
+      try {
+        ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        long newestTimestamp = in.getLong();
+        long dirtySince = in.getLong();
+        WelfordSlots lastHour = readSlots(in, new WelfordSlots(RollingStats.HOUR_SLOTS,
+            RollingStats.HOUR_SLOT_MILLIS));
+        WelfordSlots lastDay = readSlots(in, new WelfordSlots(RollingStats.DAY_SLOTS,
+            RollingStats.DAY_SLOT_MILLIS));
+        return RollingStats.restore(lastHour, lastDay, newestTimestamp, dirtySince);
+      } catch (RuntimeException e) {
+        throw new SerializationException("Corrupt RollingStats (" + bytes.length + " bytes) in topic " + topic, e);
+      }
+    };
+  }
+
+  private static WelfordSlots readSlots(ByteBuffer in, WelfordSlots slots) {
+    int occupied = in.get();
+    for (int i = 0; i < occupied; i++) {
+      slots.restoreSlot(in.getLong(), in.getLong(), in.getDouble(), in.getDouble(), in.getDouble(),
+          in.getDouble());
+    }
+    return slots;
+  }
+}
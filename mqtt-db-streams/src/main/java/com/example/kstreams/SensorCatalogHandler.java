@@ -0,0 +1,88 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.SensorCatalogEntry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * HTTP handler serving the known sensor names (GET /sensors) from the
+ * sensors.catalog global table.
+ *
+ * The global table holds every partition of the catalog on each instance, so
+ * any instance answers with the full list without forwarding. The response is
+ * a JSON array of sensor names in key order.
+ */
+public class SensorCatalogHandler implements HttpHandler {
+  private static final Logger logger = LoggerFactory.getLogger(SensorCatalogHandler.class);
+
+  private final KafkaStreams streams;
+
+  /**
+   * @param streams Kafka Streams instance holding the catalog table
+   */
+  public SensorCatalogHandler(KafkaStreams streams) {
+    this.streams = streams;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        respond(exchange, 405, "{\"detail\":\"Method not allowed\"}");
+        return;
+      }
+
+      ReadOnlyKeyValueStore<String, SensorCatalogEntry> store = streams.store(StoreQueryParameters
+          .fromNameAndType(MqttDbStreamsApp.CATALOG_TABLE_STORE,
+              QueryableStoreTypes.<String, SensorCatalogEntry>keyValueStore()));
+
+      StringBuilder json = new StringBuilder("[");
+      try (KeyValueIterator<String, SensorCatalogEntry> entries = store.all()) {
+        while (entries.hasNext()) {
+          KeyValue<String, SensorCatalogEntry> entry = entries.next();
+          if (json.length() > 1) {
+            json.append(',');
+          }
+          json.append('"').append(escape(entry.key)).append('"');
+        }
+      }
+      json.append(']');
+      respond(exchange, 200, json.toString());
+    } catch (InvalidStateStoreException e) {
+      logger.debug("Catalog table not queryable yet", e);
+      respond(exchange, 503, "{\"detail\":\"Sensor catalog is not available, try again later\"}");
+    } catch (Exception e) {
+      logger.error("Error serving sensor catalog", e);
+      respond(exchange, 500, "{\"detail\":\"Internal server error\"}");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
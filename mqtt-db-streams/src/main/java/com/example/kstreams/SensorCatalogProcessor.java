@@ -0,0 +1,73 @@
+package com.example.kstreams;
+
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import com.example.avro.DbRawData;
+import com.example.avro.SensorCatalogEntry;
+
+/**
+ * Processor that maintains the catalog entry of every sensor: when it was
+ * first and last seen and how many readings it has sent.
+ *
+ * Every reading updates the sensor's entry in the store (a cached store, so
+ * the changelog only sees the latest entry per commit), but an entry is only
+ * forwarded when the sensor is seen for the first time or when its readings
+ * cross into a new heartbeat interval of event time. The catalog topic
+ * therefore carries at most one update per sensor and heartbeat, while
+ * first_seen and message_count stay exact.
+ */
+public class SensorCatalogProcessor implements FixedKeyProcessor<String, DbRawData, SensorCatalogEntry> {
+  private final String storeName;
+  private final long heartbeatMs;
+
+  private FixedKeyProcessorContext<String, SensorCatalogEntry> context;
+  private KeyValueStore<String, SensorCatalogEntry> store;
+
+  /**
+   * @param storeName   Name of the SensorCatalogEntry key-value store
+   * @param heartbeatMs Event-time interval between updates of a known sensor
+   */
+  public SensorCatalogProcessor(String storeName, long heartbeatMs) {
+    this.storeName = storeName;
+    this.heartbeatMs = heartbeatMs;
+  }
+
+  @Override
+  public void init(FixedKeyProcessorContext<String, SensorCatalogEntry> context) {
+    this.context = context;
+    this.store = context.getStateStore(storeName);
+  }
+
+  @Override
+  public void process(FixedKeyRecord<String, DbRawData> record) {
+    String sensor = record.key();
+    if (sensor == null || record.value() == null) {
+      return;
+    }
+    // The reading's own time, whether or not the source uses the event-time extractor
+    Long readingTimestamp = record.value().getTimestamp();
+    long timestamp = readingTimestamp != null ? readingTimestamp : record.timestamp();
+    long readings = record.value().getReadingCount();
+
+    SensorCatalogEntry entry = store.get(sensor);
+    if (entry == null) {
+      entry = new SensorCatalogEntry(sensor, timestamp, timestamp, readings);
+      store.put(sensor, entry);
+      context.forward(record.withValue(entry));
+      return;
+    }
+
+    long previousLastSeen = entry.getLastSeen();
+    entry.setFirstSeen(Math.min(entry.getFirstSeen(), timestamp));
+    entry.setLastSeen(Math.max(previousLastSeen, timestamp));
+    entry.setMessageCount(entry.getMessageCount() + readings);
+    store.put(sensor, entry);
+
+    if (Math.floorDiv(entry.getLastSeen(), heartbeatMs) != Math.floorDiv(previousLastSeen, heartbeatMs)) {
+      context.forward(record.withValue(entry));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.kstreams;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Interns MQTT topic paths to canonical sensor names.
+ *
+ * The sensor set is small and stable, so after warm-up every lookup is a
+ * single hash map hit on the topic path that returns the same name String
+ * every time, without splitting the path or allocating. Since the names are
+ * shared instances, String.equals on the record keys short-circuits on
+ * identity in the in-app maps downstream.
+ *
+ * The cache is bounded: once it holds maxEntries topic paths, further unknown
+ * paths are still resolved but not cached, so a flood of bogus topics cannot
+ * exhaust the heap.
+ */
+public class SensorRegistry {
+  private static final Logger logger = LoggerFactory.getLogger(SensorRegistry.class);
+
+  /** Marker for topic paths that contain no sensor name */
+  private static final String NO_SENSOR = "";
+
+  private final int maxEntries;
+  private final Map<String, String> byTopic = new ConcurrentHashMap<>();
+  private final Map<String, String> byName = new ConcurrentHashMap<>();
+  private final AtomicBoolean fullLogged = new AtomicBoolean();
+
+  /**
+   * @param maxEntries Maximum number of topic paths and sensors kept in the cache
+   */
+  public SensorRegistry(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Resolves an MQTT topic path to its sensor.
+   *
+   * @param topic MQTT topic path (e.g., "/sensors/sensor_001")
+   * @return The canonical sensor name, or null if the path has no sensor segment
+   */
+  public String lookup(String topic) {
+    String sensor = byTopic.get(topic);
+    if (sensor == null) {
+      sensor = resolve(topic);
+    }
+    return sensor.isEmpty() ? null : sensor;
+  }
+
+  /**
+   * @return Number of distinct sensors registered so far
+   */
+  public int size() {
+    return byName.size();
+  }
+
+  private String resolve(String topic) {
+    String name = lastSegment(topic);
+    String sensor;
+    if (name == null) {
+      sensor = NO_SENSOR;
+    } else {
+      sensor = byName.get(name);
+      if (sensor == null) {
+        sensor = byName.size() < maxEntries ? byName.computeIfAbsent(name, key -> key) : name;
+      }
+    }
+
+    if (byTopic.size() < maxEntries) {
+      byTopic.putIfAbsent(topic, sensor);
+    } else if (fullLogged.compareAndSet(false, true)) {
+      logger.warn("Sensor registry is full ({} topic paths); further sensors are resolved without caching",
+          maxEntries);
+    }
+    return sensor;
+  }
+
+  /**
+   * Returns the last non-empty '/'-separated segment of a topic path, matching
+   * the result of the former split("/") based extraction.
+   *
+   * @param topic MQTT topic path
+   * @return The last segment, or null if there is none
+   */
+  static String lastSegment(String topic) {
+    int end = topic.length();
+    while (end > 0 && topic.charAt(end - 1) == '/') {
+      end--;
+    }
+    if (end == 0) {
+      return null;
+    }
+    int start = topic.lastIndexOf('/', end - 1) + 1;
+    return topic.substring(start, end);
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Settings that shape the topology built by MqttDbStreamsApp.buildTopology,
+ * as opposed to client settings such as bootstrap servers or the metrics port.
+ *
+ * @param hourlyAggregationEnabled Whether the hourly redis.aggdata branch is built
+ * @param hourlyAggregationGrace   Grace period for late readings in hourly windows
+ * @param hourBucketFormat         Hour bucket representation in emitted documents
+ * @param microBatchInterval       Length of db.rawdata micro-batches (zero disables batching)
+ * @param microBatchGrace          Grace period for late readings in micro-batches
+ * @param dedupRetention           How long readings are remembered for duplicate suppression (zero disables it)
+ * @param statsEnabled             Whether rolling 1h and 24h statistics are published to sensors.stats
+ * @param statsEmitInterval        How often updated statistics are published
+ * @param catalogEnabled           Whether the sensors.catalog topic is maintained
+ * @param catalogHeartbeat         Event-time interval between catalog updates of a known sensor
+ * @param hotSensors               Sensors whose hourly sums are split over several shards (empty disables it)
+ * @param hotSensorFanout          Number of shards per hot sensor
+ */
+public record TopologySettings(
+    boolean hourlyAggregationEnabled,
+    Duration hourlyAggregationGrace,
+    HourBucketFormat hourBucketFormat,
+    Duration microBatchInterval,
+    Duration microBatchGrace,
+    Duration dedupRetention,
+    boolean statsEnabled,
+    Duration statsEmitInterval,
+    boolean catalogEnabled,
+    Duration catalogHeartbeat,
+    Set<String> hotSensors,
+    int hotSensorFanout) {
+
+  /**
+   * Loads the settings from environment variables with fallback defaults.
+   *
+   * @return Settings for the running application
+   */
+  public static TopologySettings fromEnvironment() {
+    return new TopologySettings(
+        Boolean.parseBoolean(System.getenv().getOrDefault("HOURLY_AGGREGATION_ENABLED", "false")),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("HOURLY_AGGREGATION_GRACE_SECONDS", "300"))),
+        HourBucketFormat.fromString(System.getenv().getOrDefault("REDIS_HOUR_BUCKET_FORMAT", "string")),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("MICRO_BATCH_INTERVAL_SECONDS", "0"))),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("MICRO_BATCH_GRACE_SECONDS", "10"))),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("DEDUP_RETENTION_SECONDS", "600"))),
+        Boolean.parseBoolean(System.getenv().getOrDefault("STATS_ENABLED", "true")),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("STATS_EMIT_INTERVAL_SECONDS", "10"))),
+        Boolean.parseBoolean(System.getenv().getOrDefault("SENSOR_CATALOG_ENABLED", "true")),
+        Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("SENSOR_CATALOG_HEARTBEAT_SECONDS", "300"))),
+        parseSensorList(System.getenv().getOrDefault("HOT_SENSORS", "")),
+        Integer.parseInt(System.getenv().getOrDefault("HOT_SENSOR_FANOUT", "4")));
+  }
+
+  /**
+   * @param value Comma-separated sensor names
+   * @return The names, without blanks and surrounding whitespace
+   */
+  static Set<String> parseSensorList(String value) {
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+}
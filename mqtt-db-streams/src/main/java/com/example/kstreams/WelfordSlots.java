@@ -0,0 +1,199 @@
+package com.example.kstreams;
+
+import java.util.Arrays;
+
+import com.example.avro.WindowStats;
+
+/**
+ * Rolling count, mean, variance, minimum and maximum over a window of fixed
+ * time slots, kept in primitive arrays.
+ *
+ * Each slot covers slotMillis of event time and is addressed by its slot
+ * number (timestamp / slotMillis) modulo the number of slots, like the hourly
+ * ring buffer. A reading updates its slot's accumulator with Welford's
+ * algorithm in constant time and is not retained; a slot that is reused for a
+ * newer slot number is reset first. A window summary merges the slots it
+ * covers with the parallel variance formula (Chan et al.), so the window
+ * slides in slot steps without ever revisiting individual readings.
+ *
+ * Instances are mutable and not thread-safe; each one belongs to a single
+ * sensor key inside a Kafka Streams task.
+ */
+public class WelfordSlots {
+  /** Marker for an empty slot */
+  static final long NO_SLOT = Long.MIN_VALUE;
+
+  private final long slotMillis;
+  private final long[] slotNumbers;
+  private final long[] counts;
+  private final double[] means;
+  private final double[] m2s;
+  private final double[] mins;
+  private final double[] maxs;
+
+  /**
+   * @param slots      Number of slots in the window
+   * @param slotMillis Event time covered by each slot
+   */
+  public WelfordSlots(int slots, long slotMillis) {
+    this.slotMillis = slotMillis;
+    this.slotNumbers = new long[slots];
+    this.counts = new long[slots];
+    this.means = new double[slots];
+    this.m2s = new double[slots];
+    this.mins = new double[slots];
+    this.maxs = new double[slots];
+    Arrays.fill(slotNumbers, NO_SLOT);
+  }
+
+  /**
+   * Adds a reading to the slot of its timestamp.
+   *
+   * @param timestamp Event time in milliseconds since epoch
+   * @param value     Reading value
+   * @param reference Newest event time of the sensor; readings older than
+   *                  the window ending there are ignored
+   * @return true if the reading was added
+   */
+  public boolean add(long timestamp, double value, long reference) {
+    long slotNumber = Math.floorDiv(timestamp, slotMillis);
+    if (slotNumber <= Math.floorDiv(reference, slotMillis) - slotNumbers.length) {
+      return false;
+    }
+
+    int slot = slotOf(slotNumber);
+    if (slotNumbers[slot] != slotNumber) {
+      slotNumbers[slot] = slotNumber;
+      counts[slot] = 0;
+      means[slot] = 0;
+      m2s[slot] = 0;
+      mins[slot] = value;
+      maxs[slot] = value;
+    }
+
+    long count = ++counts[slot];
+    double delta = value - means[slot];
+    means[slot] += delta / count;
+    m2s[slot] += delta * (value - means[slot]);
+    mins[slot] = Math.min(mins[slot], value);
+    maxs[slot] = Math.max(maxs[slot], value);
+    return true;
+  }
+
+  /**
+   * Clears every slot that lies entirely before the window ending at the
+   * given time.
+   *
+   * @param reference End of the window in milliseconds since epoch
+   * @return true if at least one slot was cleared
+   */
+  public boolean evictBefore(long reference) {
+    long oldestSlotNumber = Math.floorDiv(reference, slotMillis) - slotNumbers.length + 1;
+    boolean removed = false;
+    for (int slot = 0; slot < slotNumbers.length; slot++) {
+      if (slotNumbers[slot] != NO_SLOT && slotNumbers[slot] < oldestSlotNumber) {
+        slotNumbers[slot] = NO_SLOT;
+        removed = true;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * @return true if no slot holds readings
+   */
+  public boolean isEmpty() {
+    for (long slotNumber : slotNumbers) {
+      if (slotNumber != NO_SLOT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Merges the slots of the window ending at the given time.
+   *
+   * @param reference End of the window in milliseconds since epoch
+   * @return Summary of the readings in the window (all zero if there are none)
+   */
+  public WindowStats summarize(long reference) {
+    long oldestSlotNumber = Math.floorDiv(reference, slotMillis) - slotNumbers.length + 1;
+    long count = 0;
+    double mean = 0;
+    double m2 = 0;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+
+    for (int slot = 0; slot < slotNumbers.length; slot++) {
+      if (slotNumbers[slot] == NO_SLOT || slotNumbers[slot] < oldestSlotNumber || counts[slot] == 0) {
+        continue;
+      }
+      long slotCount = counts[slot];
+      long merged = count + slotCount;
+      double delta = means[slot] - mean;
+      mean += delta * slotCount / merged;
+      m2 += m2s[slot] + delta * delta * count * slotCount / merged;
+      count = merged;
+      min = Math.min(min, mins[slot]);
+      max = Math.max(max, maxs[slot]);
+    }
+
+    if (count == 0) {
+      return new WindowStats(0L, 0.0, 0.0, 0.0, 0.0, 0.0);
+    }
+    return new WindowStats(count, mean * count, min, max, mean, m2 / count);
+  }
+
+  /**
+   * @return Number of slots in the window
+   */
+  int slots() {
+    return slotNumbers.length;
+  }
+
+  /**
+   * @param slot Slot index in [0, slots)
+   * @return Slot number held by the slot, or NO_SLOT if it is empty
+   */
+  long slotNumberAt(int slot) {
+    return slotNumbers[slot];
+  }
+
+  long countAt(int slot) {
+    return counts[slot];
+  }
+
+  double meanAt(int slot) {
+    return means[slot];
+  }
+
+  double m2At(int slot) {
+    return m2s[slot];
+  }
+
+  double minAt(int slot) {
+    return mins[slot];
+  }
+
+  double maxAt(int slot) {
+    return maxs[slot];
+  }
+
+  /**
+   * Restores one slot from its raw accumulator state.
+   */
+  void restoreSlot(long slotNumber, long count, double mean, double m2, double min, double max) {
+    int slot = slotOf(slotNumber);
+    slotNumbers[slot] = slotNumber;
+    counts[slot] = count;
+    means[slot] = mean;
+    m2s[slot] = m2;
+    mins[slot] = min;
+    maxs[slot] = max;
+  }
+
+  private int slotOf(long slotNumber) {
+    return (int) Math.floorMod(slotNumber, (long) slotNumbers.length);
+  }
+}
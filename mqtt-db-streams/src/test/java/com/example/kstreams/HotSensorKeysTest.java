@@ -0,0 +1,61 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.avro.DbRawData;
+
+class HotSensorKeysTest {
+
+  /** 2024-06-01 00:00:00 UTC */
+  private static final long T0 = 1_717_200_000_000L;
+
+  private final HotSensorKeys keys = new HotSensorKeys(Set.of("sensor_001"), 4);
+
+  @Test
+  void leavesOtherSensorsUnsharded() {
+    String key = keys.apply("sensor_002", reading("sensor_002", T0));
+
+    assertEquals("sensor_002", key);
+    assertEquals("sensor_002", HotSensorKeys.sensorOf(key));
+    assertEquals(HotSensorKeys.UNSHARDED, HotSensorKeys.shardOf(key));
+  }
+
+  @Test
+  void subKeysHotSensorsByReadingTimestamp() {
+    String key = keys.apply("sensor_001", reading("sensor_001", T0));
+
+    assertEquals("sensor_001", HotSensorKeys.sensorOf(key));
+    assertEquals(key, keys.apply("sensor_001", reading("sensor_001", T0))); // Redeliveries land on the same shard
+  }
+
+  @Test
+  void spreadsEvenlySpacedReadingsOverEveryShard() {
+    Set<Integer> shards = new HashSet<>();
+    for (int i = 0; i < 20; i++) {
+      shards.add(HotSensorKeys.shardOf(keys.apply("sensor_001", reading("sensor_001", T0 + i * 1000L))));
+    }
+
+    assertEquals(Set.of(0, 1, 2, 3), shards);
+  }
+
+  @Test
+  void keepsSeparatorsInsideSensorNames() {
+    assertEquals("site#7/meter", HotSensorKeys.sensorOf("site#7/meter#3"));
+    assertEquals(3, HotSensorKeys.shardOf("site#7/meter#3"));
+  }
+
+  @Test
+  void rejectsAFanoutBelowTwo() {
+    assertThrows(IllegalArgumentException.class, () -> new HotSensorKeys(Set.of("sensor_001"), 1));
+  }
+
+  private static DbRawData reading(String sensor, long timestamp) {
+    return new DbRawData(sensor, 1.0, timestamp, 1L);
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class HourlyPartialSerdeTest {
+
+  private static final String TOPIC = "mqtt-db-streams-hourly-partials-by-sensor-repartition";
+
+  private final HourlyPartialSerde serde = new HourlyPartialSerde();
+
+  @Test
+  void roundTripsAPartial() {
+    HourlyPartial partial = new HourlyPartial(3, 477_000L, 12.5);
+
+    byte[] bytes = serde.serializer().serialize(TOPIC, partial);
+
+    assertEquals(HourlyPartialSerde.SERIALIZED_SIZE, bytes.length);
+    assertEquals(partial, serde.deserializer().deserialize(TOPIC, bytes));
+  }
+
+  @Test
+  void passesTombstonesThrough() {
+    assertNull(serde.serializer().serialize(TOPIC, null));
+    assertNull(serde.deserializer().deserialize(TOPIC, null));
+  }
+
+  @Test
+  void rejectsUnknownLayouts() {
+    byte[] otherVersion = serde.serializer().serialize(TOPIC, new HourlyPartial(0, 477_000L, 1.0));
+    otherVersion[0] = 2;
+
+    assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, otherVersion));
+    assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, new byte[0]));
+  }
+}
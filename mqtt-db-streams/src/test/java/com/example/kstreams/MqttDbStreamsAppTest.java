@@ -0,0 +1,165 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.avro.DbRawData;
+import com.example.avro.HourEnergy;
+import com.example.avro.MqttRawData;
+import com.example.avro.RedisAggData;
+import com.example.avro.SensorCatalogEntry;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+
+class MqttDbStreamsAppTest {
+
+  private static final String REGISTRY_SCOPE = "mqtt-db-streams-test";
+  private static final Map<String, String> SERDE_CONFIG = Map.of("schema.registry.url", "mock://" + REGISTRY_SCOPE);
+  /** 2024-06-01 00:00:00 UTC */
+  private static final long T0 = 1_717_200_000_000L;
+
+  @TempDir
+  Path stateDir;
+
+  private TopologyTestDriver driver;
+  private TestInputTopic<String, MqttRawData> input;
+
+  @AfterEach
+  void tearDown() {
+    if (driver != null) {
+      driver.close();
+    }
+    MockSchemaRegistry.dropScope(REGISTRY_SCOPE);
+  }
+
+  @Test
+  void microBatchingSumsTheReadingsOfAnInterval() {
+    start(new TopologySettings(false, Duration.ofMinutes(5), HourBucketFormat.STRING,
+        Duration.ofMinutes(1), Duration.ZERO, Duration.ZERO, false, Duration.ofSeconds(10),
+        false, Duration.ofMinutes(5), Set.of(), 4));
+    TestOutputTopic<String, DbRawData> dbOutput = output(MqttDbStreamsApp.DB_OUTPUT_TOPIC);
+
+    pipe("sensor_001", T0, 1.0);
+    pipe("sensor_001", T0 + 10_000, 2.0);
+    pipe("sensor_001", T0 + 20_000, 3.0);
+    assertEquals(List.of(), dbOutput.readValuesToList()); // Window still open
+
+    pipe("sensor_001", T0 + 120_000, 5.0); // Advances stream time past the window end
+
+    List<DbRawData> batches = dbOutput.readValuesToList();
+    assertEquals(1, batches.size());
+    DbRawData batch = batches.get(0);
+    assertEquals("sensor_001", batch.getSensor().toString());
+    assertEquals(6.0, batch.getEnergy());
+    assertEquals(T0, batch.getTimestamp());
+    assertEquals(3L, batch.getReadingCount());
+  }
+
+  @Test
+  void deduplicationDropsRedeliveredReadings() {
+    start(new TopologySettings(false, Duration.ofMinutes(5), HourBucketFormat.STRING,
+        Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10), false, Duration.ofSeconds(10),
+        false, Duration.ofMinutes(5), Set.of(), 4));
+    TestOutputTopic<String, DbRawData> dbOutput = output(MqttDbStreamsApp.DB_OUTPUT_TOPIC);
+
+    pipe("sensor_001", T0, 1.0);
+    pipe("sensor_001", T0, 1.0); // Redelivered by the connector
+    pipe("sensor_002", T0, 2.0); // Same reading time, other sensor
+    pipe("sensor_001", T0 + 1000, 3.0);
+
+    List<KeyValue<String, DbRawData>> readings = dbOutput.readKeyValuesToList();
+    assertEquals(List.of("sensor_001", "sensor_002", "sensor_001"),
+        readings.stream().map(reading -> reading.key).toList());
+    assertEquals(List.of(1.0, 2.0, 3.0), readings.stream().map(reading -> reading.value.getEnergy()).toList());
+  }
+
+  @Test
+  void catalogUpdatesKnownSensorsOncePerHeartbeat() {
+    start(new TopologySettings(false, Duration.ofMinutes(5), HourBucketFormat.STRING,
+        Duration.ZERO, Duration.ZERO, Duration.ZERO, false, Duration.ofSeconds(10),
+        true, Duration.ofMinutes(5), Set.of(), 4));
+    TestOutputTopic<String, SensorCatalogEntry> catalogOutput = output(MqttDbStreamsApp.CATALOG_OUTPUT_TOPIC);
+
+    pipe("sensor_001", T0, 1.0); // First sight
+    pipe("sensor_001", T0 + 60_000, 1.0); // Same heartbeat interval
+    pipe("sensor_001", T0 + 360_000, 1.0); // Next heartbeat interval
+
+    List<SensorCatalogEntry> entries = catalogOutput.readValuesToList();
+    assertEquals(2, entries.size());
+    assertEquals(1L, entries.get(0).getMessageCount());
+    SensorCatalogEntry latest = entries.get(1);
+    assertEquals("sensor_001", latest.getSensor().toString());
+    assertEquals(T0, latest.getFirstSeen());
+    assertEquals(T0 + 360_000, latest.getLastSeen());
+    assertEquals(3L, latest.getMessageCount());
+  }
+
+  @Test
+  void hotSensorShardsAreMergedIntoOneHourlyTotal() {
+    start(new TopologySettings(true, Duration.ofMinutes(5), HourBucketFormat.EPOCH,
+        Duration.ZERO, Duration.ZERO, Duration.ZERO, false, Duration.ofSeconds(10),
+        false, Duration.ofMinutes(5), Set.of("sensor_001"), 4));
+    TestOutputTopic<String, RedisAggData> redisOutput = output(MqttDbStreamsApp.REDIS_OUTPUT_TOPIC);
+
+    for (int i = 0; i < 20; i++) {
+      pipe("sensor_001", T0 + i * 1000L, 1.0); // Spread over all four shards
+    }
+    for (int i = 0; i < 3; i++) {
+      pipe("sensor_002", T0 + i * 1000L, 1.0);
+    }
+
+    Map<String, RedisAggData> latest = redisOutput.readKeyValuesToMap();
+    assertEquals(Set.of("sensor_001", "sensor_002"), latest.keySet());
+    assertEquals(List.of(new HourEnergy(20.0, "", T0 / HourlyRingBuffer.MILLIS_PER_HOUR)),
+        latest.get("sensor_001").getData());
+    assertEquals(List.of(new HourEnergy(3.0, "", T0 / HourlyRingBuffer.MILLIS_PER_HOUR)),
+        latest.get("sensor_002").getData());
+  }
+
+  private void start(TopologySettings settings) {
+    Properties props = new Properties();
+    props.put(StreamsConfig.APPLICATION_ID_CONFIG, "mqtt-db-streams-test");
+    props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "test:9092");
+    props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+
+    driver = new TopologyTestDriver(MqttDbStreamsApp.buildTopology(SERDE_CONFIG, settings), props,
+        Instant.ofEpochMilli(T0));
+    input = driver.createInputTopic(MqttDbStreamsApp.MQTT_INPUT_TOPIC, new StringSerializer(),
+        this.<MqttRawData>avroSerde().serializer());
+  }
+
+  private void pipe(String sensor, long timestamp, double energy) {
+    input.pipeInput("/sensors/" + sensor, new MqttRawData(energy, timestamp), timestamp);
+  }
+
+  private <T extends SpecificRecord> TestOutputTopic<String, T> output(String topic) {
+    return driver.createOutputTopic(topic, new StringDeserializer(), this.<T>avroSerde().deserializer());
+  }
+
+  private <T extends SpecificRecord> Serde<T> avroSerde() {
+    SpecificAvroSerde<T> serde = new SpecificAvroSerde<>();
+    serde.configure(SERDE_CONFIG, false);
+    return serde;
+  }
+}
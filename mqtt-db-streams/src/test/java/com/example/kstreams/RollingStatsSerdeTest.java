@@ -0,0 +1,83 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class RollingStatsSerdeTest {
+
+  private static final String TOPIC = "rolling-stats-store-changelog";
+  /** 2024-06-01 00:00:00 UTC */
+  private static final long T0 = 1_717_200_000_000L;
+
+  private final RollingStatsSerde serde = new RollingStatsSerde();
+
+  @Test
+  void roundTripsOccupiedSlotsAndLeavesTheRestEmpty() {
+    RollingStats stats = new RollingStats();
+    // Every fifth 7-minute step, so both windows have gaps
+    for (int i = 0; i < 200; i += 5) {
+      stats.add(T0 + i * 7 * 60_000L, i * 0.5);
+    }
+    stats.setDirtySince(1_717_200_000_123L);
+    long end = stats.newestTimestamp();
+
+    RollingStats restored = roundTrip(stats);
+
+    assertEquals(stats.newestTimestamp(), restored.newestTimestamp());
+    assertEquals(stats.dirtySince(), restored.dirtySince());
+    assertEquals(stats.toSensorStats("sensor_001", end), restored.toSensorStats("sensor_001", end));
+    for (int slot = 0; slot < RollingStats.HOUR_SLOTS; slot++) {
+      assertEquals(stats.lastHour().slotNumberAt(slot), restored.lastHour().slotNumberAt(slot));
+    }
+    for (int slot = 0; slot < RollingStats.DAY_SLOTS; slot++) {
+      assertEquals(stats.lastDay().slotNumberAt(slot), restored.lastDay().slotNumberAt(slot));
+    }
+
+    // Restored accumulators keep merging like the originals
+    stats.add(end + 60_000, 42.0);
+    restored.add(end + 60_000, 42.0);
+    assertEquals(stats.toSensorStats("sensor_001", end + 60_000),
+        restored.toSensorStats("sensor_001", end + 60_000));
+  }
+
+  @Test
+  void roundTripsEmptyStatistics() {
+    RollingStats restored = roundTrip(new RollingStats());
+
+    assertTrue(restored.isEmpty());
+    assertEquals(Long.MIN_VALUE, restored.newestTimestamp());
+  }
+
+  @Test
+  void passesTombstonesThrough() {
+    assertNull(serde.serializer().serialize(TOPIC, null));
+    assertNull(serde.deserializer().deserialize(TOPIC, null));
+  }
+
+  @Test
+  void rejectsUnknownLayouts() {
+    RollingStats stats = new RollingStats();
+    stats.add(T0, 1.0);
+    byte[] bytes = serde.serializer().serialize(TOPIC, stats);
+
+    byte[] otherVersion = bytes.clone();
+    otherVersion[0] = 2;
+    assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, otherVersion));
+
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+    assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, truncated));
+
+    assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, new byte[0]));
+  }
+
+  private RollingStats roundTrip(RollingStats stats) {
+    return serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, stats));
+  }
+}
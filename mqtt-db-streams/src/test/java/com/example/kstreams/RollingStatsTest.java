@@ -0,0 +1,55 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.avro.SensorStats;
+
+class RollingStatsTest {
+
+  /** 2024-06-01 00:00:00 UTC */
+  private static final long T0 = 1_717_200_000_000L;
+  private static final long HOUR = HourlyRingBuffer.MILLIS_PER_HOUR;
+
+  @Test
+  void keepsTheLastHourAndTheLastDaySeparately() {
+    RollingStats stats = new RollingStats();
+    stats.add(T0, 1.0);
+    stats.add(T0 + 2 * HOUR, 3.0);
+    stats.add(T0 + 2 * HOUR + 60_000, 5.0);
+
+    SensorStats document = stats.toSensorStats("sensor_001", T0 + 2 * HOUR);
+    assertEquals(T0 + 2 * HOUR + 60_000, document.getUpdatedAt()); // The newest reading is later
+    assertEquals(2L, document.getLast1h().getCount());
+    assertEquals(4.0, document.getLast1h().getMean());
+    assertEquals(1.0, document.getLast1h().getVariance());
+    assertEquals(3L, document.getLast24h().getCount());
+    assertEquals(9.0, document.getLast24h().getSum());
+    assertEquals(1.0, document.getLast24h().getMin());
+  }
+
+  @Test
+  void rejectsReadingsOlderThan24HoursBeforeTheNewest() {
+    RollingStats stats = new RollingStats();
+    stats.add(T0 + 30 * HOUR, 1.0);
+
+    assertFalse(stats.add(T0, 2.0));
+    assertTrue(stats.add(T0 + 7 * HOUR, 3.0)); // Out of order, but inside the day window
+    assertEquals(2L, stats.toSensorStats("sensor_001", T0 + 30 * HOUR).getLast24h().getCount());
+    assertEquals(1L, stats.toSensorStats("sensor_001", T0 + 30 * HOUR).getLast1h().getCount());
+  }
+
+  @Test
+  void evictBeforeEmptiesIdleSensors() {
+    RollingStats stats = new RollingStats();
+    stats.add(T0, 1.0);
+
+    assertTrue(stats.evictBefore(T0 + 2 * HOUR)); // The hour window only
+    assertFalse(stats.isEmpty());
+    assertTrue(stats.evictBefore(T0 + 24 * HOUR));
+    assertTrue(stats.isEmpty());
+  }
+}
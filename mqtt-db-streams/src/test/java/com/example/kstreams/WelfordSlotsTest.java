@@ -0,0 +1,115 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.avro.WindowStats;
+
+class WelfordSlotsTest {
+
+  /** 2024-06-01 00:00:00 UTC */
+  private static final long T0 = 1_717_200_000_000L;
+  private static final int SLOTS = 12;
+  private static final long SLOT_MILLIS = 5 * 60_000L;
+  /** Newest reading time in the window starting at T0 */
+  private static final long END = T0 + SLOTS * SLOT_MILLIS - 1;
+
+  @Test
+  void mergedSlotsMatchADirectComputation() {
+    WelfordSlots slots = new WelfordSlots(SLOTS, SLOT_MILLIS);
+    double[] values = new double[100];
+    for (int i = 0; i < values.length; i++) {
+      // A large offset with small spread, where a naive sum of squares loses precision
+      values[i] = 1_000_000.0 + (i * 37 % 11) * 0.25;
+      assertTrue(slots.add(T0 + i * 35_000L, values[i], T0 + i * 35_000L));
+    }
+
+    assertStats(values, slots.summarize(END));
+  }
+
+  @Test
+  void acceptsOutOfOrderReadingsWithinTheWindow() {
+    WelfordSlots slots = new WelfordSlots(SLOTS, SLOT_MILLIS);
+    double[] values = { 4.0, 1.0, 7.0, 2.5, 3.0 };
+    long[] timestamps = { END, T0, T0 + 30 * 60_000L, T0 + 10 * 60_000L, T0 + 30 * 60_000L + 1 };
+    for (int i = 0; i < values.length; i++) {
+      assertTrue(slots.add(timestamps[i], values[i], END));
+    }
+
+    assertStats(values, slots.summarize(END));
+  }
+
+  @Test
+  void ignoresReadingsOlderThanTheWindow() {
+    WelfordSlots slots = new WelfordSlots(SLOTS, SLOT_MILLIS);
+    slots.add(END, 2.0, END);
+
+    assertFalse(slots.add(T0 - 1, 100.0, END));
+    assertTrue(slots.add(T0, 4.0, END));
+    assertStats(new double[] { 2.0, 4.0 }, slots.summarize(END));
+  }
+
+  @Test
+  void resetsASlotReusedForANewerSlotNumber() {
+    WelfordSlots slots = new WelfordSlots(SLOTS, SLOT_MILLIS);
+    slots.add(T0, 100.0, T0);
+
+    // Same slot index, one window later
+    long later = T0 + SLOTS * SLOT_MILLIS;
+    slots.add(later, 1.0, later);
+
+    assertStats(new double[] { 1.0 }, slots.summarize(later));
+  }
+
+  @Test
+  void summarizeSkipsSlotsBeforeTheWindow() {
+    WelfordSlots slots = new WelfordSlots(SLOTS, SLOT_MILLIS);
+    slots.add(T0, 1.0, T0);
+    slots.add(T0 + SLOT_MILLIS, 3.0, T0 + SLOT_MILLIS);
+
+    assertStats(new double[] { 3.0 }, slots.summarize(END + SLOT_MILLIS));
+  }
+
+  @Test
+  void evictBeforeClearsSlotsThatLeftTheWindow() {
+    WelfordSlots slots = new WelfordSlots(SLOTS, SLOT_MILLIS);
+    slots.add(T0, 1.0, T0);
+    slots.add(T0 + SLOT_MILLIS, 3.0, T0 + SLOT_MILLIS);
+
+    assertFalse(slots.evictBefore(END));
+    assertTrue(slots.evictBefore(END + SLOT_MILLIS));
+    assertFalse(slots.isEmpty());
+    assertTrue(slots.evictBefore(END + 2 * SLOT_MILLIS));
+    assertTrue(slots.isEmpty());
+    assertEquals(new WindowStats(0L, 0.0, 0.0, 0.0, 0.0, 0.0), slots.summarize(END + 2 * SLOT_MILLIS));
+  }
+
+  /**
+   * Compares a summary with the two-pass population statistics of the values.
+   */
+  private static void assertStats(double[] values, WindowStats stats) {
+    double sum = 0;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (double value : values) {
+      sum += value;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    double mean = sum / values.length;
+    double squares = 0;
+    for (double value : values) {
+      squares += (value - mean) * (value - mean);
+    }
+
+    assertEquals(values.length, stats.getCount());
+    assertEquals(sum, stats.getSum(), 1e-6);
+    assertEquals(min, stats.getMin());
+    assertEquals(max, stats.getMax());
+    assertEquals(mean, stats.getMean(), 1e-9);
+    assertEquals(squares / values.length, stats.getVariance(), 1e-9);
+  }
+}
@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Runs the Java load generator against the running stack and prints latency histograms.
+# Settings are passed through as LOADGEN_* environment variables, e.g.:
+#   LOADGEN_SENSORS=50000 LOADGEN_DURATION_SECONDS=600 ./run_load_test.sh
+#   LOADGEN_TARGET=kafka LOADGEN_PROBE_TOPICS=db.rawdata ./run_load_test.sh
+
+docker build -t load-generator -f load-generator/Dockerfile .
+
+env_args=()
+for name in $(compgen -e | grep '^LOADGEN_'); do
+    env_args+=(-e "$name")
+done
+
+docker run --rm --env-file .env "${env_args[@]}" --network diploma-thesis_default load-generator
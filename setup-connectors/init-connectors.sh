@@ -41,6 +41,17 @@ deploy_connector "/opt/kafka/configs/source.db.hourlydata.json" "source.db.hourl
 # Deploy Redis sink connector
 deploy_connector "/opt/kafka/configs/sink.redis.aggdata.json" "sink.redis.aggdata"
 
+# Deploy Redis sink connector for the long-range rollups
+deploy_connector "/opt/kafka/configs/sink.redis.rollups.json" "sink.redis.rollups"
+
+# Deploy Redis sink connector for the rolling sensor statistics
+deploy_connector "/opt/kafka/configs/sink.redis.stats.json" "sink.redis.stats"
+
+# Deploy Redis sink connectors for the sensor catalog: one JSON document per
+# sensor, plus the set of all sensor names read by the web server
+deploy_connector "/opt/kafka/configs/sink.redis.catalog.json" "sink.redis.catalog"
+deploy_connector "/opt/kafka/configs/sink.redis.catalog.names.json" "sink.redis.catalog.names"
+
 echo "=== Connectors deployment completed ==="
 
 # Verify connectors
@@ -40,6 +40,20 @@ post_schema "/opt/kafka/schemas/db.rawdata-value.avsc" "db.rawdata-value"
 # Post Redis aggregated sensor data schema (hourly aggregations for Redis)
 post_schema "/opt/kafka/schemas/redis.aggdata-value.avsc" "redis.aggdata-value"
 
+# Post Redis delta schema (per-hour changes applied by the delta writer)
+post_schema "/opt/kafka/schemas/redis.aggdelta-value.avsc" "redis.aggdelta-value"
+
+# Post Redis rollup schema (daily, weekly and monthly totals for Redis)
+post_schema "/opt/kafka/schemas/redis.aggdata.rollup-value.avsc" "redis.aggdata.daily-value"
+post_schema "/opt/kafka/schemas/redis.aggdata.rollup-value.avsc" "redis.aggdata.weekly-value"
+post_schema "/opt/kafka/schemas/redis.aggdata.rollup-value.avsc" "redis.aggdata.monthly-value"
+
+# Post rolling sensor statistics schema (1h and 24h statistics for Redis)
+post_schema "/opt/kafka/schemas/sensors.stats-value.avsc" "sensors.stats-value"
+
+# Post sensor catalog schema (known sensors for Redis)
+post_schema "/opt/kafka/schemas/sensors.catalog-value.avsc" "sensors.catalog-value"
+
 # Post Debezium hourly data schema (CDC events from database)
 # post_schema "/opt/kafka/schemas/db.public.hourlydata-value.avsc" "db.public.hourlydata-value"
 
@@ -46,6 +46,20 @@ create_topic "db.rawdata" 3 1 "retention.ms=604800000" # 7 days
 # Topic for Redis aggregated data
 create_topic "redis.aggdata" 3 1 "cleanup.policy=compact"
 
+# Topic for per-hour Redis updates (REDIS_OUTPUT_MODE=delta); deltas are applied once, so keep one day
+create_topic "redis.aggdelta" 3 1 "retention.ms=86400000"
+
+# Topics for Redis long-range rollups (daily, weekly and monthly totals per sensor)
+create_topic "redis.aggdata.daily" 3 1 "cleanup.policy=compact"
+create_topic "redis.aggdata.weekly" 3 1 "cleanup.policy=compact"
+create_topic "redis.aggdata.monthly" 3 1 "cleanup.policy=compact"
+
+# Topic for rolling 1h and 24h statistics per sensor
+create_topic "sensors.stats" 3 1 "cleanup.policy=compact"
+
+# Topic for the catalog of known sensors (first seen, last seen, reading count)
+create_topic "sensors.catalog" 3 1 "cleanup.policy=compact"
+
 echo "=== Topics creation completed ==="
 
 # Verify topics
@@ -0,0 +1,4 @@
+-- Adds the reading_count column to databases created before micro-batching.
+-- timescaledb-init.sql only runs when the database is first created, while the
+-- db.rawdata JDBC sink always writes reading_count. Safe to run repeatedly.
+ALTER TABLE rawdata ADD COLUMN IF NOT EXISTS "reading_count" BIGINT NOT NULL DEFAULT 1;
@@ -1,16 +1,22 @@
 -- TimescaleDB Initialization Script
 -- This script sets up the database schema and configuration for the data processing pipeline.
 -- It is executed automatically when the TimescaleDB container starts for the first time.
+-- Schema changes made after a database was created are applied by the scripts in
+-- sql/migrations (db-migrations service), which must stay idempotent.
 
 -- Table to store raw sensor data received from MQTT.
 -- Columns:
 --   sensor    - The sensor identifier.
 --   timestamp - The time of data capture.
---   energy    - The energy reading from the sensor.
+--   energy    - The energy reading from the sensor, or the sum of the readings
+--               of a micro-batch interval starting at 'timestamp'.
+--   reading_count - Number of readings summed into 'energy' (1 unless
+--               micro-batching is enabled in mqtt-db-streams).
 CREATE TABLE rawdata (
     "sensor" TEXT NOT NULL,
     "timestamp" TIMESTAMP NOT NULL,
-    "energy" FLOAT NOT NULL
+    "energy" FLOAT NOT NULL,
+    "reading_count" BIGINT NOT NULL DEFAULT 1
 );
 
 -- Create a unique index on (sensor, timestamp) to act as a composite primary key.
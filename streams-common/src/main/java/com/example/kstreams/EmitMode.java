@@ -0,0 +1,36 @@
+package com.example.kstreams;
+
+/**
+ * Strategy for publishing updated RedisAggData documents.
+ *
+ * A continuous-aggregate refresh rewrites many hour buckets of a sensor at
+ * once, producing a burst of CDC events. The rate-limited modes coalesce the
+ * intermediate states so the number of Redis writes scales with the number
+ * of sensors and the emit interval rather than with the CDC event count.
+ */
+public enum EmitMode {
+    /** Emits a document for every update (original behaviour). */
+    EAGER,
+    /**
+     * Emits at most one document per sensor per interval; updates arriving
+     * within the interval are coalesced into the next emit.
+     */
+    INTERVAL,
+    /**
+     * Emits a sensor's document once no further update has arrived for the
+     * whole interval (suppress until quiet), or at the latest five intervals
+     * after its first unpublished update.
+     */
+    QUIET;
+
+    /**
+     * Parses a mode name case-insensitively.
+     *
+     * @param value Mode name (e.g., "eager", "interval" or "quiet")
+     * @return The matching mode
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static EmitMode fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
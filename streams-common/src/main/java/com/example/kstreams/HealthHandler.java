@@ -0,0 +1,90 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+import org.apache.kafka.streams.KafkaStreams;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * HTTP handler serving the liveness (GET /health) and readiness (GET /ready)
+ * probes.
+ *
+ * The response body is the reported state: the Kafka Streams client state,
+ * except that RUNNING is only reported once no changelog partition is being
+ * restored (RESTORING until then). Kafka Streams can already be RUNNING while
+ * some tasks still restore, and serving from half-restored stores would show
+ * a cold cache.
+ *
+ * Liveness fails (503) only when the client has stopped or failed, so an
+ * orchestrator restarts the instance; readiness fails until the reported
+ * state is RUNNING, so traffic and rolling updates wait for restoration.
+ * Components running beside Kafka Streams (e.g., a consumer thread) can be
+ * checked as well: once one reports a failure, both probes fail and the
+ * reported state is ERROR.
+ */
+public class HealthHandler implements HttpHandler {
+
+    private final KafkaStreams streams;
+    private final RestoreProgressListener restoreListener;
+    private final boolean readiness;
+    private final BooleanSupplier componentsHealthy;
+
+    /**
+     * @param streams         Kafka Streams instance whose state is reported
+     * @param restoreListener Restore listener registered with the instance
+     * @param readiness       true for the readiness probe, false for liveness
+     */
+    public HealthHandler(KafkaStreams streams, RestoreProgressListener restoreListener, boolean readiness) {
+        this(streams, restoreListener, readiness, () -> true);
+    }
+
+    /**
+     * @param streams           Kafka Streams instance whose state is reported
+     * @param restoreListener   Restore listener registered with the instance
+     * @param readiness         true for the readiness probe, false for liveness
+     * @param componentsHealthy false once a component running beside Kafka
+     *                          Streams has failed
+     */
+    public HealthHandler(KafkaStreams streams, RestoreProgressListener restoreListener, boolean readiness,
+            BooleanSupplier componentsHealthy) {
+        this.streams = streams;
+        this.restoreListener = restoreListener;
+        this.readiness = readiness;
+        this.componentsHealthy = componentsHealthy;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            KafkaStreams.State state = streams.state();
+            boolean componentsUp = componentsHealthy.getAsBoolean();
+            String reported = !componentsUp
+                    ? "ERROR"
+                    : state == KafkaStreams.State.RUNNING && restoreListener.isRestoring()
+                            ? "RESTORING"
+                            : state.name();
+            boolean healthy = componentsUp && (readiness
+                    ? "RUNNING".equals(reported)
+                    : state.isRunningOrRebalancing() || state == KafkaStreams.State.CREATED);
+
+            byte[] bytes = (reported + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(healthy ? 200 : 503, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
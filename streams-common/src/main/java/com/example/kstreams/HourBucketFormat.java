@@ -0,0 +1,28 @@
+package com.example.kstreams;
+
+/**
+ * Representation of the hour bucket in RedisAggData documents.
+ *
+ * Internally the topology carries hour buckets as epoch-hours only; the
+ * format decides what is rendered when a document leaves the application.
+ */
+public enum HourBucketFormat {
+    /**
+     * Compatibility mode: renders the 'yyyy-MM-dd HH:mm:ss' UTC string in
+     * hour_bucket for existing Redis consumers and also fills hour_epoch.
+     */
+    STRING,
+    /** Fills hour_epoch only and leaves hour_bucket empty. */
+    EPOCH;
+
+    /**
+     * Parses a format name case-insensitively.
+     *
+     * @param value Format name (e.g., "string" or "epoch")
+     * @return The matching format
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static HourBucketFormat fromString(String value) {
+        return valueOf(value.trim().toUpperCase());
+    }
+}
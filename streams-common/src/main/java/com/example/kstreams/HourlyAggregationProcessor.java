@@ -0,0 +1,237 @@
+package com.example.kstreams;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+
+/**
+ * Processor that maintains the last 24 hours of energy totals per sensor.
+ *
+ * Each incoming HourEnergy record is written into the sensor's
+ * HourlyRingBuffer and the updated RedisAggData document is forwarded
+ * downstream, either immediately or rate-limited according to the EmitMode.
+ * In the rate-limited modes, sensors with unpublished updates are tracked in
+ * memory and flushed by a wall-clock punctuator; the buffer also records when
+ * it became dirty, so pending emits survive a restart.
+ *
+ * A second punctuator periodically scans the store and drops hours that are
+ * older than 24 hours relative to the punctuation time. Sensors whose buffer
+ * changed get a trimmed document; sensors with no hours left are removed from
+ * the store and a tombstone (null value) is forwarded so the Redis key is
+ * deleted. State size and Redis key count therefore follow the set of active
+ * sensors rather than every sensor ever seen.
+ */
+public class HourlyAggregationProcessor implements Processor<String, HourEnergy, String, RedisAggData> {
+    private static final Logger logger = LoggerFactory.getLogger(HourlyAggregationProcessor.class);
+
+    /** Length of the window kept per sensor */
+    private static final long WINDOW_MILLIS = Duration.ofHours(HourlyRingBuffer.SLOTS).toMillis();
+    /** Lower bound for the pending-emit flush schedule */
+    private static final long MIN_FLUSH_INTERVAL_MS = 100;
+    /** Longest a QUIET-mode update waits for its sensor to go quiet, in emit intervals */
+    static final int QUIET_MAX_DELAY_INTERVALS = 5;
+
+    private final String storeName;
+    private final HourBucketFormat hourBucketFormat;
+    private final Duration evictionInterval;
+    private final PunctuationType evictionPunctuationType;
+    private final EmitMode emitMode;
+    private final long emitIntervalMs;
+    private final PipelineMetrics metrics;
+
+    /** Sensors with unpublished updates, mapped to the wall-clock time they are due */
+    private final Map<String, Long> pendingEmits = new HashMap<>();
+    /** Wall-clock time of the last emit per sensor (INTERVAL mode only) */
+    private final Map<String, Long> lastEmitted = new HashMap<>();
+
+    private ProcessorContext<String, RedisAggData> context;
+    private KeyValueStore<String, HourlyRingBuffer> store;
+
+    /**
+     * @param storeName               Name of the HourlyRingBuffer key-value store
+     * @param hourBucketFormat        Hour bucket representation in emitted documents
+     * @param evictionInterval        How often expired hours are evicted
+     * @param evictionPunctuationType Whether eviction follows stream time or wall-clock time
+     * @param emitMode                How updated documents are published
+     * @param emitInterval            Minimum interval or quiet period for rate-limited modes
+     * @param metrics                 Metrics that count hours dropped as outside the window
+     */
+    public HourlyAggregationProcessor(String storeName, HourBucketFormat hourBucketFormat, Duration evictionInterval,
+            PunctuationType evictionPunctuationType, EmitMode emitMode, Duration emitInterval,
+            PipelineMetrics metrics) {
+        this.storeName = storeName;
+        this.hourBucketFormat = hourBucketFormat;
+        this.evictionInterval = evictionInterval;
+        this.evictionPunctuationType = evictionPunctuationType;
+        this.emitMode = emitMode;
+        this.emitIntervalMs = emitInterval.toMillis();
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, RedisAggData> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        context.schedule(evictionInterval, evictionPunctuationType, this::evictExpiredHours);
+
+        if (emitMode != EmitMode.EAGER) {
+            recoverPendingEmits();
+            Duration flushInterval = Duration.ofMillis(Math.max(MIN_FLUSH_INTERVAL_MS, emitIntervalMs / 2));
+            context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, this::flushPendingEmits);
+        }
+    }
+
+    @Override
+    public void process(Record<String, HourEnergy> record) {
+        String sensor = record.key();
+        HourEnergy hourEnergy = record.value();
+        if (sensor == null || hourEnergy == null) {
+            return;
+        }
+
+        HourlyRingBuffer buffer = store.get(sensor);
+        if (buffer == null) {
+            buffer = new HourlyRingBuffer();
+        }
+
+        long epochHour = hourEnergy.getHourEpoch();
+        if (!buffer.put(epochHour, hourEnergy.getEnergyTotal())) {
+            logger.debug("Ignoring hour_epoch {} for sensor {}: older than the 24-hour window", epochHour, sensor);
+            metrics.recordDrop(PipelineMetrics.DropReason.OUTSIDE_24H);
+            return;
+        }
+
+        if (emitMode == EmitMode.EAGER) {
+            store.put(sensor, buffer);
+            context.forward(record.withValue(buffer.toRedisAggData(hourBucketFormat)));
+            return;
+        }
+
+        long now = context.currentSystemTimeMs();
+        if (emitMode == EmitMode.INTERVAL) {
+            Long last = lastEmitted.get(sensor);
+            if (last == null || now - last >= emitIntervalMs) {
+                pendingEmits.remove(sensor);
+                emit(sensor, buffer, record.timestamp(), now);
+                return;
+            }
+            pendingEmits.putIfAbsent(sensor, last + emitIntervalMs);
+        }
+
+        if (buffer.dirtySince() == 0) {
+            buffer.setDirtySince(now);
+        }
+        if (emitMode == EmitMode.QUIET) {
+            // Every update restarts the quiet period, but a sensor that never goes quiet is
+            // still published once its oldest unpublished update reaches the maximum delay
+            pendingEmits.put(sensor, Math.min(now + emitIntervalMs,
+                    buffer.dirtySince() + QUIET_MAX_DELAY_INTERVALS * emitIntervalMs));
+        }
+        store.put(sensor, buffer);
+    }
+
+    /**
+     * Stores the buffer as clean and forwards its RedisAggData document.
+     */
+    private void emit(String sensor, HourlyRingBuffer buffer, long timestamp, long now) {
+        buffer.setDirtySince(0);
+        store.put(sensor, buffer);
+        context.forward(new Record<>(sensor, buffer.toRedisAggData(hourBucketFormat), timestamp));
+        if (emitMode == EmitMode.INTERVAL) {
+            lastEmitted.put(sensor, now);
+        }
+    }
+
+    /**
+     * Punctuator that emits every pending sensor whose due time has passed.
+     *
+     * @param timestamp Current wall-clock time
+     */
+    private void flushPendingEmits(long timestamp) {
+        Iterator<Map.Entry<String, Long>> iterator = pendingEmits.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> pending = iterator.next();
+            if (pending.getValue() > timestamp) {
+                continue;
+            }
+            iterator.remove();
+
+            HourlyRingBuffer buffer = store.get(pending.getKey());
+            if (buffer != null && buffer.dirtySince() != 0) {
+                emit(pending.getKey(), buffer, timestamp, timestamp);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the pending-emit set from buffers that were stored dirty before
+     * a restart or rebalance, so their coalesced updates are not lost.
+     */
+    private void recoverPendingEmits() {
+        long now = context.currentSystemTimeMs();
+        try (KeyValueIterator<String, HourlyRingBuffer> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, HourlyRingBuffer> entry = iterator.next();
+                if (entry.value.dirtySince() != 0) {
+                    pendingEmits.put(entry.key, now);
+                }
+            }
+        }
+        if (!pendingEmits.isEmpty()) {
+            logger.info("Recovered {} sensors with pending emits", pendingEmits.size());
+        }
+    }
+
+    /**
+     * Punctuator that trims every sensor's buffer to the 24 hours preceding the
+     * given time, forwarding trimmed documents and tombstones for empty sensors.
+     *
+     * @param timestamp Stream time or wall-clock time of the punctuation
+     */
+    private void evictExpiredHours(long timestamp) {
+        long oldestHourToKeep = Math.ceilDiv(timestamp - WINDOW_MILLIS, HourlyRingBuffer.MILLIS_PER_HOUR);
+        long now = context.currentSystemTimeMs();
+        int trimmed = 0;
+        int removed = 0;
+
+        try (KeyValueIterator<String, HourlyRingBuffer> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<String, HourlyRingBuffer> entry = iterator.next();
+                HourlyRingBuffer buffer = entry.value;
+                if (!buffer.evictBefore(oldestHourToKeep)) {
+                    continue;
+                }
+
+                pendingEmits.remove(entry.key);
+                if (buffer.isEmpty()) {
+                    store.delete(entry.key);
+                    lastEmitted.remove(entry.key);
+                    context.forward(new Record<>(entry.key, (RedisAggData) null, timestamp));
+                    removed++;
+                } else {
+                    emit(entry.key, buffer, timestamp, now);
+                    trimmed++;
+                }
+            }
+        }
+
+        if (trimmed > 0 || removed > 0) {
+            logger.info("Evicted hours before {}: {} sensors trimmed, {} sensors removed",
+                    HourlyRingBuffer.formatHourBucket(oldestHourToKeep), trimmed, removed);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.kstreams;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+
+/**
+ * Fixed-slot ring buffer holding the last 24 hourly energy totals of a sensor.
+ *
+ * Each hour is stored in slot (epoch-hour mod 24), so inserting, updating and
+ * evicting an hour are constant-time array operations. The buffer always
+ * covers the 24 hours ending at the newest hour seen: advancing the newest
+ * hour clears the slots that fall out of that window, and updates for hours
+ * older than the window are ignored.
+ *
+ * Hour buckets are kept as epoch-hours. The UTC string form is only rendered
+ * when the buffer is converted to RedisAggData, and is cached per slot so an
+ * hour is formatted at most once while it stays in the window.
+ *
+ * Instances are mutable and not thread-safe; each one belongs to a single
+ * sensor key inside a Kafka Streams task.
+ */
+public class HourlyRingBuffer {
+    /** Number of hourly slots kept per sensor */
+    static final int SLOTS = 24;
+    /** Marker for a buffer that has not seen any hour yet */
+    static final long NO_HOUR = Long.MIN_VALUE;
+    /** Milliseconds in one hour bucket */
+    static final long MILLIS_PER_HOUR = 3_600_000L;
+    /** UTC timestamp formatter for database compatibility */
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    private long newestHour = NO_HOUR;
+    private int presentMask = 0;
+    private final double[] totals = new double[SLOTS];
+    private final String[] labels = new String[SLOTS];
+    private long dirtySince = 0;
+
+    /**
+     * Inserts or updates the energy total of an hour.
+     *
+     * @param epochHour   Hours since the Unix epoch (UTC)
+     * @param energyTotal Total energy consumption for the hour
+     * @return true if the hour was stored, false if it is older than the window
+     */
+    public boolean put(long epochHour, double energyTotal) {
+        if (newestHour == NO_HOUR) {
+            newestHour = epochHour;
+        } else if (epochHour > newestHour) {
+            advanceTo(epochHour);
+        } else if (epochHour <= newestHour - SLOTS) {
+            return false;
+        }
+
+        int slot = slotOf(epochHour);
+        if ((presentMask & (1 << slot)) == 0) {
+            labels[slot] = null;
+        }
+        totals[slot] = energyTotal;
+        presentMask |= 1 << slot;
+        return true;
+    }
+
+    /**
+     * Moves the newest hour forward, clearing every slot that leaves the window.
+     */
+    private void advanceTo(long epochHour) {
+        if (epochHour - newestHour >= SLOTS) {
+            presentMask = 0;
+            Arrays.fill(labels, null);
+        } else {
+            for (long hour = newestHour + 1; hour <= epochHour; hour++) {
+                int slot = slotOf(hour);
+                presentMask &= ~(1 << slot);
+                labels[slot] = null;
+            }
+        }
+        newestHour = epochHour;
+    }
+
+    /**
+     * Removes every stored hour older than the given epoch-hour.
+     *
+     * @param oldestHourToKeep Oldest epoch-hour that stays in the buffer
+     * @return true if at least one hour was removed
+     */
+    public boolean evictBefore(long oldestHourToKeep) {
+        if (presentMask == 0) {
+            return false;
+        }
+        int before = presentMask;
+        if (oldestHourToKeep > newestHour) {
+            presentMask = 0;
+            Arrays.fill(labels, null);
+        } else {
+            for (long hour = newestHour - SLOTS + 1; hour < oldestHourToKeep; hour++) {
+                int slot = slotOf(hour);
+                presentMask &= ~(1 << slot);
+                labels[slot] = null;
+            }
+        }
+        return presentMask != before;
+    }
+
+    /**
+     * @return true if no hour is currently stored
+     */
+    public boolean isEmpty() {
+        return presentMask == 0;
+    }
+
+    /**
+     * @return Number of hours currently stored
+     */
+    public int size() {
+        return Integer.bitCount(presentMask);
+    }
+
+    /**
+     * @return Newest epoch-hour seen, or NO_HOUR if the buffer is new
+     */
+    long newestHour() {
+        return newestHour;
+    }
+
+    /**
+     * @return Bit mask of occupied slots (bit i set if slot i holds an hour)
+     */
+    int presentMask() {
+        return presentMask;
+    }
+
+    /**
+     * @param slot Slot index in [0, SLOTS)
+     * @return Energy total stored in the slot
+     */
+    double totalAt(int slot) {
+        return totals[slot];
+    }
+
+    /**
+     * @return Wall-clock time of the first update not yet emitted, or 0 if the
+     *         last emitted document is up to date
+     */
+    long dirtySince() {
+        return dirtySince;
+    }
+
+    /**
+     * Records when the buffer first diverged from the last emitted document.
+     *
+     * @param dirtySince Wall-clock time in milliseconds, or 0 once emitted
+     */
+    void setDirtySince(long dirtySince) {
+        this.dirtySince = dirtySince;
+    }
+
+    /**
+     * Restores a buffer from its raw slot layout.
+     *
+     * @param newestHour  Newest epoch-hour seen, or NO_HOUR
+     * @param presentMask Bit mask of occupied slots
+     * @param totals      Energy totals indexed by slot
+     * @param dirtySince  Time of the first update not yet emitted, or 0
+     * @return Buffer holding the given slots
+     */
+    static HourlyRingBuffer restore(long newestHour, int presentMask, double[] totals, long dirtySince) {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.newestHour = newestHour;
+        buffer.presentMask = presentMask;
+        buffer.dirtySince = dirtySince;
+        System.arraycopy(totals, 0, buffer.totals, 0, SLOTS);
+        return buffer;
+    }
+
+    /**
+     * Receives the hours stored in a buffer.
+     */
+    @FunctionalInterface
+    interface HourConsumer {
+        void accept(long epochHour, double energyTotal);
+    }
+
+    /**
+     * Passes every stored hour to the consumer, in ascending order.
+     *
+     * @param consumer Receiver of each epoch-hour and its energy total
+     */
+    void forEachHour(HourConsumer consumer) {
+        if (newestHour == NO_HOUR) {
+            return;
+        }
+        for (long hour = newestHour - SLOTS + 1; hour <= newestHour; hour++) {
+            int slot = slotOf(hour);
+            if ((presentMask & (1 << slot)) != 0) {
+                consumer.accept(hour, totals[slot]);
+            }
+        }
+    }
+
+    /**
+     * Renders the buffer as the RedisAggData document published to Redis, with
+     * hours in ascending order.
+     *
+     * @param format How the hour bucket is represented in the document
+     * @return RedisAggData containing one HourEnergy per stored hour
+     */
+    public RedisAggData toRedisAggData(HourBucketFormat format) {
+        List<HourEnergy> data = new ArrayList<>(size());
+        if (newestHour != NO_HOUR) {
+            for (long hour = newestHour - SLOTS + 1; hour <= newestHour; hour++) {
+                int slot = slotOf(hour);
+                if ((presentMask & (1 << slot)) != 0) {
+                    String label = format == HourBucketFormat.STRING ? labelOf(slot, hour) : "";
+                    data.add(new HourEnergy(totals[slot], label, hour));
+                }
+            }
+        }
+        return new RedisAggData(data);
+    }
+
+    /**
+     * Returns the cached UTC string of a slot, formatting it on first use.
+     */
+    private String labelOf(int slot, long epochHour) {
+        String label = labels[slot];
+        if (label == null) {
+            label = formatHourBucket(epochHour);
+            labels[slot] = label;
+        }
+        return label;
+    }
+
+    /**
+     * Converts a database timestamp in microseconds since epoch to its epoch-hour.
+     *
+     * @param micros Timestamp in microseconds since epoch
+     * @return Hours since the Unix epoch (UTC)
+     */
+    static long epochHourOfMicros(long micros) {
+        return Math.floorDiv(micros, MILLIS_PER_HOUR * 1000);
+    }
+
+    /**
+     * Formats an epoch-hour as a 'yyyy-MM-dd HH:mm:ss' UTC hour bucket.
+     *
+     * @param epochHour Hours since the Unix epoch
+     * @return The UTC hour bucket string (e.g., '2024-06-01 14:00:00')
+     */
+    static String formatHourBucket(long epochHour) {
+        return FORMATTER.format(Instant.ofEpochMilli(epochHour * MILLIS_PER_HOUR));
+    }
+
+    private static int slotOf(long epochHour) {
+        return (int) Math.floorMod(epochHour, (long) SLOTS);
+    }
+}
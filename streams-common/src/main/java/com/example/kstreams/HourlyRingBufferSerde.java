@@ -0,0 +1,71 @@
+package com.example.kstreams;
+
+import java.nio.ByteBuffer;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Compact serde for HourlyRingBuffer state in the aggregation store and its
+ * changelog topic.
+ *
+ * Layout (big-endian, 213 bytes):
+ * - byte    format version (1)
+ * - long    newest epoch-hour
+ * - int     bit mask of occupied slots
+ * - double  energy total for each of the 24 slots
+ * - long    time of the first update not yet emitted (0 if none)
+ *
+ * Only the redis.aggdata output topic uses Avro.
+ */
+public class HourlyRingBufferSerde implements Serde<HourlyRingBuffer> {
+    /** Current layout version */
+    static final byte FORMAT_VERSION = 1;
+    /** Serialized size of a buffer */
+    static final int SERIALIZED_SIZE = Byte.BYTES + Long.BYTES + Integer.BYTES
+            + HourlyRingBuffer.SLOTS * Double.BYTES + Long.BYTES;
+
+    @Override
+    public Serializer<HourlyRingBuffer> serializer() {
+        return (topic, buffer) -> {
+            if (buffer == null) {
+                return null;
+            }
+            ByteBuffer out = ByteBuffer.allocate(SERIALIZED_SIZE);
+            out.put(FORMAT_VERSION);
+            out.putLong(buffer.newestHour());
+            out.putInt(buffer.presentMask());
+            for (int slot = 0; slot < HourlyRingBuffer.SLOTS; slot++) {
+                out.putDouble(buffer.totalAt(slot));
+            }
+            out.putLong(buffer.dirtySince());
+            return out.array();
+        };
+    }
+
+    @Override
+    public Deserializer<HourlyRingBuffer> deserializer() {
+        return (topic, bytes) -> {
+            if (bytes == null) {
+                return null;
+            }
+            if (bytes.length != SERIALIZED_SIZE || bytes[0] != FORMAT_VERSION) {
+                String version = bytes.length > 0 ? "version " + bytes[0] + ", " : "";
+                throw new SerializationException("Unknown HourlyRingBuffer layout (" + version + bytes.length
+                        + " bytes) in topic " + topic);
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            long newestHour = in.getLong();
+            int presentMask = in.getInt();
+            double[] totals = new double[HourlyRingBuffer.SLOTS];
+            for (int slot = 0; slot < HourlyRingBuffer.SLOTS; slot++) {
+                totals[slot] = in.getDouble();
+            }
+            long dirtySince = in.getLong();
+            return HourlyRingBuffer.restore(newestHour, presentMask, totals, dirtySince);
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.kstreams;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.streams.KafkaStreams;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * HTTP handler serving GET /metrics in Prometheus text exposition format.
+ *
+ * The response contains the PipelineMetrics and the state restore progress of
+ * the application followed by every numeric Kafka Streams client metric,
+ * exported as a gauge named kafka_streams_{group}_{name} with the metric tags
+ * as labels.
+ */
+public class MetricsHandler implements HttpHandler {
+
+    private final PipelineMetrics metrics;
+    private final RestoreProgressListener restoreListener;
+    private final KafkaStreams streams;
+    private final String prefix;
+
+    /**
+     * @param metrics         Application-level metrics
+     * @param restoreListener Restore listener registered with the instance
+     * @param streams         Kafka Streams instance whose client metrics are exported
+     * @param prefix          Name prefix of the application-level metrics
+     */
+    public MetricsHandler(PipelineMetrics metrics, RestoreProgressListener restoreListener, KafkaStreams streams,
+            String prefix) {
+        this.metrics = metrics;
+        this.restoreListener = restoreListener;
+        this.streams = streams;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            StringBuilder out = new StringBuilder(64 * 1024);
+            metrics.writePrometheus(out, prefix);
+            restoreListener.writePrometheus(out, prefix);
+            writeStreamsMetrics(out);
+
+            byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void writeStreamsMetrics(StringBuilder out) {
+        // Prometheus expects all samples of a metric to be contiguous, so group them by name first
+        Map<String, StringBuilder> samplesByName = new TreeMap<>();
+        for (Map.Entry<MetricName, ? extends Metric> entry : streams.metrics().entrySet()) {
+            if (!(entry.getValue().metricValue() instanceof Number value)) {
+                continue;
+            }
+            double number = value.doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                continue;
+            }
+
+            MetricName metricName = entry.getKey();
+            String name = sanitize("kafka_streams_" + metricName.group() + "_" + metricName.name());
+            StringBuilder samples = samplesByName.computeIfAbsent(name, key -> new StringBuilder());
+            samples.append(name);
+            if (!metricName.tags().isEmpty()) {
+                samples.append('{');
+                boolean first = true;
+                for (Map.Entry<String, String> tag : metricName.tags().entrySet()) {
+                    if (!first) {
+                        samples.append(',');
+                    }
+                    first = false;
+                    samples.append(sanitize(tag.getKey())).append("=\"")
+                            .append(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""))
+                            .append('"');
+                }
+                samples.append('}');
+            }
+            samples.append(' ').append(number).append('\n');
+        }
+
+        samplesByName.forEach((name, samples) -> out.append("# TYPE ").append(name).append(" gauge\n")
+                .append(samples));
+    }
+
+    /**
+     * Replaces characters that are not allowed in Prometheus names.
+     */
+    private static String sanitize(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sanitized.append(Character.isLetterOrDigit(c) || c == '_' ? c : '_');
+        }
+        return sanitized.toString();
+    }
+}
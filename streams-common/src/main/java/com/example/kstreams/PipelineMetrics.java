@@ -0,0 +1,288 @@
+package com.example.kstreams;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-level metrics of the pipeline: records dropped per reason and
+ * the lag between a record's event time and the time each stage processed it,
+ * plus the records and latest event-time lag per input partition.
+ *
+ * Counters are lock-free (LongAdder) so the mappers and filters can record
+ * drops on the hot path. Per-partition counters show key skew: a partition
+ * that processes far more records, or falls further behind, than its peers
+ * holds a hot key. The metrics are published over JMX as a
+ * PipelineMetricsMXBean and rendered in Prometheus text format by
+ * MetricsHandler, next to the Kafka Streams client metrics.
+ */
+public class PipelineMetrics implements PipelineMetricsMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineMetrics.class);
+
+    /** Upper bounds (inclusive, milliseconds) of the lag histogram buckets */
+    static final long[] LAG_BUCKETS_MS = {
+            10, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 300_000, 900_000, 3_600_000 };
+
+    /** Why a record was removed from the stream */
+    public enum DropReason {
+        /** Record without a value or a required field */
+        MISSING_FIELDS,
+        /** Timestamp that is in the future or cannot be interpreted */
+        BAD_TIMESTAMP,
+        /** Hour older than the 24-hour window */
+        OUTSIDE_24H,
+        /** Record without a sensor identifier */
+        EMPTY_SENSOR_KEY,
+        /** Record that raised an unexpected error while being mapped */
+        INVALID_RECORD,
+        /** Redelivered reading whose sensor and timestamp were already processed */
+        DUPLICATE;
+
+        /** @return Lower-case name used as the Prometheus label value */
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Map<DropReason, LongAdder> dropped = new EnumMap<>(DropReason.class);
+    private final Map<String, LagHistogram> lagByStage = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionStats> partitions = new ConcurrentHashMap<>();
+
+    public PipelineMetrics() {
+        for (DropReason reason : DropReason.values()) {
+            dropped.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Counts a dropped record.
+     *
+     * @param reason Why the record was dropped
+     */
+    public void recordDrop(DropReason reason) {
+        dropped.get(reason).increment();
+    }
+
+    /**
+     * Records the event-time lag of a record at a pipeline stage.
+     *
+     * @param stage  Stage name (e.g., "input" or "redis_output")
+     * @param lagMs  Processing time minus event time, in milliseconds
+     */
+    public void recordLag(String stage, long lagMs) {
+        lagByStage.computeIfAbsent(stage, name -> new LagHistogram()).record(Math.max(0, lagMs));
+    }
+
+    /**
+     * Creates a pass-through processor that records the lag between each
+     * record's timestamp and the current wall-clock time under the given stage.
+     *
+     * @param stage Stage name
+     * @return Processor for KStream#processValues
+     */
+    public <V> FixedKeyProcessor<String, V, V> lagRecorder(String stage) {
+        return new FixedKeyProcessor<>() {
+            private FixedKeyProcessorContext<String, V> context;
+
+            @Override
+            public void init(FixedKeyProcessorContext<String, V> context) {
+                this.context = context;
+            }
+
+            @Override
+            public void process(FixedKeyRecord<String, V> record) {
+                recordLag(stage, context.currentSystemTimeMs() - record.timestamp());
+                context.forward(record);
+            }
+        };
+    }
+
+    /**
+     * Creates a pass-through processor that counts records and tracks the
+     * latest event-time lag per partition of the topic feeding the current task.
+     * Placed after a repartition, it shows how evenly the new key spreads.
+     *
+     * @return Processor for KStream#processValues
+     */
+    public <V> FixedKeyProcessor<String, V, V> partitionRecorder() {
+        return new FixedKeyProcessor<>() {
+            private FixedKeyProcessorContext<String, V> context;
+
+            @Override
+            public void init(FixedKeyProcessorContext<String, V> context) {
+                this.context = context;
+            }
+
+            @Override
+            public void process(FixedKeyRecord<String, V> record) {
+                context.recordMetadata().ifPresent(metadata -> partitions
+                        .computeIfAbsent(new TopicPartition(metadata.topic(), metadata.partition()),
+                                partition -> new PartitionStats())
+                        .record(context.currentSystemTimeMs() - record.timestamp()));
+                context.forward(record);
+            }
+        };
+    }
+
+    /**
+     * Registers this instance with the platform MBean server under
+     * com.example.kstreams:type=PipelineMetrics,app={application}.
+     *
+     * @param application Application identifier used in the object name
+     */
+    public void registerMBean(String application) {
+        try {
+            ObjectName name = new ObjectName("com.example.kstreams:type=PipelineMetrics,app=" + application);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            logger.warn("Could not register pipeline metrics MBean", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getDroppedRecords() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<DropReason, LongAdder> entry : dropped.entrySet()) {
+            counts.put(entry.getKey().label(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getMeanLagMillis() {
+        Map<String, Double> means = new LinkedHashMap<>();
+        lagByStage.forEach((stage, histogram) -> {
+            long count = histogram.count.sum();
+            means.put(stage, count == 0 ? 0.0 : (double) histogram.sum.sum() / count);
+        });
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getMaxLagMillis() {
+        Map<String, Long> maxima = new LinkedHashMap<>();
+        lagByStage.forEach((stage, histogram) -> maxima.put(stage, histogram.max.get()));
+        return maxima;
+    }
+
+    @Override
+    public Map<String, Long> getRecordsByPartition() {
+        Map<String, Long> counts = new TreeMap<>();
+        partitions.forEach((partition, stats) -> counts.put(partition.toString(), stats.records.sum()));
+        return counts;
+    }
+
+    /**
+     * Appends the pipeline metrics in Prometheus text exposition format.
+     *
+     * @param out    Output buffer
+     * @param prefix Metric name prefix (e.g., "db_redis_streams")
+     */
+    void writePrometheus(StringBuilder out, String prefix) {
+        String droppedName = prefix + "_records_dropped_total";
+        out.append("# HELP ").append(droppedName).append(" Records removed from the stream, by reason\n");
+        out.append("# TYPE ").append(droppedName).append(" counter\n");
+        for (Map.Entry<DropReason, LongAdder> entry : dropped.entrySet()) {
+            out.append(droppedName).append("{reason=\"").append(entry.getKey().label()).append("\"} ")
+                    .append(entry.getValue().sum()).append('\n');
+        }
+
+        String lagName = prefix + "_event_lag_milliseconds";
+        out.append("# HELP ").append(lagName).append(" Processing time minus event time, by stage\n");
+        out.append("# TYPE ").append(lagName).append(" histogram\n");
+        lagByStage.forEach((stage, histogram) -> {
+            long cumulative = 0;
+            for (int i = 0; i < LAG_BUCKETS_MS.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                out.append(lagName).append("_bucket{stage=\"").append(stage).append("\",le=\"")
+                        .append(LAG_BUCKETS_MS[i]).append("\"} ").append(cumulative).append('\n');
+            }
+            cumulative += histogram.buckets[LAG_BUCKETS_MS.length].sum();
+            out.append(lagName).append("_bucket{stage=\"").append(stage).append("\",le=\"+Inf\"} ")
+                    .append(cumulative).append('\n');
+            out.append(lagName).append("_sum{stage=\"").append(stage).append("\"} ")
+                    .append(histogram.sum.sum()).append('\n');
+            out.append(lagName).append("_count{stage=\"").append(stage).append("\"} ")
+                    .append(histogram.count.sum()).append('\n');
+        });
+
+        // Sorted so the samples of a topic are listed in partition order
+        Map<TopicPartition, PartitionStats> sortedPartitions = new TreeMap<>(
+                Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition));
+        sortedPartitions.putAll(partitions);
+
+        String recordsName = prefix + "_partition_records_total";
+        out.append("# HELP ").append(recordsName).append(" Records processed, by input topic and partition\n");
+        out.append("# TYPE ").append(recordsName).append(" counter\n");
+        sortedPartitions.forEach((partition, stats) -> appendPartitionSample(out, recordsName, partition)
+                .append(stats.records.sum()).append('\n'));
+
+        String partitionLagName = prefix + "_partition_event_lag_milliseconds";
+        out.append("# HELP ").append(partitionLagName)
+                .append(" Event-time lag of the latest record, by input topic and partition\n");
+        out.append("# TYPE ").append(partitionLagName).append(" gauge\n");
+        sortedPartitions.forEach((partition, stats) -> appendPartitionSample(out, partitionLagName, partition)
+                .append(stats.latestLag).append('\n'));
+    }
+
+    private static StringBuilder appendPartitionSample(StringBuilder out, String name, TopicPartition partition) {
+        return out.append(name).append("{topic=\"").append(partition.topic()).append("\",partition=\"")
+                .append(partition.partition()).append("\"} ");
+    }
+
+    /**
+     * Record count and latest event-time lag of one input partition.
+     */
+    private static final class PartitionStats {
+        private final LongAdder records = new LongAdder();
+        private volatile long latestLag;
+
+        private void record(long lagMs) {
+            records.increment();
+            latestLag = Math.max(0, lagMs);
+        }
+    }
+
+    /**
+     * Fixed-bucket histogram; the last bucket counts values above every bound.
+     */
+    private static final class LagHistogram {
+        private final LongAdder[] buckets = new LongAdder[LAG_BUCKETS_MS.length + 1];
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private LagHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long value) {
+            int bucket = 0;
+            while (bucket < LAG_BUCKETS_MS.length && value > LAG_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            sum.add(value);
+            count.increment();
+            max.accumulate(value);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.kstreams;
+
+import java.util.Map;
+
+/**
+ * JMX view of PipelineMetrics.
+ */
+public interface PipelineMetricsMXBean {
+
+    /** @return Number of dropped records per drop reason */
+    Map<String, Long> getDroppedRecords();
+
+    /** @return Mean event-time lag in milliseconds per stage */
+    Map<String, Double> getMeanLagMillis();
+
+    /** @return Largest event-time lag in milliseconds seen per stage */
+    Map<String, Long> getMaxLagMillis();
+
+    /** @return Number of records processed per input topic-partition */
+    Map<String, Long> getRecordsByPartition();
+}
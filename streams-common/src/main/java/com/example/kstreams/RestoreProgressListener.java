@@ -0,0 +1,147 @@
+package com.example.kstreams;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks state store restoration from changelog topics, for logs, metrics
+ * and the readiness probe.
+ *
+ * Kafka Streams calls the listener from its restore threads, one changelog
+ * partition at a time. Progress is logged when a restoration starts, at most
+ * every PROGRESS_LOG_INTERVAL_MS while it runs, and when it ends; the open
+ * restorations and their remaining records are exported in Prometheus format
+ * next to the PipelineMetrics.
+ */
+public class RestoreProgressListener implements StateRestoreListener {
+    private static final Logger logger = LoggerFactory.getLogger(RestoreProgressListener.class);
+
+    /** Minimum interval between two progress log lines of a partition */
+    private static final long PROGRESS_LOG_INTERVAL_MS = 10_000;
+
+    /** Restoration of one changelog partition that has not finished yet */
+    private static final class Restoration {
+        final long startNanos = System.nanoTime();
+        final long endingOffset;
+        final long totalRecords;
+        volatile long restoredRecords;
+        volatile long lastOffset;
+        long lastLoggedMillis = System.currentTimeMillis();
+
+        Restoration(long startingOffset, long endingOffset) {
+            this.endingOffset = endingOffset;
+            this.totalRecords = Math.max(0, endingOffset - startingOffset);
+            this.lastOffset = startingOffset;
+        }
+
+        long remainingRecords() {
+            return Math.max(0, endingOffset - lastOffset);
+        }
+    }
+
+    private final Map<TopicPartition, Restoration> active = new ConcurrentHashMap<>();
+    private final LongAdder restoredRecords = new LongAdder();
+    private final LongAdder completedRestorations = new LongAdder();
+    private final AtomicLong lastRestoreMillis = new AtomicLong();
+
+    @Override
+    public void onRestoreStart(TopicPartition topicPartition, String storeName, long startingOffset,
+            long endingOffset) {
+        Restoration restoration = new Restoration(startingOffset, endingOffset);
+        active.put(topicPartition, restoration);
+        logger.info("Restoring store {} from {}: {} records (offsets {} to {})", storeName, topicPartition,
+                restoration.totalRecords, startingOffset, endingOffset);
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition topicPartition, String storeName, long batchEndOffset,
+            long numRestored) {
+        restoredRecords.add(numRestored);
+        Restoration restoration = active.get(topicPartition);
+        if (restoration == null) {
+            return;
+        }
+        restoration.restoredRecords += numRestored;
+        restoration.lastOffset = batchEndOffset;
+
+        long now = System.currentTimeMillis();
+        if (now - restoration.lastLoggedMillis >= PROGRESS_LOG_INTERVAL_MS) {
+            restoration.lastLoggedMillis = now;
+            logger.info("Restoring store {} from {}: {} of {} records, {} remaining", storeName, topicPartition,
+                    restoration.restoredRecords, restoration.totalRecords, restoration.remainingRecords());
+        }
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition topicPartition, String storeName, long totalRestored) {
+        Restoration restoration = active.remove(topicPartition);
+        completedRestorations.increment();
+        if (restoration == null) {
+            return;
+        }
+        long millis = (System.nanoTime() - restoration.startNanos) / 1_000_000;
+        lastRestoreMillis.set(millis);
+        logger.info("Restored store {} from {}: {} records in {} ms", storeName, topicPartition, totalRestored,
+                millis);
+    }
+
+    @Override
+    public void onRestoreSuspended(TopicPartition topicPartition, String storeName, long totalRestored) {
+        // The task was migrated to another instance before it finished restoring
+        if (active.remove(topicPartition) != null) {
+            logger.info("Suspended restoring store {} from {} after {} records", storeName, topicPartition,
+                    totalRestored);
+        }
+    }
+
+    /**
+     * @return true while at least one changelog partition is being restored
+     */
+    public boolean isRestoring() {
+        return !active.isEmpty();
+    }
+
+    /**
+     * @return Number of changelog partitions being restored
+     */
+    public int activeRestorations() {
+        return active.size();
+    }
+
+    /**
+     * Appends the restore metrics in Prometheus text format.
+     *
+     * @param out    Response buffer
+     * @param prefix Metric name prefix (e.g., "db_redis_streams")
+     */
+    void writePrometheus(StringBuilder out, String prefix) {
+        long remaining = 0;
+        for (Restoration restoration : active.values()) {
+            remaining += restoration.remainingRecords();
+        }
+
+        writeSample(out, prefix + "_restore_active_partitions", "gauge",
+                "Changelog partitions being restored", active.size());
+        writeSample(out, prefix + "_restore_remaining_records", "gauge",
+                "Records left to restore", remaining);
+        writeSample(out, prefix + "_restored_records_total", "counter",
+                "Changelog records restored", restoredRecords.sum());
+        writeSample(out, prefix + "_restores_completed_total", "counter",
+                "Finished changelog partition restores", completedRestorations.sum());
+        writeSample(out, prefix + "_restore_last_duration_seconds", "gauge",
+                "Duration of the last finished partition restore", lastRestoreMillis.get() / 1000.0);
+    }
+
+    private static void writeSample(StringBuilder out, String name, String type, String help, Number value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(value).append('\n');
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.MockProcessorContext;
+import org.apache.kafka.streams.processor.api.MockProcessorContext.CapturedPunctuator;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.junit.jupiter.api.Test;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+
+class HourlyAggregationProcessorTest {
+
+    private static final String STORE = "hourly-aggregates-store";
+    /** 2024-06-01 00:00:00 UTC */
+    private static final long BASE_HOUR = 477_000L;
+    /** Wall-clock time when the processor is initialised */
+    private static final long START_MS = 1_000L;
+
+    private MockProcessorContext<String, RedisAggData> context;
+    private KeyValueStore<String, HourlyRingBuffer> store;
+    private HourlyAggregationProcessor processor;
+
+    @Test
+    void evictsExpiredHoursAndTombstonesEmptySensors() {
+        init(EmitMode.EAGER, Duration.ZERO);
+        process("sensor_a", BASE_HOUR, 1.0);
+        process("sensor_b", BASE_HOUR + 20, 2.0);
+        context.resetForwards();
+
+        // Keeps the 24 hours before BASE_HOUR + 25, i.e. from BASE_HOUR + 1 on
+        punctuate(PunctuationType.STREAM_TIME, hourMillis(BASE_HOUR + 25));
+
+        assertEquals(1, context.forwarded().size());
+        Record<? extends String, ? extends RedisAggData> tombstone = context.forwarded().get(0).record();
+        assertEquals("sensor_a", tombstone.key());
+        assertNull(tombstone.value());
+        assertNull(store.get("sensor_a"));
+        assertNotNull(store.get("sensor_b"));
+    }
+
+    @Test
+    void evictionForwardsTrimmedDocuments() {
+        init(EmitMode.EAGER, Duration.ZERO);
+        process("sensor_a", BASE_HOUR, 1.0);
+        process("sensor_a", BASE_HOUR + 10, 2.0);
+        context.resetForwards();
+
+        punctuate(PunctuationType.STREAM_TIME, hourMillis(BASE_HOUR + 25));
+
+        assertEquals(1, context.forwarded().size());
+        List<HourEnergy> hours = context.forwarded().get(0).record().value().getData();
+        assertEquals(1, hours.size());
+        assertEquals(BASE_HOUR + 10, hours.get(0).getHourEpoch());
+        assertEquals(1, store.get("sensor_a").size());
+    }
+
+    @Test
+    void evictionLeavesCurrentSensorsAlone() {
+        init(EmitMode.EAGER, Duration.ZERO);
+        process("sensor_a", BASE_HOUR + 20, 1.0);
+        context.resetForwards();
+
+        punctuate(PunctuationType.STREAM_TIME, hourMillis(BASE_HOUR + 25));
+
+        assertEquals(0, context.forwarded().size());
+    }
+
+    @Test
+    void eagerModeEmitsEveryUpdate() {
+        init(EmitMode.EAGER, Duration.ZERO);
+        process("sensor_a", BASE_HOUR, 1.0);
+        process("sensor_a", BASE_HOUR, 2.0);
+
+        assertEquals(2, context.forwarded().size());
+    }
+
+    @Test
+    void intervalModeCoalescesUpdatesWithinTheInterval() {
+        init(EmitMode.INTERVAL, Duration.ofSeconds(1));
+
+        processAt(10_000, "sensor_a", BASE_HOUR, 1.0);
+        assertEquals(1, context.forwarded().size()); // First update of a sensor goes out at once
+        context.resetForwards();
+
+        processAt(10_200, "sensor_a", BASE_HOUR, 2.0);
+        processAt(10_400, "sensor_a", BASE_HOUR, 3.0);
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 10_900);
+        assertEquals(0, context.forwarded().size());
+
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 11_000);
+        assertEquals(1, context.forwarded().size());
+        assertEquals(3.0, totalOf(context.forwarded().get(0).record().value()));
+        assertEquals(0, store.get("sensor_a").dirtySince());
+    }
+
+    @Test
+    void quietModeWaitsForTheSensorToGoQuiet() {
+        init(EmitMode.QUIET, Duration.ofSeconds(1));
+
+        processAt(10_000, "sensor_a", BASE_HOUR, 1.0);
+        processAt(10_800, "sensor_a", BASE_HOUR, 2.0); // Restarts the quiet period
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 11_000);
+        assertEquals(0, context.forwarded().size());
+
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 11_800);
+        assertEquals(1, context.forwarded().size());
+        assertEquals(2.0, totalOf(context.forwarded().get(0).record().value()));
+    }
+
+    @Test
+    void quietModeEmitsABusySensorAfterTheMaximumDelay() {
+        init(EmitMode.QUIET, Duration.ofSeconds(1));
+        long maxDelay = HourlyAggregationProcessor.QUIET_MAX_DELAY_INTERVALS * 1000L;
+
+        // An update every half interval never leaves the sensor quiet
+        for (long now = 10_000; now < 10_000 + maxDelay; now += 500) {
+            processAt(now, "sensor_a", BASE_HOUR, now);
+            punctuate(PunctuationType.WALL_CLOCK_TIME, now);
+        }
+        assertEquals(0, context.forwarded().size());
+
+        processAt(10_000 + maxDelay, "sensor_a", BASE_HOUR, 1.0);
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 10_000 + maxDelay);
+
+        assertEquals(1, context.forwarded().size());
+        assertEquals(10_000 + maxDelay, context.forwarded().get(0).record().timestamp());
+    }
+
+    @Test
+    void pendingEmitsSurviveARestart() {
+        init(EmitMode.QUIET, Duration.ofSeconds(1));
+        processAt(10_000, "sensor_a", BASE_HOUR, 1.0);
+        assertEquals(0, context.forwarded().size());
+
+        // A new processor instance over the same store, as after a rebalance
+        context.setCurrentSystemTimeMs(60_000);
+        initProcessor(EmitMode.QUIET, Duration.ofSeconds(1));
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 59_999);
+        assertEquals(0, context.forwarded().size()); // Recovered emits are due at the restart
+
+        punctuate(PunctuationType.WALL_CLOCK_TIME, 60_000);
+
+        assertEquals(1, context.forwarded().size());
+        assertEquals(1.0, totalOf(context.forwarded().get(0).record().value()));
+    }
+
+    private void init(EmitMode emitMode, Duration emitInterval) {
+        context = new MockProcessorContext<>();
+        context.setCurrentSystemTimeMs(START_MS); // The mock has no clock until one is set
+        store = Stores.keyValueStoreBuilder(
+                Stores.inMemoryKeyValueStore(STORE),
+                Serdes.String(),
+                new HourlyRingBufferSerde())
+                .withLoggingDisabled() // Changelogs are not supported by MockProcessorContext
+                .build();
+        store.init(context.getStateStoreContext(), store);
+        context.addStateStore(store);
+        initProcessor(emitMode, emitInterval);
+    }
+
+    private void initProcessor(EmitMode emitMode, Duration emitInterval) {
+        processor = new HourlyAggregationProcessor(STORE, HourBucketFormat.EPOCH, Duration.ofMinutes(5),
+                PunctuationType.STREAM_TIME, emitMode, emitInterval, new PipelineMetrics());
+        processor.init(context);
+    }
+
+    private void processAt(long now, String sensor, long epochHour, double energyTotal) {
+        context.setCurrentSystemTimeMs(now);
+        process(sensor, epochHour, energyTotal);
+    }
+
+    private void process(String sensor, long epochHour, double energyTotal) {
+        processor.process(new Record<>(sensor, new HourEnergy(energyTotal, "", epochHour), hourMillis(epochHour)));
+    }
+
+    /**
+     * Runs the most recently scheduled punctuator of the given type.
+     */
+    private void punctuate(PunctuationType type, long timestamp) {
+        List<CapturedPunctuator> punctuators = context.scheduledPunctuators();
+        for (int i = punctuators.size() - 1; i >= 0; i--) {
+            if (punctuators.get(i).getType() == type) {
+                punctuators.get(i).getPunctuator().punctuate(timestamp);
+                return;
+            }
+        }
+        fail("No " + type + " punctuator scheduled");
+    }
+
+    private static double totalOf(RedisAggData aggData) {
+        return aggData.getData().get(0).getEnergyTotal();
+    }
+
+    private static long hourMillis(long epochHour) {
+        return epochHour * HourlyRingBuffer.MILLIS_PER_HOUR;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class HourlyRingBufferSerdeTest {
+
+    private static final String TOPIC = "hourly-aggregates-store-changelog";
+
+    private final HourlyRingBufferSerde serde = new HourlyRingBufferSerde();
+
+    @Test
+    void roundTripsEverySlotAndTheDirtyMarker() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        for (long hour = 477_000L; hour < 477_000L + 30; hour += 3) {
+            buffer.put(hour, hour * 0.5);
+        }
+        buffer.setDirtySince(1_717_200_000_123L);
+
+        byte[] bytes = serde.serializer().serialize(TOPIC, buffer);
+        HourlyRingBuffer restored = serde.deserializer().deserialize(TOPIC, bytes);
+
+        assertEquals(HourlyRingBufferSerde.SERIALIZED_SIZE, bytes.length);
+        assertEquals(buffer.newestHour(), restored.newestHour());
+        assertEquals(buffer.presentMask(), restored.presentMask());
+        assertEquals(buffer.dirtySince(), restored.dirtySince());
+        assertEquals(buffer.toRedisAggData(HourBucketFormat.STRING), restored.toRedisAggData(HourBucketFormat.STRING));
+    }
+
+    @Test
+    void roundTripsAnEmptyBuffer() {
+        HourlyRingBuffer restored = serde.deserializer().deserialize(TOPIC,
+                serde.serializer().serialize(TOPIC, new HourlyRingBuffer()));
+
+        assertEquals(HourlyRingBuffer.NO_HOUR, restored.newestHour());
+        assertEquals(0, restored.size());
+    }
+
+    @Test
+    void passesTombstonesThrough() {
+        assertNull(serde.serializer().serialize(TOPIC, null));
+        assertNull(serde.deserializer().deserialize(TOPIC, null));
+    }
+
+    @Test
+    void rejectsUnknownLayouts() {
+        byte[] bytes = serde.serializer().serialize(TOPIC, new HourlyRingBuffer());
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, otherVersion));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, truncated));
+
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize(TOPIC, new byte[0]));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.kstreams;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.avro.HourEnergy;
+import com.example.avro.RedisAggData;
+
+class HourlyRingBufferTest {
+
+    /** 2024-06-01 00:00:00 UTC */
+    private static final long BASE_HOUR = 477_000L;
+
+    @Test
+    void keepsHoursInAscendingOrder() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.put(BASE_HOUR + 2, 3.0);
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 1, 2.0);
+
+        assertEquals(List.of(BASE_HOUR, BASE_HOUR + 1, BASE_HOUR + 2), hoursOf(buffer));
+        assertEquals(3, buffer.size());
+        assertEquals(BASE_HOUR + 2, buffer.newestHour());
+    }
+
+    @Test
+    void updatesAnHourInPlace() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR, 5.0);
+
+        assertEquals(1, buffer.size());
+        assertEquals(5.0, buffer.toRedisAggData(HourBucketFormat.EPOCH).getData().get(0).getEnergyTotal());
+    }
+
+    @Test
+    void advancingPastTheWindowClearsWrappedSlots() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        for (long hour = BASE_HOUR; hour < BASE_HOUR + HourlyRingBuffer.SLOTS; hour++) {
+            buffer.put(hour, hour - BASE_HOUR);
+        }
+        assertEquals(HourlyRingBuffer.SLOTS, buffer.size());
+
+        // Same slot as BASE_HOUR and BASE_HOUR + 1, one and two days later
+        buffer.put(BASE_HOUR + HourlyRingBuffer.SLOTS + 1, 100.0);
+
+        List<Long> hours = hoursOf(buffer);
+        assertEquals(HourlyRingBuffer.SLOTS - 1, hours.size());
+        assertEquals(BASE_HOUR + 2, hours.get(0));
+        assertEquals(BASE_HOUR + HourlyRingBuffer.SLOTS + 1, hours.get(hours.size() - 1));
+    }
+
+    @Test
+    void jumpingAWholeWindowAheadDropsEveryHour() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 1, 2.0);
+
+        buffer.put(BASE_HOUR + 100, 3.0);
+
+        assertEquals(List.of(BASE_HOUR + 100), hoursOf(buffer));
+    }
+
+    @Test
+    void ignoresHoursOlderThanTheWindow() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.put(BASE_HOUR + HourlyRingBuffer.SLOTS, 1.0);
+
+        assertFalse(buffer.put(BASE_HOUR, 2.0));
+        assertTrue(buffer.put(BASE_HOUR + 1, 3.0));
+        assertEquals(List.of(BASE_HOUR + 1, BASE_HOUR + HourlyRingBuffer.SLOTS), hoursOf(buffer));
+    }
+
+    @Test
+    void evictBeforeRemovesOlderHoursOnly() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        for (long hour = BASE_HOUR; hour < BASE_HOUR + 5; hour++) {
+            buffer.put(hour, 1.0);
+        }
+
+        assertTrue(buffer.evictBefore(BASE_HOUR + 3));
+        assertEquals(List.of(BASE_HOUR + 3, BASE_HOUR + 4), hoursOf(buffer));
+        assertFalse(buffer.evictBefore(BASE_HOUR + 3));
+    }
+
+    @Test
+    void evictBeforeAfterTheNewestHourEmptiesTheBuffer() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.put(BASE_HOUR, 1.0);
+        buffer.put(BASE_HOUR + 1, 2.0);
+
+        assertTrue(buffer.evictBefore(BASE_HOUR + 30));
+        assertTrue(buffer.isEmpty());
+        assertFalse(buffer.evictBefore(BASE_HOUR + 31));
+    }
+
+    @Test
+    void rendersHourBucketsInTheRequestedFormat() {
+        HourlyRingBuffer buffer = new HourlyRingBuffer();
+        buffer.put(BASE_HOUR + 14, 2.5);
+
+        HourEnergy asString = buffer.toRedisAggData(HourBucketFormat.STRING).getData().get(0);
+        assertEquals("2024-06-01 14:00:00", asString.getHourBucket());
+        assertEquals(BASE_HOUR + 14, asString.getHourEpoch());
+
+        HourEnergy asEpoch = buffer.toRedisAggData(HourBucketFormat.EPOCH).getData().get(0);
+        assertEquals("", asEpoch.getHourBucket());
+        assertEquals(BASE_HOUR + 14, asEpoch.getHourEpoch());
+    }
+
+    @Test
+    void convertsMicrosToEpochHours() {
+        long micros = (BASE_HOUR * HourlyRingBuffer.MILLIS_PER_HOUR + 59 * 60_000L) * 1000;
+        assertEquals(BASE_HOUR, HourlyRingBuffer.epochHourOfMicros(micros));
+        assertEquals(-1, HourlyRingBuffer.epochHourOfMicros(-1));
+    }
+
+    @Test
+    void emptyBufferRendersNoHours() {
+        RedisAggData aggData = new HourlyRingBuffer().toRedisAggData(HourBucketFormat.STRING);
+        assertTrue(aggData.getData().isEmpty());
+    }
+
+    private static List<Long> hoursOf(HourlyRingBuffer buffer) {
+        List<Long> hours = new ArrayList<>();
+        buffer.forEachHour((hour, total) -> hours.add(hour));
+        return hours;
+    }
+}
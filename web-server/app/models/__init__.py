@@ -3,6 +3,8 @@ from .models import (
     EnergyConsumption,
     SensorDataResponse,
     SensorResponse,
+    WindowStats,
+    SensorStatsResponse,
     HealthResponse,
     ErrorResponse,
 )
@@ -12,6 +14,8 @@ __all__ = [
     "EnergyConsumption", 
     "SensorDataResponse",
     "SensorResponse",
+    "WindowStats",
+    "SensorStatsResponse",
     "HealthResponse",
     "ErrorResponse",
 ]
\ No newline at end of file
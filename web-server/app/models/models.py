@@ -42,6 +42,35 @@ class SensorDataResponse(BaseModel):
     )
 
 
+class WindowStats(BaseModel):
+    """Model representing summary statistics of the readings within a window."""
+
+    count: int = Field(..., description="Number of readings")
+    sum: float = Field(..., description="Sum of the energy readings")
+    min: float = Field(..., description="Smallest reading (0 if there is none)")
+    max: float = Field(..., description="Largest reading (0 if there is none)")
+    mean: float = Field(..., description="Arithmetic mean of the readings")
+    variance: float = Field(..., description="Population variance of the readings")
+
+
+class SensorStatsResponse(BaseModel):
+    """Response model for the rolling sensor statistics endpoint."""
+
+    sensor: str = Field(
+        ..., description="Identifier of the sensor that provided the data"
+    )
+    updated_at: datetime = Field(
+        ..., description="End of the statistics windows (UTC)"
+    )
+    last_1h: WindowStats = Field(..., description="Statistics over the last hour")
+    last_24h: WindowStats = Field(
+        ..., description="Statistics over the last 24 hours"
+    )
+    execution_time: Optional[float] = Field(
+        None, description="Request execution time in seconds"
+    )
+
+
 class SensorResponse(BaseModel):
     """Response model for sensor list endpoint."""
 
@@ -1,5 +1,6 @@
 from fastapi import APIRouter
 from app.services.db_service import fetch_sensor_names
+from app.services.redis_service import redis_service
 from app.models import SensorResponse, ErrorResponse
 
 router = APIRouter(prefix="/sensors", tags=["Sensors"])
@@ -13,7 +14,8 @@ async def get_sensor_names():
     Retrieve list of all available sensors.
 
     Fetches the complete list of sensor identifiers that are available
-    in the system for data retrieval.
+    in the system for data retrieval. The sensor catalog cached in Redis is
+    used when available; otherwise the names are queried from the database.
 
     Returns:
         SensorResponse containing list of all sensor identifiers
@@ -21,5 +23,7 @@ async def get_sensor_names():
     Raises:
         HTTPException 500: Database connection or query error
     """
-    sensor_names = fetch_sensor_names()
+    sensor_names = redis_service.get_sensor_names()
+    if sensor_names is None:
+        sensor_names = fetch_sensor_names()
     return SensorResponse(sensors=sensor_names)
@@ -0,0 +1,48 @@
+from datetime import datetime, timezone
+from fastapi import APIRouter, HTTPException, Request, Path
+from app.services.redis_service import redis_service
+from app.middlewares import get_execution_time
+from app.models import SensorStatsResponse, WindowStats, ErrorResponse
+
+router = APIRouter(prefix="/sensor-stats", tags=["Sensor Statistics"])
+
+
+@router.get(
+    "/{sensor}",
+    response_model=SensorStatsResponse,
+    responses={404: {"model": ErrorResponse}, 500: {"model": ErrorResponse}},
+)
+async def get_sensor_stats(
+    request: Request,
+    sensor: str = Path(..., description="Unique identifier of the sensor to retrieve statistics for"),
+):
+    """
+    Retrieve rolling statistics of a sensor from Redis.
+
+    The statistics are maintained in-stream by mqtt-db-streams and cached
+    in Redis, so no database aggregation runs at request time:
+    - last_1h: count, sum, min, max, mean and variance over the last hour
+    - last_24h: the same over the last 24 hours
+
+    Args:
+        sensor: Sensor identifier/name
+
+    Returns:
+        SensorStatsResponse containing both windows and execution time
+
+    Raises:
+        HTTPException 404: No statistics cached for the specified sensor
+    """
+    stats = redis_service.get_sensor_stats(sensor)
+    if not stats:
+        raise HTTPException(
+            status_code=404, detail=f"No cached statistics found for sensor: {sensor}"
+        )
+
+    return SensorStatsResponse(
+        sensor=sensor,
+        updated_at=datetime.fromtimestamp(stats.get("updated_at", 0) / 1000, tz=timezone.utc),
+        last_1h=WindowStats(**stats["last_1h"]),
+        last_24h=WindowStats(**stats["last_24h"]),
+        execution_time=get_execution_time(request),
+    )
@@ -1,34 +1,111 @@
+import json
 import redis
 import os
+import urllib.parse
+import urllib.request
+from datetime import datetime, timezone
 from typing import List, Optional, Any
 from app.models import SensorDataRecord
 
 
 class RedisService:
-    def __init__(self, host: str = "localhost", port: int = 6379, db: int = 0):
+    def __init__(
+        self,
+        host: str = "localhost",
+        port: int = 6379,
+        db: int = 0,
+        streams_query_url: Optional[str] = None,
+        delta_key_prefix: str = "redis.aggdata.hourly:",
+        output_mode: str = "document",
+        sensor_names_key: str = "sensors.catalog.names",
+    ):
         self.redis_client = redis.Redis(
             host=host, port=port, db=db, decode_responses=True
         )
+        self.streams_query_url = streams_query_url
+        self.delta_key_prefix = delta_key_prefix
+        # Only the key written in the configured mode is read, so a document
+        # left over from the other mode can never shadow the current data
+        self.output_mode = output_mode.lower()
+        self.sensor_names_key = sensor_names_key
 
     def get_sensor_data(self, sensor: str) -> Optional[List[SensorDataRecord]]:
         try:
-            # Try to get data from Redis using JSON.GET command
+            if self.output_mode == "delta":
+                return self._get_sensor_data_from_hash(sensor)
+            # Get the 24-hour document from Redis using JSON.GET command
             cached_data = self.redis_client.json().get(sensor)
-            if cached_data and isinstance(cached_data, dict) and "data" in cached_data:
-                data: list[dict[str, Any]] = cached_data.get("data")
-                result: List[SensorDataRecord] = []
-                for obj in data:
-                    hour_bucket = obj.get("hour_bucket")
-                    energy_total = obj.get("energy_total")
-                    result.append(
-                        SensorDataRecord(
-                            hour_bucket=hour_bucket, energy_total=energy_total
-                        )
+            return self._parse_cached_data(cached_data)
+        except redis.exceptions.ConnectionError as e:
+            print(f"Redis unavailable, querying streams state store: {e}")
+            return self._get_sensor_data_from_streams(sensor)
+        except Exception as e:
+            print(f"Error retrieving data from Redis: {e}")
+            return None
+
+    def _get_sensor_data_from_hash(self, sensor: str) -> Optional[List[SensorDataRecord]]:
+        """Hourly totals written by db-redis-streams with REDIS_OUTPUT_MODE=delta."""
+        hours = self.redis_client.hgetall(f"{self.delta_key_prefix}{sensor}")
+        if not hours:
+            return None
+        return [
+            SensorDataRecord(
+                hour_bucket=datetime.fromtimestamp(int(hour) * 3600, tz=timezone.utc),
+                energy_total=float(total),
+            )
+            for hour, total in sorted(hours.items(), key=lambda item: int(item[0]))
+        ]
+
+    def _get_sensor_data_from_streams(self, sensor: str) -> Optional[List[SensorDataRecord]]:
+        """Fallback to the db-redis-streams interactive query endpoint."""
+        if not self.streams_query_url:
+            return None
+        url = f"{self.streams_query_url}/sensors/{urllib.parse.quote(sensor, safe='')}"
+        try:
+            with urllib.request.urlopen(url, timeout=2) as response:
+                return self._parse_cached_data(json.load(response))
+        except Exception as e:
+            print(f"Error retrieving data from streams state store: {e}")
+            return None
+
+    def _parse_cached_data(self, cached_data: Any) -> Optional[List[SensorDataRecord]]:
+        if cached_data and isinstance(cached_data, dict) and "data" in cached_data:
+            data: list[dict[str, Any]] = cached_data.get("data")
+            result: List[SensorDataRecord] = []
+            for obj in data:
+                hour_bucket = obj.get("hour_bucket")
+                if not hour_bucket and obj.get("hour_epoch") is not None:
+                    # Documents published with REDIS_HOUR_BUCKET_FORMAT=epoch
+                    hour_bucket = datetime.fromtimestamp(
+                        obj["hour_epoch"] * 3600, tz=timezone.utc
+                    )
+                energy_total = obj.get("energy_total")
+                result.append(
+                    SensorDataRecord(
+                        hour_bucket=hour_bucket, energy_total=energy_total
                     )
-                return result
+                )
+            return result
+        return None
+
+    def get_sensor_stats(self, sensor: str) -> Optional[dict[str, Any]]:
+        """Rolling 1h and 24h statistics published by mqtt-db-streams to sensors.stats."""
+        try:
+            cached_stats = self.redis_client.json().get(f"sensors.stats:{sensor}")
+            if cached_stats and isinstance(cached_stats, dict):
+                return cached_stats
             return None
         except Exception as e:
-            print(f"Error retrieving data from Redis: {e}")
+            print(f"Error retrieving stats from Redis: {e}")
+            return None
+
+    def get_sensor_names(self) -> Optional[List[str]]:
+        """Known sensors from the set the sensors.catalog sink keeps in Redis."""
+        try:
+            names = self.redis_client.smembers(self.sensor_names_key)
+            return sorted(names) if names else None
+        except Exception as e:
+            print(f"Error retrieving sensor catalog from Redis: {e}")
             return None
 
     def ping(self) -> bool:
@@ -46,4 +123,14 @@ redis_service = RedisService(
     host=os.getenv("REDIS_HOST", "localhost"),  # Redis server hostname
     port=int(os.getenv("REDIS_PORT", 6379)),  # Redis server port
     db=int(os.getenv("REDIS_DB", 0)),  # Redis database number
+    streams_query_url=os.getenv("STREAMS_QUERY_URL"),  # Fallback when Redis is down
+    delta_key_prefix=os.getenv(
+        "REDIS_DELTA_KEY_PREFIX", "redis.aggdata.hourly:"
+    ),  # Hashes written in delta output mode
+    output_mode=os.getenv(
+        "REDIS_OUTPUT_MODE", "document"
+    ),  # document | delta, as configured for db-redis-streams
+    sensor_names_key=os.getenv(
+        "SENSOR_NAMES_KEY", "sensors.catalog.names"
+    ),  # Set of sensor names written by the catalog sink
 )
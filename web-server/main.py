@@ -2,6 +2,7 @@ from fastapi import FastAPI, HTTPException
 from fastapi.middleware.cors import CORSMiddleware
 from app.routers.sensor_data import router as sensor_data_router
 from app.routers.sensor import router as sensor_router
+from app.routers.sensor_stats import router as sensor_stats_router
 from app.middlewares import ExecutionTimeMiddleware
 from app.services.db_service import get_db_connection
 from app.services.redis_service import redis_service
@@ -37,6 +38,7 @@ app.add_exception_handler(Exception, global_exception_handler)
 # Add routers
 app.include_router(sensor_data_router)
 app.include_router(sensor_router)
+app.include_router(sensor_stats_router)
 
 
 @app.get("/health", response_model=HealthResponse)